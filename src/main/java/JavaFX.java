@@ -1,14 +1,20 @@
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
-import endpoints.my_weather.api.MyWeatherAPI;
-import endpoints.my_weather.data.GridPoint;
-import endpoints.my_weather.data.HourlyPeriod;
-import endpoints.my_weather.data.Period;
-import endpoints.weather_observations.api.WeatherObservations;
-import endpoints.weather_observations.data.Observations;
+import endpoints.my_weather.api.GridPointResolver;
+import endpoints.my_weather.data.DayTable;
+import endpoints.transport.EndpointExecutor;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.Priority;
+import endpoints.transport.SingleFlight;
+import endpoints.weather_observations.api.StationCatalog;
 import javafx.animation.PauseTransition;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -21,7 +27,15 @@ import javafx.stage.PopupWindow.AnchorLocation;
 import javafx.stage.Stage;
 import javafx.util.Duration;
 import javafx.util.Pair;
+import pipeline.LocationChangeCoordinator;
+import pipeline.LocationChangeCoordinator.Change;
+import pipeline.LocationLoader;
+import services.polling.ForecastPoller;
 import settings.Settings;
+import tracing.FxHandoffEvent;
+import tracing.Tracing;
+import settings.SnapshotStore;
+import settings.SnapshotStore.Snapshot;
 import settings.Settings.SettingsLoadException;
 import views.DayScene;
 import views.LoadingScene;
@@ -34,11 +48,9 @@ import views.components.events.NotificationEvent;
 import views.components.events.ThemeChangeEvent;
 import views.components.sidebar.Sidebar;
 import views.util.LocationChangeData;
-import views.util.LocationChangeData.DetailedForecasts;
 import views.util.NotificationBuilder;
 import views.util.NotificationType;
 import views.util.UnitHandler;
-import views.util.UnitHandler.TemperatureUnit;
 
 /**
  * Main Application Class.
@@ -59,6 +71,25 @@ public class JavaFX extends Application {
   Sidebar sidebar;
   Stage primaryStage;
 
+  // the data currently shown and where it was loaded for, saved as a snapshot
+  // for the next launch
+  LocationChangeData current;
+  double[] currentLoc;
+  long currentLoadedAt;
+  // the days of the forecast on screen and their statistics, shared by the
+  // scenes
+  DayTable days;
+
+  // only the newest location change may update the scenes
+  LocationChangeCoordinator locations = new LocationChangeCoordinator();
+  // the scene to go back to once a location change is done
+  Scene returnScene;
+
+  // refreshes the scenes when NWS updates the forecast on screen
+  ForecastPoller poller = new ForecastPoller();
+  ForecastPoller.Watch watching;
+  String watchingKey;
+
   // @MAIN
   public static void main(String[] args) {
     try {
@@ -70,6 +101,12 @@ public class JavaFX extends Application {
     // set the temperature unit from settings
     UnitHandler.setUnit(Settings.getTempUnit());
 
+    // record flight data if asked to, with -Dweatherfx.jfr=FILE
+    Tracing.startFromProperty();
+
+    // open the connection to the weather service while the window is built
+    NwsTransport.warmUp();
+
     launch(args);
   }
 
@@ -84,73 +121,118 @@ public class JavaFX extends Application {
 
     addEventHandlers();
 
-    // data to load
-    GridPoint gridPoint;
-    ArrayList<HourlyPeriod> hourlyForecast;
-    Period todayF;
-    Period todayC;
-    Observations observations;
-
-    loadingScene = new LoadingScene();
+    long launched = System.nanoTime();
 
     // load lat and longitude from settings
     double[] location = Settings.getLastLoc();
     double lat = location[0];
     double lon = location[1];
 
-    // try to load the forecast and weather observations.
-    // fails gracefully. by setting loading scene and sending notification
-    try {
-      gridPoint = MyWeatherAPI.getGridPoint(lat, lon);
-      hourlyForecast = MyWeatherAPI.getHourlyForecast(gridPoint.region, gridPoint.gridX, gridPoint.gridY);
-      todayF = MyWeatherAPI.getForecast(gridPoint.region, gridPoint.gridX, gridPoint.gridY,
-          TemperatureUnit.Fahrenheit);
-      todayC = MyWeatherAPI.getForecast(gridPoint.region, gridPoint.gridX, gridPoint.gridY,
-          TemperatureUnit.Celsius);
-      observations = WeatherObservations.getWeatherObservations(gridPoint.region, gridPoint.gridX,
-          gridPoint.gridY, lat,
-          lon);
-    } catch (Exception e) {
-      primaryStage.setScene(loadingScene.getScene());
+    loadingScene = new LoadingScene();
+    loadingScene.setTheme(Settings.getThemeFile());
+
+    // draw the last weather seen here right away, then refresh it
+    Optional<Snapshot> snapshot = SnapshotStore.getDefault().load().filter(snap -> snap.isFor(lat, lon));
+    if (snapshot.isPresent()) {
+      showWeather(snapshot.get().data, lat, lon);
+      currentLoadedAt = snapshot.get().savedAt;
+      sidebar.setTitle(titleOf(snapshot.get().data) + " (as of "
+          + LocalTime.ofInstant(Instant.ofEpochMilli(snapshot.get().savedAt), ZoneId.systemDefault())
+              .format(DateTimeFormatter.ofPattern("h:mm a"))
+          + ")");
       primaryStage.show();
+      if (Tracing.STATS) {
+        System.out.println(String.format("Load: first frame %dms (snapshot, %d minutes old)",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched), snapshot.get().ageMinutes()));
+      }
 
-      PauseTransition delay = new PauseTransition(Duration.seconds(1));
-      delay.setOnFinished(event -> {
+      // a location change made meanwhile supersedes the refresh
+      Change refresh = Priority.with(Priority.Background,
+          () -> locations.start(lat, lon, snapshot.get().data.name));
+      refresh.future.thenAccept(result -> {
+        Platform.runLater(() -> {
+          if (!locations.isCurrent(refresh)) {
+            return;
+          }
+          updateScenes(result, lat, lon);
+          sidebar.setTitle(titleOf(result));
+        });
+      }).exceptionally(ex -> {
+        Platform.runLater(() -> {
+          if (!locations.isCurrent(refresh)) {
+            return;
+          }
+          new NotificationBuilder()
+              .withMessage("Could not refresh, showing weather from " + snapshot.get().ageMinutes()
+                  + " minutes ago")
+              .ofType(NotificationType.ConnectionError).showFor(5)
+              .fire(primaryStage.getScene().getRoot());
+        });
+        return null;
+      });
+      return;
+    }
 
+    // show the loading scene right away, the data arrives in the background
+    primaryStage.setScene(loadingScene.getScene());
+    primaryStage.show();
+
+    // try to load the forecast and weather observations.
+    // fails gracefully. by staying on the loading scene and sending notification
+    LocationLoader.load(lat, lon, null).thenAccept(result -> {
+      Platform.runLater(() -> {
+        showWeather(result, lat, lon);
+        saveSnapshot();
+        if (Tracing.STATS) {
+          System.out.println(String.format("Load: first frame %dms",
+              TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - launched)));
+        }
+      });
+    }).exceptionally(ex -> {
+      Platform.runLater(() -> {
         new NotificationBuilder()
             .withMessage(
                 "Failed to connect to the internet, Connect to the internet and restart the application")
             .ofType(NotificationType.ConnectionError).showFor(25)
             .fire(loadingScene.getScene().getRoot());
-        ;
       });
+      return null;
+    });
+  }
 
-      delay.play();
-
-      return;
-    }
-
-    // if for some reason the forecast is still null, exit hard.
-    if (hourlyForecast == null) {
-      throw new RuntimeException("Forecast did not load");
-    }
-
-    // create weather scenes
-    todayScene = new TodayScene(hourlyForecast, observations,
-        new DetailedForecasts(todayF.detailedForecast, todayC.detailedForecast));
-    threeDayScene = new ThreeDayScene(hourlyForecast);
-    tenDayScene = new TenDayScene(hourlyForecast);
+  /**
+   * build the weather scenes and sidebar from the first location loaded, and
+   * show them. must run on the JavaFX thread
+   *
+   * @param result the data loaded for the starting location
+   * @param lat    the latitude it was loaded for
+   * @param lon    the longitude it was loaded for
+   */
+  private void showWeather(LocationChangeData result, double lat, double lon) {
+    long start = System.nanoTime();
+    current = result;
+    currentLoc = new double[] { lat, lon };
+    currentLoadedAt = System.currentTimeMillis();
+
+    // create weather scenes. hours are grouped by the days of the location's
+    // zone
+    days = DayTable.of(result.periods, result.point.zone);
+    todayScene = new TodayScene(result.periods, result.point.zone, result.observations,
+        result.detailedForecasts);
+    threeDayScene = new ThreeDayScene(result.periods, days);
+    tenDayScene = new TenDayScene(result.periods, days);
 
     // enumerate scenes
     sceneNdx = Settings.getLastScene();
     Collections.addAll(scenes, todayScene, threeDayScene, tenDayScene);
+    scenes.forEach(scene -> scene.setLocation(titleOf(result)));
 
     // create new sidebar based on scenes
     sidebar = Sidebar.fromScenes(
         new Pair<String, DayScene>("Daily Forecast", todayScene),
         new Pair<String, DayScene>("Three Day Forecast", threeDayScene),
         new Pair<String, DayScene>("Ten Day Forecast", tenDayScene));
-    sidebar.setTitle(gridPoint.location);
+    sidebar.setTitle(titleOf(result));
 
     // set color scheme
     setGlobalTheme(Settings.getThemeFile());
@@ -159,7 +241,109 @@ public class JavaFX extends Application {
     DayScene curScene = scenes.get(sceneNdx);
     curScene.setActiveScene();
     primaryStage.setScene(curScene.getScene());
-    primaryStage.show();
+
+    watchForecast(result);
+
+    if (Tracing.STATS) {
+      System.out.println(String.format("Load: scenes %dms",
+          TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+  }
+
+  /**
+   * show newly loaded data in the existing scenes and snapshot it. must run on
+   * the JavaFX thread
+   *
+   * @param result the data loaded
+   * @param lat    the latitude it was loaded for
+   * @param lon    the longitude it was loaded for
+   */
+  private void updateScenes(LocationChangeData result, double lat, double lon) {
+    scenes.forEach(scene -> scene.setLocation(titleOf(result)));
+    todayScene.update(result.periods, result.point.zone, result.observations,
+        result.detailedForecasts);
+    // a table only groups by one zone, so moving to another starts a new one
+    if (days.index().zone().equals(result.point.zone)) {
+      days.update(result.periods);
+    } else {
+      days = DayTable.of(result.periods, result.point.zone);
+    }
+    threeDayScene.update(result.periods, days);
+    tenDayScene.update(result.periods, days);
+
+    current = result;
+    currentLoc = new double[] { lat, lon };
+    currentLoadedAt = System.currentTimeMillis();
+    saveSnapshot();
+
+    watchForecast(result);
+  }
+
+  /**
+   * poll the grid point on screen, and reload it in the background whenever
+   * NWS publishes a newer forecast for it. the reload is for whatever position
+   * is on screen by then, which may have moved within the same grid point.
+   * must run on the JavaFX thread
+   *
+   * @param result the data on screen
+   */
+  private void watchForecast(LocationChangeData result) {
+    String key = result.point.region + "/" + result.point.gridX + "," + result.point.gridY;
+    if (key.equals(watchingKey)) {
+      return;
+    }
+    if (watching != null) {
+      watching.cancel();
+    }
+    watchingKey = key;
+    watching = poller.watch(result.point.region, result.point.gridX, result.point.gridY, series -> {
+      Platform.runLater(() -> {
+        // leave a location change the user started alone
+        if (!key.equals(watchingKey) || !locations.isIdle()) {
+          return;
+        }
+        double[] loc = currentLoc;
+        long minutesOld = Math.max(0, (System.currentTimeMillis() - currentLoadedAt) / 60_000);
+        Change refresh = Priority.with(Priority.Background,
+            () -> locations.start(loc[0], loc[1], current.name));
+        refresh.future.thenAccept(data -> {
+          Platform.runLater(() -> {
+            if (locations.isCurrent(refresh)) {
+              updateScenes(data, loc[0], loc[1]);
+            }
+          });
+        }).exceptionally(ex -> {
+          Platform.runLater(() -> {
+            if (!locations.isCurrent(refresh)) {
+              return;
+            }
+            new NotificationBuilder()
+                .withMessage("Could not refresh, showing weather from " + minutesOld + " minutes ago")
+                .ofType(NotificationType.ConnectionError).showFor(5)
+                .fire(primaryStage.getScene().getRoot());
+          });
+          return null;
+        });
+      });
+    });
+  }
+
+  /**
+   * write what is on screen to the snapshot, off the JavaFX thread
+   */
+  private void saveSnapshot() {
+    LocationChangeData data = current;
+    double[] loc = currentLoc;
+    long loadedAt = currentLoadedAt;
+    CompletableFuture.runAsync(() -> SnapshotStore.getDefault().save(data, loc[0], loc[1], loadedAt),
+        EndpointExecutor.get());
+  }
+
+  /**
+   * the name to show for a location
+   */
+  private static String titleOf(LocationChangeData data) {
+    return data.name == null ? data.point.location : data.name;
   }
 
   /**
@@ -203,45 +387,22 @@ public class JavaFX extends Application {
     double lat = event.getLat();
     double lon = event.getLon();
 
-    // Store the current scene
-    Scene lastScene = primaryStage.getScene();
+    // Store the current scene, unless an earlier change is still loading
+    if (primaryStage.getScene() != loadingScene.getScene()) {
+      returnScene = primaryStage.getScene();
+    }
+    Scene lastScene = returnScene;
 
     // Show loading scene first
     primaryStage.setScene(loadingScene.getScene());
 
-    // thenCompose is like flatMap but for CompletableFutures
-    // i.e. takes a CF<T> and a function which maps T to another CF<U> and returns
-    // CF<U> (as opposed to CF<CF<U>>)
-    MyWeatherAPI.getGridPointAsync(lat, lon).orTimeout(10, TimeUnit.SECONDS).thenCompose(point -> {
-      if (point == null) {
-        throw new RuntimeException("National Weather Service does not have data for this location");
-      }
-
-      // Start async calls for forecast and weather observations
-      CompletableFuture<ArrayList<HourlyPeriod>> periodFuture = MyWeatherAPI.getHourlyForecastAsync(point.region,
-          point.gridX, point.gridY);
-      CompletableFuture<Observations> observationFuture = WeatherObservations.getWeatherObservationsAsync(point.region,
-          point.gridX, point.gridY, lat, lon);
-
-      // Get the detailed forecast
-      CompletableFuture<DetailedForecasts> detailedForecasts = MyWeatherAPI.getForecastAsync(point.region, point.gridX,
-          point.gridY);
-
-      // return a combination of both the period future and observation future
-      return periodFuture.thenCombine(observationFuture, (periods, observations) -> {
-        if (periods == null || observations == null) {
-          throw new RuntimeException(
-              "Sorry, the National Weather Service does not provide data for " + point.location);
-        }
-        return new LocationChangeData(periods, observations, point, event.getName(), null);
-      }).thenCombine(detailedForecasts, (locChange, detailed) -> {
-        locChange.detailedForecasts = detailed;
-        return locChange;
-      }).orTimeout(10, TimeUnit.SECONDS);
-
-    }).thenAccept(result -> { // `thenAccept conditionally runs a consumer function on the previous
-                              // Future's
-                              // sucessful completion
+    // resolve the grid point, then fetch everything else in parallel. starting
+    // a change cancels the previous one, along with its requests
+    // `thenAccept` conditionally runs a consumer function on the previous
+    // Future's sucessful completion
+    Change change = Priority.with(Priority.Interactive,
+        () -> locations.start(lat, lon, event.getName()));
+    change.future.thenAccept(result -> {
 
       // NOTE:
       // these Platform.runLater calls are needed because JavaFX UI updates
@@ -254,18 +415,22 @@ public class JavaFX extends Application {
       // So, we just need to schedule the update on the main thread. (which we can do
       // with `Platform.runLater()`)
 
+      FxHandoffEvent handoff = new FxHandoffEvent();
+      handoff.begin();
       Platform.runLater(() -> {
-        // Update scenes
-        todayScene.update(result.periods, result.observations, result.detailedForecasts);
-        threeDayScene.update(result.periods);
-        tenDayScene.update(result.periods);
-
-        if (result.name == null) {
-          sidebar.setTitle(result.point.location);
-        } else {
-          // set new location and scene
-          sidebar.setTitle(result.name);
+        handoff.location = titleOf(result);
+        handoff.commit();
+
+        // a newer change owns the scenes now
+        if (!locations.isCurrent(change)) {
+          return;
         }
+
+        // Update scenes
+        updateScenes(result, lat, lon);
+
+        // set new location and scene
+        sidebar.setTitle(titleOf(result));
         sidebar.setLatLon(lat, lon);
         primaryStage.setScene(lastScene);
         sidebar.recievedValidLocation();
@@ -278,6 +443,11 @@ public class JavaFX extends Application {
 
       // Again, see note above for necesscity of this `runLater` call
       Platform.runLater(() -> {
+        // superseded changes fail with a cancellation, nothing to report
+        if (!locations.isCurrent(change)) {
+          return;
+        }
+
         String msg = ex.getMessage().substring(ex.getMessage().indexOf(":") + 2);
         NotificationType type = NotificationType.Error;
         if (msg.toLowerCase().contains("timeout")) {
@@ -329,7 +499,11 @@ public class JavaFX extends Application {
       scene.setTheme(filename);
     }
     loadingScene.setTheme(filename);
-    sidebar.setThemeButton();
+
+    // the sidebar does not exist until the first location has loaded
+    if (sidebar != null) {
+      sidebar.setThemeButton();
+    }
   }
 
   /**
@@ -342,5 +516,32 @@ public class JavaFX extends Application {
 
     // save state to settings
     Settings.saveSettings();
+
+    // stop waiting on a location change that will never be shown
+    locations.cancel();
+    poller.close();
+
+    // keep what is on screen for the next launch
+    if (current != null) {
+      SnapshotStore.getDefault().save(current, currentLoc[0], currentLoc[1], currentLoadedAt);
+    }
+
+    // how the session went, for tuning
+    if (Tracing.STATS) {
+      System.out.println("Transport: " + NwsTransport.getStats());
+      System.out.println("Resilience: " + NwsTransport.getResilienceStats());
+      System.out.println("Rate limiter: " + NwsTransport.getRateLimiterStats());
+      System.out.println("Executor: " + EndpointExecutor.getStats());
+      NwsTransport.getCache().ifPresent(cache -> System.out.println("Cache: " + cache.getStats()));
+      long[] flights = SingleFlight.getStats();
+      System.out.println("Single-flight: calls=" + flights[0] + " collapsed=" + flights[1]);
+      long[] points = GridPointResolver.getDefault().getStats();
+      System.out.println("Grid points: known=" + points[0] + " in-cell=" + points[1] + " fetched=" + points[2]);
+      long[] stations = StationCatalog.getDefault().getStats();
+      System.out.println("Stations: hits=" + stations[0] + " loads=" + stations[1]);
+      long[] changes = locations.getStats();
+      System.out.println("Location changes: started=" + changes[0] + " superseded=" + changes[1]);
+      System.out.println("Poller: " + poller.getStats());
+    }
   }
 }
@@ -0,0 +1,77 @@
+package endpoints.my_weather.api;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites the quantities in a US unit NWS detailed forecast into SI units,
+ * so the forecast only has to be fetched once.
+ * likely should not be instantiated.
+ *
+ * The NWS prose follows a small, fixed vocabulary. temperatures follow words
+ * like "near", "around", "high" and "low", winds and gusts are given in mph and
+ * snow or rain amounts in inches. Anything else is left as is.
+ */
+public class DetailedForecastConverter {
+  private static final double KMH_PER_MPH = 1.609344;
+  private static final double CM_PER_INCH = 2.54;
+
+  // matched in one pass, so a number is only ever rewritten once
+  private static final Pattern QUANTITY = Pattern.compile(
+      // winds, "5 mph", "5 to 10 mph"
+      "(?<speed>\\d+)(?: to (?<speedTo>\\d+))? mph"
+          // amounts, "1 inch", "1 to 3 inches"
+          + "|(?<amount>\\d+(?:\\.\\d+)?)(?: to (?<amountTo>\\d+(?:\\.\\d+)?))? inch(?:es)?"
+          // temperatures, "high near 75", "as low as -3". not a speed,
+          // amount or percentage
+          + "|(?<lead>(?i:\\b(?:near|around|high|low|as|to)\\s+))(?<temp>-?\\d+)\\b"
+          + "(?!\\.\\d|[\\d%]|\\s*(?:percent|mph|inch|to -?\\d))");
+
+  /**
+   * convert a US unit detailed forecast into SI units
+   *
+   * @param usForecast the detailed forecast as sent with {@code units=us}
+   * @return the same forecast with temperatures in Celsius, speeds in km/h and
+   *         amounts in cm, or {@code null} if {@code usForecast} is
+   *         {@code null}
+   */
+  public static String toSI(String usForecast) {
+    if (usForecast == null) {
+      return null;
+    }
+
+    Matcher m = QUANTITY.matcher(usForecast);
+    StringBuilder out = new StringBuilder(usForecast.length());
+    while (m.find()) {
+      String replacement;
+      if (m.group("speed") != null) {
+        replacement = kmh(m.group("speed"))
+            + (m.group("speedTo") != null ? " to " + kmh(m.group("speedTo")) : "") + " km/h";
+      } else if (m.group("amount") != null) {
+        replacement = cm(m.group("amount"))
+            + (m.group("amountTo") != null ? " to " + cm(m.group("amountTo")) : "") + " cm";
+      } else {
+        replacement = m.group("lead") + celsius(m.group("temp"));
+      }
+      m.appendReplacement(out, Matcher.quoteReplacement(replacement));
+    }
+    m.appendTail(out);
+
+    return out.toString();
+  }
+
+  /**
+   * convert a whole degree Fahrenheit value to the nearest degree Celsius
+   */
+  static long celsius(String fahrenheit) {
+    return Math.round((Integer.parseInt(fahrenheit) - 32) * 5.0 / 9.0);
+  }
+
+  private static long kmh(String mph) {
+    return Math.round(Integer.parseInt(mph) * KMH_PER_MPH);
+  }
+
+  private static long cm(String inches) {
+    return Math.max(1, Math.round(Double.parseDouble(inches) * CM_PER_INCH));
+  }
+}
@@ -0,0 +1,398 @@
+package endpoints.my_weather.api;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import endpoints.my_weather.data.GridPoint;
+
+/**
+ * Remembers which grid point a latitude, longitude pair resolves to, so a
+ * location change does not need a {@code /points} round trip when the answer
+ * is already known.
+ *
+ * A coordinate resolves without any network call if it was resolved before
+ * (after quantizing to the 4 decimal places {@code /points} accepts), or if it
+ * falls inside the outline of a forecast grid cell seen in an earlier hourly
+ * forecast. Redirects sent by {@code /points} are remembered too.
+ *
+ * Everything is kept in memory and written through to a SQLite database, so
+ * it survives restarts. Typically used through {@code MyWeatherAPI.getGridPoint}
+ */
+public class GridPointResolver {
+  // 4 decimal places, about 11 meters
+  private static final double QUANTUM = 1e4;
+
+  private static GridPointResolver defaultResolver;
+
+  // null when running in memory only
+  private final Connection conn;
+
+  // resolved coordinates, by quantized latitude and longitude
+  private final HashMap<Long, GridPoint> points = new HashMap<>();
+  // every grid point seen, by region and grid coordinates
+  private final HashMap<String, GridPoint> grids = new HashMap<>();
+  // known grid cell outlines
+  private final ArrayList<Cell> cells = new ArrayList<>();
+  // redirect targets, by request url
+  private final HashMap<String, String> redirects = new HashMap<>();
+
+  // counters, see {@code getStats}
+  private final AtomicLong pointHits = new AtomicLong();
+  private final AtomicLong cellHits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * The outline of a single forecast grid cell
+   */
+  private static class Cell {
+    final GridPoint point;
+    // longitude, latitude pairs
+    final double[] ring;
+    final double minLat, maxLat, minLon, maxLon;
+
+    Cell(GridPoint point, double[] ring) {
+      this.point = point;
+      this.ring = ring;
+
+      double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+      double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+      for (int i = 0; i < ring.length; i += 2) {
+        minLon = Math.min(minLon, ring[i]);
+        maxLon = Math.max(maxLon, ring[i]);
+        minLat = Math.min(minLat, ring[i + 1]);
+        maxLat = Math.max(maxLat, ring[i + 1]);
+      }
+      this.minLat = minLat;
+      this.maxLat = maxLat;
+      this.minLon = minLon;
+      this.maxLon = maxLon;
+    }
+
+    /**
+     * ray casting test, counting how many edges a ray going east crosses
+     */
+    boolean contains(double lat, double lon) {
+      if (lat < minLat || lat > maxLat || lon < minLon || lon > maxLon) {
+        return false;
+      }
+
+      boolean inside = false;
+      int n = ring.length / 2;
+      for (int i = 0, j = n - 1; i < n; j = i++) {
+        double xi = ring[2 * i], yi = ring[2 * i + 1];
+        double xj = ring[2 * j], yj = ring[2 * j + 1];
+        if ((yi > lat) != (yj > lat) && lon < (xj - xi) * (lat - yi) / (yj - yi) + xi) {
+          inside = !inside;
+        }
+      }
+      return inside;
+    }
+  }
+
+  /**
+   * create a resolver that only remembers for the life of the program
+   */
+  public GridPointResolver() {
+    this.conn = null;
+  }
+
+  /**
+   * open (or create) a persistent resolver, loading everything it remembers
+   *
+   * @param file the SQLite database file
+   */
+  public GridPointResolver(Path file) throws SQLException {
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+    } catch (Exception e) {
+      throw new SQLException("Failed to create directory for " + file, e);
+    }
+
+    conn = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute("PRAGMA journal_mode=WAL");
+      stmt.execute("PRAGMA synchronous=NORMAL");
+      stmt.execute("create table if not exists POINTS (LAT integer, LON integer, REGION text,"
+          + " GRID_X integer, GRID_Y integer, LOCATION text, TIME_ZONE text, primary key (LAT, LON))");
+      stmt.execute("create table if not exists CELLS (REGION text, GRID_X integer, GRID_Y integer,"
+          + " LOCATION text, TIME_ZONE text, RING text, primary key (REGION, GRID_X, GRID_Y))");
+      stmt.execute("create table if not exists REDIRECTS (URL text primary key, TARGET text)");
+
+      // rows whose zone this JVM does not know are left out, so the next lookup refetches
+      // them from /points and overwrites them
+      ResultSet rs = stmt.executeQuery("select LAT, LON, REGION, GRID_X, GRID_Y, LOCATION, TIME_ZONE"
+          + " from POINTS");
+      while (rs.next()) {
+        ZoneId zone = GridPoint.zoneOf(rs.getString(7));
+        if (zone == null) {
+          continue;
+        }
+        GridPoint point = intern(new GridPoint(rs.getInt(4), rs.getInt(5), rs.getString(3),
+            rs.getString(6), zone));
+        points.put(key(rs.getInt(1), rs.getInt(2)), point);
+      }
+
+      rs = stmt.executeQuery("select REGION, GRID_X, GRID_Y, LOCATION, TIME_ZONE, RING from CELLS");
+      while (rs.next()) {
+        ZoneId zone = GridPoint.zoneOf(rs.getString(5));
+        if (zone == null) {
+          continue;
+        }
+        GridPoint point = intern(new GridPoint(rs.getInt(2), rs.getInt(3), rs.getString(1),
+            rs.getString(4), zone));
+        cells.add(new Cell(point, parseRing(rs.getString(6))));
+      }
+
+      rs = stmt.executeQuery("select URL, TARGET from REDIRECTS");
+      while (rs.next()) {
+        redirects.put(rs.getString(1), rs.getString(2));
+      }
+    }
+  }
+
+  /**
+   * get the shared resolver, opening the default database on first use. falls
+   * back to memory only if the database cannot be opened, or if
+   * {@code -Dweatherfx.cache=off} is given
+   *
+   * @return the shared {@code GridPointResolver}
+   */
+  public static synchronized GridPointResolver getDefault() {
+    if (defaultResolver == null) {
+      if ("off".equals(System.getProperty("weatherfx.cache"))) {
+        defaultResolver = new GridPointResolver();
+      } else {
+        try {
+          defaultResolver = new GridPointResolver(defaultPath());
+        } catch (SQLException e) {
+          System.err.println("Failed to open grid point cache, continuing without it: " + e.getMessage());
+          defaultResolver = new GridPointResolver();
+        }
+      }
+    }
+    return defaultResolver;
+  }
+
+  /**
+   * the default database location, in the user's home directory
+   *
+   * @return the path of the grid point database
+   */
+  public static Path defaultPath() {
+    return Paths.get(System.getProperty("user.home"), ".weatherfx", "gridpoints.db");
+  }
+
+  /**
+   * round a coordinate to the precision {@code /points} accepts
+   *
+   * @param degrees a latitude or longitude
+   * @return the coordinate in ten thousandths of a degree
+   */
+  public static int quantize(double degrees) {
+    return (int) Math.round(degrees * QUANTUM);
+  }
+
+  /**
+   * format a quantized coordinate the way {@code /points} expects it, with no
+   * more than 4 decimal places and no trailing zeros
+   *
+   * @param quantized a coordinate from {@code quantize}
+   * @return the coordinate as a string
+   */
+  public static String format(int quantized) {
+    return BigDecimal.valueOf(quantized, 4).stripTrailingZeros().toPlainString();
+  }
+
+  /**
+   * resolve a coordinate without touching the network
+   *
+   * @param lat the latitude of the position
+   * @param lon the longitude of the position
+   * @return a copy of the known {@code GridPoint}, if there is one
+   */
+  public synchronized Optional<GridPoint> resolve(double lat, double lon) {
+    GridPoint point = points.get(key(quantize(lat), quantize(lon)));
+    if (point != null) {
+      pointHits.incrementAndGet();
+      return Optional.of(copy(point));
+    }
+
+    for (Cell cell : cells) {
+      if (cell.contains(lat, lon)) {
+        cellHits.incrementAndGet();
+        return Optional.of(copy(cell.point));
+      }
+    }
+
+    misses.incrementAndGet();
+    return Optional.empty();
+  }
+
+  /**
+   * remember the grid point a coordinate resolved to
+   *
+   * @param lat   the latitude of the position
+   * @param lon   the longitude of the position
+   * @param point the grid point returned by {@code /points}
+   */
+  public synchronized void remember(double lat, double lon, GridPoint point) {
+    int qlat = quantize(lat), qlon = quantize(lon);
+    point = intern(copy(point));
+    points.put(key(qlat, qlon), point);
+
+    write("insert or replace into POINTS (LAT, LON, REGION, GRID_X, GRID_Y, LOCATION, TIME_ZONE)"
+        + " values (?, ?, ?, ?, ?, ?, ?)", qlat, qlon, point.region, point.gridX, point.gridY,
+        point.location, point.zone.getId());
+  }
+
+  /**
+   * remember the outline of a grid cell. ignored unless the grid point was
+   * already resolved, as its location name would otherwise be unknown
+   *
+   * @param region the weather region
+   * @param gridx  the x value of the grid point
+   * @param gridy  the y value of the grid point
+   * @param ring   the cell outline as longitude, latitude pairs
+   */
+  public synchronized void rememberCell(String region, int gridx, int gridy, double[] ring) {
+    GridPoint point = grids.get(gridKey(region, gridx, gridy));
+    if (point == null || ring == null || ring.length < 6) {
+      return;
+    }
+
+    // replace any older outline of the same cell
+    cells.removeIf(cell -> cell.point == point);
+    cells.add(new Cell(point, ring));
+
+    write("insert or replace into CELLS (REGION, GRID_X, GRID_Y, LOCATION, TIME_ZONE, RING)"
+        + " values (?, ?, ?, ?, ?, ?)", region, gridx, gridy, point.location, point.zone.getId(),
+        formatRing(ring));
+  }
+
+  /**
+   * get where a url was last redirected to
+   *
+   * @param url the request url
+   * @return the redirect target, or {@code url} itself if it was never
+   *         redirected
+   */
+  public synchronized String redirectFor(String url) {
+    return redirects.getOrDefault(url, url);
+  }
+
+  /**
+   * remember that a url redirected somewhere else
+   *
+   * @param url    the request url
+   * @param target the url it redirected to
+   */
+  public synchronized void rememberRedirect(String url, String target) {
+    if (target.equals(redirects.put(url, target))) {
+      return;
+    }
+    write("insert or replace into REDIRECTS (URL, TARGET) values (?, ?)", url, target);
+  }
+
+  /**
+   * get how many lookups were answered by a known coordinate, by a known cell,
+   * or not at all
+   *
+   * @return a {@code long} array of size three in the format of {point hits,
+   *         cell hits, misses}
+   */
+  public long[] getStats() {
+    return new long[] { pointHits.get(), cellHits.get(), misses.get() };
+  }
+
+  /**
+   * close the underlying database, if any
+   */
+  public synchronized void close() {
+    if (conn == null) {
+      return;
+    }
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      System.err.println("Failed to close grid point cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * share one {@code GridPoint} per grid coordinate, keeping the newest
+   * location name and time zone
+   */
+  private GridPoint intern(GridPoint point) {
+    GridPoint known = grids.get(gridKey(point.region, point.gridX, point.gridY));
+    if (known == null) {
+      grids.put(gridKey(point.region, point.gridX, point.gridY), point);
+      return point;
+    }
+    known.location = point.location;
+    known.zone = point.zone;
+    return known;
+  }
+
+  /**
+   * run an insert, if persistent. failures only cost the next restart a
+   * lookup, so they are logged and ignored
+   */
+  private void write(String sql, Object... values) {
+    if (conn == null) {
+      return;
+    }
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (int i = 0; i < values.length; i++) {
+        stmt.setObject(i + 1, values[i]);
+      }
+      stmt.executeUpdate();
+    } catch (SQLException e) {
+      System.err.println("Failed to write grid point cache: " + e.getMessage());
+    }
+  }
+
+  private static GridPoint copy(GridPoint point) {
+    return new GridPoint(point.gridX, point.gridY, point.region, point.location, point.zone);
+  }
+
+  private static long key(int qlat, int qlon) {
+    return ((long) qlat << 32) | (qlon & 0xffffffffL);
+  }
+
+  private static String gridKey(String region, int gridx, int gridy) {
+    return region + "/" + gridx + "," + gridy;
+  }
+
+  private static String formatRing(double[] ring) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < ring.length; i++) {
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(ring[i]);
+    }
+    return sb.toString();
+  }
+
+  private static double[] parseRing(String text) {
+    String[] parts = text.split(",");
+    double[] ring = new double[parts.length];
+    for (int i = 0; i < parts.length; i++) {
+      ring[i] = Double.parseDouble(parts[i]);
+    }
+    return ring;
+  }
+}
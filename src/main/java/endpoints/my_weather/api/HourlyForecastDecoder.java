@@ -0,0 +1,257 @@
+package endpoints.my_weather.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.IsoTime;
+import endpoints.my_weather.data.Wind;
+
+/**
+ * Streams a {@code /forecast/hourly} response straight into a
+ * {@code ForecastSeries}.
+ * likely should not be instantiated.
+ *
+ * Reads tokens with a {@code JsonParser} as they arrive instead of binding the
+ * whole document to {@code HourlyPeriodJson}, so no {@code String} body,
+ * {@code HourlyPeriod}, or {@code Date} is ever created. short forecasts are
+ * matched against the series' table in place, so only a phrase not seen
+ * before becomes a {@code String}.
+ */
+public class HourlyForecastDecoder {
+  // factories are thread safe and expensive to create, so share one
+  private static final JsonFactory factory = new JsonFactory();
+  private static final char[] NO_CHARS = {};
+
+  /**
+   * decode an hourly forecast document
+   *
+   * @param in the response body
+   * @return the {@code ForecastSeries} read from the body
+   */
+  public static ForecastSeries decode(InputStream in) throws IOException {
+    try (JsonParser p = factory.createParser(in)) {
+      ForecastSeries series = new ForecastSeries();
+
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(p, "Expected a forecast object");
+      }
+
+      // only the geometry and properties members hold anything we keep
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        if (name.equals("properties")) {
+          readProperties(p, series);
+        } else if (name.equals("geometry")) {
+          series.cell = readPolygon(p);
+        } else {
+          p.skipChildren();
+        }
+      }
+
+      return series;
+    }
+  }
+
+  /**
+   * read the outer ring of a GeoJSON polygon as flat longitude, latitude pairs,
+   * the parser must be on the start token of the geometry object
+   *
+   * @return the ring, or {@code null} if the geometry is not a polygon
+   */
+  private static double[] readPolygon(JsonParser p) throws IOException {
+    if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+      p.skipChildren();
+      return null;
+    }
+
+    double[] ring = null;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+      if (!name.equals("coordinates") || token != JsonToken.START_ARRAY) {
+        p.skipChildren();
+        continue;
+      }
+
+      // only the first ring is the outline, any others are holes
+      if (p.nextToken() != JsonToken.START_ARRAY) {
+        p.skipChildren();
+        continue;
+      }
+      double[] coords = new double[16];
+      int n = 0;
+      while (p.nextToken() == JsonToken.START_ARRAY) {
+        if (n + 2 > coords.length) {
+          coords = Arrays.copyOf(coords, coords.length * 2);
+        }
+        // keep longitude and latitude, drop any altitude
+        for (int axis = 0; p.nextToken().isNumeric(); axis++) {
+          if (axis < 2) {
+            coords[n + axis] = p.getDoubleValue();
+          }
+        }
+        n += 2;
+      }
+      ring = Arrays.copyOf(coords, n);
+
+      // skip any holes
+      while (p.nextToken() != JsonToken.END_ARRAY) {
+        p.skipChildren();
+      }
+    }
+
+    return ring != null && ring.length >= 6 ? ring : null;
+  }
+
+  /**
+   * read the {@code properties} object, the parser must be on its start token
+   */
+  private static void readProperties(JsonParser p, ForecastSeries series) throws IOException {
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+
+      switch (name) {
+        case "generatedAt":
+          series.generatedAt = readTime(p);
+          break;
+        case "updateTime":
+          series.updateTime = readTime(p);
+          break;
+        case "periods":
+          if (token != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            break;
+          }
+          while (p.nextToken() == JsonToken.START_OBJECT) {
+            readPeriod(p, series);
+          }
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+  }
+
+  /**
+   * read a single period object into the end of the series
+   */
+  private static void readPeriod(JsonParser p, ForecastSeries series) throws IOException {
+    long start = 0, end = 0;
+    boolean daytime = false;
+    int temperature = 0, precipitation = 0, humidity = 0, wind = 0, windMax = 0;
+    float dewpoint = Float.NaN, windDegrees = Float.NaN;
+    int shortForecast = -1;
+
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      p.nextToken();
+
+      switch (name) {
+        case "startTime":
+          start = readTime(p);
+          break;
+        case "endTime":
+          end = readTime(p);
+          break;
+        case "isDaytime":
+          daytime = p.getCurrentToken() == JsonToken.VALUE_TRUE;
+          break;
+        case "temperature":
+          temperature = (int) Math.round(readValue(p, 0));
+          break;
+        case "probabilityOfPrecipitation":
+          precipitation = (int) Math.round(readValue(p, 0));
+          break;
+        case "relativeHumidity":
+          humidity = (int) Math.round(readValue(p, 0));
+          break;
+        case "dewpoint":
+          dewpoint = (float) readValue(p, Double.NaN);
+          break;
+        case "windSpeed":
+          if (p.getCurrentToken() == JsonToken.VALUE_STRING) {
+            wind = Wind.minSpeed(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            windMax = Wind.maxSpeed(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+          } else {
+            p.skipChildren();
+          }
+          break;
+        case "windDirection":
+          if (p.getCurrentToken() == JsonToken.VALUE_STRING) {
+            windDegrees = Wind.degrees(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+          } else {
+            p.skipChildren();
+          }
+          break;
+        case "shortForecast":
+          if (p.getCurrentToken() == JsonToken.VALUE_STRING) {
+            shortForecast = series.forecastId(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+          } else {
+            p.skipChildren();
+          }
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+
+    // an hour without a short forecast gets an empty one
+    if (shortForecast < 0) {
+      shortForecast = series.forecastId(NO_CHARS, 0, 0);
+    }
+    series.add(start, end, daytime, temperature, precipitation, dewpoint, humidity, wind, windMax, windDegrees,
+        shortForecast);
+  }
+
+  /**
+   * read a number that may be given bare or as a {@code {unitCode, value}}
+   * quantity object
+   *
+   * @param missing the value to use for {@code null}
+   */
+  private static double readValue(JsonParser p, double missing) throws IOException {
+    JsonToken token = p.getCurrentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return p.getDoubleValue();
+    }
+    if (token != JsonToken.START_OBJECT) {
+      p.skipChildren();
+      return missing;
+    }
+
+    double value = missing;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      token = p.nextToken();
+      if (name.equals("value") && token.isNumeric()) {
+        value = p.getDoubleValue();
+      } else {
+        p.skipChildren();
+      }
+    }
+    return value;
+  }
+
+  /**
+   * read an ISO-8601 timestamp like {@code 2025-04-02T14:00:00-05:00} as epoch
+   * seconds
+   */
+  private static long readTime(JsonParser p) throws IOException {
+    if (p.getCurrentToken() != JsonToken.VALUE_STRING) {
+      p.skipChildren();
+      return 0;
+    }
+    return IsoTime.epochSecond(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+  }
+}
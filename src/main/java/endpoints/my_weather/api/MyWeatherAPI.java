@@ -1,11 +1,12 @@
 package endpoints.my_weather.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -14,9 +15,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import endpoints.my_weather.api.json.GridPointJson;
 import endpoints.my_weather.api.json.HourlyPeriodJson;
 import endpoints.my_weather.api.json.PeriodJson;
+import endpoints.my_weather.data.ForecastSeries;
 import endpoints.my_weather.data.GridPoint;
 import endpoints.my_weather.data.HourlyPeriod;
 import endpoints.my_weather.data.Period;
+import endpoints.transport.EndpointExecutor;
+import endpoints.transport.Futures;
+import endpoints.transport.NwsResponse;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.SingleFlight;
+import tracing.EndpointEvent;
+import tracing.Tracing;
 import views.util.LocationChangeData.DetailedForecasts;
 import views.util.UnitHandler.TemperatureUnit;
 
@@ -24,14 +33,25 @@ import views.util.UnitHandler.TemperatureUnit;
  * used for getting weather forecasts statically.
  * likely should not be instantiated.
  *
+ * The {@code *Async} methods never block a thread on the network. cancelling
+ * their futures, or letting them time out, aborts the request. The blocking
+ * methods wait on the async ones.
+ *
  * most useful methods:
  * - {@code getHourlyForecastAsync}
  * - {@code getHourlyForecast}
+ * - {@code getHourlySeriesAsync}
  */
 public class MyWeatherAPI {
   // amount of retries to attempt if status code 301 is read
   private static int MAX_RETRIES = 5;
 
+  // concurrent identical requests share one call, keyed by normalized url
+  private static final SingleFlight<ArrayList<HourlyPeriod>> hourlyFlights = new SingleFlight<>();
+  private static final SingleFlight<ForecastSeries> seriesFlights = new SingleFlight<>();
+  private static final SingleFlight<Period> forecastFlights = new SingleFlight<>();
+  private static final SingleFlight<GridPoint> gridPointFlights = new SingleFlight<>();
+
   /**
    * asynchronously gather hourly forecasts given a region and gridpoints
    *
@@ -44,20 +64,35 @@ public class MyWeatherAPI {
    */
   public static CompletableFuture<ArrayList<HourlyPeriod>> getHourlyForecastAsync(String region,
       int gridx, int gridy) {
-    return CompletableFuture
-        .supplyAsync(() -> {
-          try {
-            return MyWeatherAPI.getHourlyForecast(region, gridx, gridy);
-          } catch (ConnectException ce) {
-            throw new RuntimeException("Failed to connect");
-          }
-        });
+    String url = hourlyForecastUrl(region, gridx, gridy);
+    return hourlyFlights.run(SingleFlight.normalize(url), () -> Tracing.endpoint("hourly",
+        gridLocation(region, gridx, gridy), url, response -> readHourlyForecast(region, gridx, gridy, response)));
+  }
+
+  /**
+   * asynchronously gather a compact hourly forecast given a region and
+   * gridpoints
+   *
+   * @param region the weather region. typically found from a
+   *               {@code my_weather.gridPoint} object
+   * @param gridx  the x value for the grid point found similarly to above.
+   * @param gridy  the y value for the grid point found similarly to above.
+   * @return a {@code CompletableFuture} of a {@code ForecastSeries} containing
+   *         the weather forecasts
+   */
+  public static CompletableFuture<ForecastSeries> getHourlySeriesAsync(String region, int gridx,
+      int gridy) {
+    String url = hourlyForecastUrl(region, gridx, gridy);
+    return seriesFlights.run(SingleFlight.normalize(url), () -> Tracing.endpoint("hourly",
+        gridLocation(region, gridx, gridy), url, response -> readHourlySeries(region, gridx, gridy, response)));
   }
 
   /**
    * asynchronously gather forecast given a region and gridpoints
    *
-   * This method is mainly used to obtain the detailed forecast for "today"
+   * This method is mainly used to obtain the detailed forecast for "today".
+   * only the US unit forecast is fetched, the SI one is converted from it
+   * locally, see {@code DetailedForecastConverter}
    *
    * @param region the weather region. typically found from a
    *               {@code my_weather.gridPoint} object
@@ -70,24 +105,12 @@ public class MyWeatherAPI {
   public static CompletableFuture<DetailedForecasts> getForecastAsync(String region,
       int gridx, int gridy) {
 
-    CompletableFuture<Period> todayF = CompletableFuture.supplyAsync(() -> {
-      try {
-        return MyWeatherAPI.getForecast(region, gridx, gridy, TemperatureUnit.Fahrenheit);
-      } catch (ConnectException ce) {
-        throw new RuntimeException("Failed to Connect");
-      }
-    });
-    CompletableFuture<Period> todayC = CompletableFuture.supplyAsync(() -> {
-      try {
-        return MyWeatherAPI.getForecast(region, gridx, gridy, TemperatureUnit.Celsius);
-      } catch (ConnectException ce) {
-        throw new RuntimeException("Failed to Connect");
-      }
-    });
+    CompletableFuture<Period> todayF = getForecastPeriodAsync(region, gridx, gridy,
+        TemperatureUnit.Fahrenheit);
 
-    return todayF.thenCombine(todayC, (periodF, periodC) -> {
-      return new DetailedForecasts(periodF.detailedForecast, periodC.detailedForecast);
-    });
+    return Futures.propagateCancel(todayF.thenApply(periodF -> {
+      return periodF == null ? null : DetailedForecasts.fromUS(periodF.detailedForecast);
+    }), todayF);
 
   }
 
@@ -99,12 +122,54 @@ public class MyWeatherAPI {
    * @return a {@code CompletableFuture} of a {@code GridPoint}
    */
   public static CompletableFuture<GridPoint> getGridPointAsync(double lat, double lon) {
-    return CompletableFuture.supplyAsync(() -> {
-      try {
-        return MyWeatherAPI.getGridPoint(lat, lon);
-      } catch (ConnectException ce) {
-        throw new RuntimeException("Failed to connect");
+    // answer from a known coordinate or grid cell if possible
+    GridPointResolver resolver = GridPointResolver.getDefault();
+    Optional<GridPoint> known = resolver.resolve(lat, lon);
+    if (known.isPresent()) {
+      return CompletableFuture.completedFuture(known.get());
+    }
+
+    String requested = pointsUrl(lat, lon);
+    return gridPointFlights.run(SingleFlight.normalize(requested), () -> {
+      EndpointEvent event = Tracing.begin("points", lat + "," + lon, requested);
+
+      // skip straight to any known redirect target
+      CompletableFuture<NwsResponse> response = followRedirects(resolver.redirectFor(requested), 0);
+      return Tracing.end(event, Futures.propagateCancel(response.thenApplyAsync(r -> {
+        Tracing.responded(event, r);
+        return readGridPoint(lat, lon, requested, r);
+      }, EndpointExecutor.getDecoder()), response));
+    });
+  }
+
+  /**
+   * asynchronously gather the first forecast period in a single unit, sharing
+   * the request with any identical one already running
+   */
+  private static CompletableFuture<Period> getForecastPeriodAsync(String region, int gridx,
+      int gridy, TemperatureUnit unit) {
+    String url = forecastUrl(region, gridx, gridy, unit);
+    return forecastFlights.run(SingleFlight.normalize(url), () -> Tracing.endpoint("forecast",
+        gridLocation(region, gridx, gridy), url, response -> readForecast(region, gridx, gridy, response)));
+  }
+
+  /**
+   * GET a url, following up to {@code MAX_RETRIES} 301 (redirect) responses
+   */
+  private static CompletableFuture<NwsResponse> followRedirects(String url, int retries) {
+    return Futures.chain(NwsTransport.getAsync(url), response -> {
+      if (response.statusCode != 301 || retries >= MAX_RETRIES) {
+        return CompletableFuture.completedFuture(response);
+      }
+
+      // form the new request
+      Optional<String> location = response.headers.firstValue("location");
+      if (location.isEmpty()) {
+        return CompletableFuture.completedFuture(response);
       }
+      // the location is usually a path on the same server
+      String next = location.get().startsWith("/") ? NwsTransport.baseUrl() + location.get() : location.get();
+      return followRedirects(next, retries + 1);
     });
   }
 
@@ -119,37 +184,86 @@ public class MyWeatherAPI {
    */
   public static ArrayList<HourlyPeriod> getHourlyForecast(String region, int gridx, int gridy)
       throws ConnectException {
-    // form the api request
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/gridpoints/" + region + "/" + String.valueOf(gridx)
-            + "," + String.valueOf(gridy) + "/forecast/hourly"))
-        .build();
-    HttpResponse<String> response = null;
-
-    // send the request, fail gracefully if needed
-    try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-    } catch (ConnectException ce) {
-      throw new ConnectException("Failed to connect to the internet");
-    } catch (Exception e) {
-      e.printStackTrace();
-      return null;
-    }
+    return Futures.await(getHourlyForecastAsync(region, gridx, gridy));
+  }
+
+  /**
+   * gather a compact hourly forecast given a region and gridpoints.
+   * the response is decoded by streaming over its bytes, see
+   * {@code HourlyForecastDecoder}
+   *
+   * @param region the weather region. typically found from a
+   *               {@code my_weather.gridPoint} object
+   * @param gridx  the x value for the grid point found similarly to above.
+   * @param gridy  the y value for the grid point found similarly to above.
+   * @return a {@code ForecastSeries} containing the weather forecasts
+   */
+  public static ForecastSeries getHourlySeries(String region, int gridx, int gridy)
+      throws ConnectException {
+    return Futures.await(getHourlySeriesAsync(region, gridx, gridy));
+  }
+
+  /**
+   * gather forecasts given a region and gridpoints
+   *
+   * @param region the weather region. typically found from a
+   *               {@code my_weather.gridPoint} object
+   * @param gridx  the x value for the grid point found similarly to above.
+   * @param gridy  the y value for the grid point found similarly to above.
+   * @param unit   a temperature unit for the long forecast. (this otherwise is
+   *               not easily convertable because of the lack of standard format
+   *               in the long forecast string)
+   * @return a single {@code Period} containing the weather for today
+   */
+  public static Period getForecast(String region, int gridx, int gridy, TemperatureUnit unit)
+      throws ConnectException {
+    return Futures.await(getForecastPeriodAsync(region, gridx, gridy, unit));
+  }
 
+  /**
+   * gather a grid point based on a latitude, longitude pair
+   *
+   * @param lat the latitude of the position
+   * @param lon the longitude of the position
+   * @return a {@code CompletableFuture} of a {@code GridPoint}
+   */
+  public static GridPoint getGridPoint(double lat, double lon) throws ConnectException {
+    return Futures.await(getGridPointAsync(lat, lon));
+  }
+
+  /**
+   * read an hourly forecast response into a list of periods
+   *
+   * @return the periods, or {@code null} if the response was bad
+   */
+  private static ArrayList<HourlyPeriod> readHourlyForecast(String region, int gridx, int gridy,
+      NwsResponse response) {
     // if a bad status code was recieved, fail gracefully, log to system err
-    if (response.statusCode() < 200 || response.statusCode() > 299) {
-      System.err.println("Response was: " + response.toString() + "\n"
-          + "Request was: " + request.toString());
+    if (!response.isSuccess()) {
+      System.err.println("Response was: " + response.toString());
       return null;
     }
 
     // parse the response body json into an object
-    HourlyPeriodJson r = getHourlyObject(response.body());
+    HourlyPeriodJson r = Tracing.decode("HourlyPeriodJson", gridLocation(region, gridx, gridy),
+        response.body.length, () -> getHourlyObject(response.bodyAsString()));
     if (r == null) {
       System.err.println("Failed to parse JSon");
       return null;
     }
 
+    // remember the outline of the grid cell, so points inside it resolve
+    // without a request
+    if (r.geometry != null && r.geometry.coordinates != null && !r.geometry.coordinates.isEmpty()) {
+      ArrayList<ArrayList<Double>> outline = r.geometry.coordinates.getFirst();
+      double[] ring = new double[outline.size() * 2];
+      for (int i = 0; i < outline.size(); i++) {
+        ring[2 * i] = outline.get(i).get(0);
+        ring[2 * i + 1] = outline.get(i).get(1);
+      }
+      GridPointResolver.getDefault().rememberCell(region, gridx, gridy, ring);
+    }
+
     // parse the object into a list of periods
     ArrayList<HourlyPeriod> periods = new ArrayList<>();
     r.properties.periods.iterator().forEachRemaining(period -> {
@@ -159,59 +273,46 @@ public class MyWeatherAPI {
   }
 
   /**
-   * gather forecasts given a region and gridpoints
+   * stream an hourly forecast response into a {@code ForecastSeries}
    *
-   * @param region the weather region. typically found from a
-   *               {@code my_weather.gridPoint} object
-   * @param gridx  the x value for the grid point found similarly to above.
-   * @param gridy  the y value for the grid point found similarly to above.
-   * @param unit   a temperature unit for the long forecast. (this otherwise is
-   *               not easily convertable because of the lack of standard format
-   *               in the long forecast string)
-   * @return a single {@code Period} containing the weather for today
+   * @return the series, or {@code null} if the response was bad
    */
-  public static Period getForecast(String region, int gridx, int gridy, TemperatureUnit unit)
-      throws ConnectException {
-
-    final String unitString;
-    switch (unit) {
-      case Celsius:
-        unitString = "si";
-        break;
-      case Fahrenheit:
-        unitString = "us";
-        break;
-      default:
-        unitString = "";
-        break;
+  private static ForecastSeries readHourlySeries(String region, int gridx, int gridy,
+      NwsResponse response) {
+    // if a bad status code was recieved, fail gracefully, log to system err
+    if (!response.isSuccess()) {
+      System.err.println("Response was: " + response.toString());
+      return null;
     }
 
-    // form the api request
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/gridpoints/" + region + "/" + String.valueOf(gridx)
-            + "," + String.valueOf(gridy) + "/forecast?units=" + unitString))
-        .build();
-    HttpResponse<String> response = null;
-
-    // send the request, fail gracefully if needed
-    try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-    } catch (ConnectException ce) {
-      throw new ConnectException("Failed to connect to the internet");
-    } catch (Exception e) {
+    // decode the body without building a string from it
+    try (InputStream body = response.bodyStream()) {
+      ForecastSeries series = Tracing.decode("ForecastSeries", gridLocation(region, gridx, gridy),
+          response.body.length, () -> decodeSeries(body));
+      GridPointResolver.getDefault().rememberCell(region, gridx, gridy, series.cell);
+      return series;
+    } catch (IOException | UncheckedIOException e) {
       e.printStackTrace();
+      System.err.println("Failed to parse JSon");
       return null;
     }
+  }
 
+  /**
+   * read a forecast response into its first period
+   *
+   * @return the period, or {@code null} if the response was bad
+   */
+  private static Period readForecast(String region, int gridx, int gridy, NwsResponse response) {
     // if a bad status code was recieved, fail gracefully, log to system err
-    if (response.statusCode() < 200 || response.statusCode() > 299) {
-      System.err.println("Response was: " + response.toString() + "\n"
-          + "Request was: " + request.toString());
+    if (!response.isSuccess()) {
+      System.err.println("Response was: " + response.toString());
       return null;
     }
 
     // parse the response body json into an object
-    PeriodJson r = getObject(response.body());
+    PeriodJson r = Tracing.decode("PeriodJson", gridLocation(region, gridx, gridy), response.body.length,
+        () -> getObject(response.bodyAsString()));
     if (r == null) {
       System.err.println("Failed to parse JSon");
       return null;
@@ -223,70 +324,100 @@ public class MyWeatherAPI {
   }
 
   /**
-   * gather a grid point based on a latitude, longitude pair
+   * read a points response into a grid point, and remember it
    *
-   * @param lat the latitude of the position
-   * @param lon the longitude of the position
-   * @return a {@code CompletableFuture} of a {@code GridPoint}
+   * @return the grid point, or {@code null} if the response was bad
    */
-  public static GridPoint getGridPoint(double lat, double lon) throws ConnectException {
-    // form the api request
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/points/" + String.valueOf(lat)
-            + "," + String.valueOf(lon)))
-        .build();
-    HttpResponse<String> response = null;
-
-    // send the request, fail gracefully if needed
-    try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-    } catch (ConnectException e) {
-      throw new ConnectException("Failed to connect to the internet");
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-
-    // if the response gave back a 301 (redirect), attempt to redirect up to 5 times
-    int retries = 0;
-    while (response.statusCode() == 301) {
-      if (retries >= MAX_RETRIES)
-        break;
-      retries++;
-
-      // form the new request
-      request = HttpRequest.newBuilder()
-          .uri(URI
-              .create("https://api.weather.gov" + response.headers().firstValue("location").get()))
-          .build();
-
-      // send the request, fail gracefully if needed
-      try {
-        response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-      } catch (ConnectException e) {
-        throw new ConnectException("Failed to connect to the internet");
-      } catch (Exception e) {
-        e.printStackTrace();
-      }
-    }
-
+  private static GridPoint readGridPoint(double lat, double lon, String requested,
+      NwsResponse response) {
     // if a bad status code was recieved, fail gracefully, log to system err
-    if (response.statusCode() < 200 || response.statusCode() > 299) {
+    if (!response.isSuccess()) {
       System.err.println("Response was: " + response.toString() + "\n"
-          + "Request was: " + request.toString());
+          + "Request was: " + requested);
       return null;
     }
 
     // parse the response body json into an object
-    GridPointJson r = getGridPointRoot(response.body());
+    GridPointJson r = Tracing.decode("GridPointJson", lat + "," + lon, response.body.length,
+        () -> getGridPointRoot(response.bodyAsString()));
     if (r == null) {
       System.err.println("Failed to parse JSon");
       return null;
     }
 
     // parse the object into a new gridpoint
-    return new GridPoint(r.properties.gridX, r.properties.gridY, r.properties.cwa,
+    // forecast times are shown in the location's zone, or this machine's if
+    // the response does not give one
+    ZoneId zone = GridPoint.zoneOf(r.properties.timeZone);
+    GridPoint point = new GridPoint(r.properties.gridX, r.properties.gridY, r.properties.cwa,
         r.properties.relativeLocation.properties.city + ", "
-            + r.properties.relativeLocation.properties.state);
+            + r.properties.relativeLocation.properties.state,
+        zone == null ? ZoneId.systemDefault() : zone);
+
+    GridPointResolver resolver = GridPointResolver.getDefault();
+    if (!response.url.equals(requested)) {
+      resolver.rememberRedirect(requested, response.url);
+    }
+    resolver.remember(lat, lon, point);
+    return point;
+  }
+
+  /**
+   * decode a series, rethrowing failures unchecked so it can run inside
+   * {@code Tracing.decode}
+   */
+  private static ForecastSeries decodeSeries(InputStream body) {
+    try {
+      return HourlyForecastDecoder.decode(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * name a grid point for tracing
+   */
+  private static String gridLocation(String region, int gridx, int gridy) {
+    return region + "/" + gridx + "," + gridy;
+  }
+
+  /**
+   * form the url of an hourly forecast
+   */
+  private static String hourlyForecastUrl(String region, int gridx, int gridy) {
+    return NwsTransport.baseUrl() + "/gridpoints/" + region + "/" + String.valueOf(gridx)
+        + "," + String.valueOf(gridy) + "/forecast/hourly";
+  }
+
+  /**
+   * form the url of a forecast in the given unit
+   */
+  private static String forecastUrl(String region, int gridx, int gridy, TemperatureUnit unit) {
+    final String unitString;
+    switch (unit) {
+      case Celsius:
+        unitString = "si";
+        break;
+      case Fahrenheit:
+        unitString = "us";
+        break;
+      default:
+        unitString = "";
+        break;
+    }
+
+    return NwsTransport.baseUrl() + "/gridpoints/" + region + "/" + String.valueOf(gridx)
+        + "," + String.valueOf(gridy) + "/forecast?units=" + unitString;
+  }
+
+  /**
+   * form the url of the point metadata for a latitude, longitude pair
+   */
+  private static String pointsUrl(double lat, double lon) {
+    // more precision than this is answered with a redirect
+    return NwsTransport.baseUrl() + "/points/"
+        + GridPointResolver.format(GridPointResolver.quantize(lat)) + ","
+        + GridPointResolver.format(GridPointResolver.quantize(lon));
   }
 
   /**
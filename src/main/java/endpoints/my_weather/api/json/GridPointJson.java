@@ -15,6 +15,7 @@ public class GridPointJson {
     public String cwa;
     public int gridX;
     public int gridY;
+    public String timeZone;
     public RelativeLocation relativeLocation;
 
     @JsonIgnoreProperties(ignoreUnknown = true)
@@ -1,11 +1,11 @@
 package endpoints.my_weather.api.json;
 
 import java.util.ArrayList;
-import java.util.Date;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import endpoints.my_weather.data.HourlyPeriod;
+import endpoints.my_weather.data.IsoTime;
 
 /**
  * Root object of data gathered from {@code MyWeatherAPI} calls.
@@ -25,12 +25,21 @@ public class HourlyPeriodJson {
   public class Properties {
     public String units;
     public String forecastGenerator;
-    public Date generatedAt;
-    public Date updateTime;
+    // in epoch seconds
+    public long generatedAt;
+    public long updateTime;
     public String validTimes;
     public Elevation elevation;
     public ArrayList<HourlyPeriod> periods;
 
+    public void setGeneratedAt(String generatedAt) {
+      this.generatedAt = IsoTime.epochSecond(generatedAt);
+    }
+
+    public void setUpdateTime(String updateTime) {
+      this.updateTime = IsoTime.epochSecond(updateTime);
+    }
+
     public class Elevation {
       public String unitCode;
       public double value;
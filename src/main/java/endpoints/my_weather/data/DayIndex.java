@@ -0,0 +1,215 @@
+package endpoints.my_weather.data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * The calendar days of an hourly forecast.
+ * Records, for each local date the forecast covers, the range of hours that
+ * start on it, as offsets into the forecast. built in a single pass, and only
+ * does any date math once per day rather than once per hour.
+ *
+ * hours must be added in order of their start time
+ */
+public class DayIndex {
+  private static final int DEFAULT_DAYS = 10;
+
+  private final ZoneId zone;
+
+  // number of hours indexed
+  int size = 0;
+  // number of days those hours fall on
+  int days = 0;
+
+  // the date of each day, as a {@code LocalDate} epoch day
+  long[] dates;
+  // the first hour of each day, {@code offsets[days]} is {@code size}
+  int[] offsets;
+
+  // start of the next day, in epoch seconds
+  long nextDay;
+  // start of the first and last hour indexed, in epoch seconds
+  long first, last;
+
+  /**
+   * create an empty index
+   *
+   * @param zone the zone whose calendar days hours are grouped by, usually the
+   *             forecast location's
+   */
+  public DayIndex(ZoneId zone) {
+    this.zone = zone;
+    this.dates = new long[DEFAULT_DAYS];
+    this.offsets = new int[DEFAULT_DAYS + 1];
+  }
+
+  /**
+   * index a list of periods
+   *
+   * @param periods the periods, in order
+   * @param zone    the zone whose calendar days hours are grouped by
+   * @return the {@code DayIndex}
+   */
+  public static DayIndex of(List<HourlyPeriod> periods, ZoneId zone) {
+    DayIndex index = new DayIndex(zone);
+    index.update(periods);
+    return index;
+  }
+
+  /**
+   * index a {@code ForecastSeries}
+   *
+   * @param series the forecast
+   * @param zone   the zone whose calendar days hours are grouped by
+   * @return the {@code DayIndex}
+   */
+  public static DayIndex of(ForecastSeries series, ZoneId zone) {
+    DayIndex index = new DayIndex(zone);
+    index.update(series);
+    return index;
+  }
+
+  /**
+   * index the next hour
+   *
+   * @param startTime the start of the hour in epoch seconds, no earlier than
+   *                  the last hour added
+   * @return the day the hour falls on
+   */
+  public int add(long startTime) {
+    if (days == 0 || startTime >= nextDay) {
+      LocalDate date = Instant.ofEpochSecond(startTime).atZone(zone).toLocalDate();
+      if (days == dates.length) {
+        dates = Arrays.copyOf(dates, days * 2);
+        offsets = Arrays.copyOf(offsets, days * 2 + 1);
+      }
+      dates[days] = date.toEpochDay();
+      offsets[days] = size;
+      days++;
+      nextDay = date.plusDays(1).atStartOfDay(zone).toEpochSecond();
+    }
+
+    if (size == 0) {
+      first = startTime;
+    }
+    last = startTime;
+    size++;
+    offsets[days] = size;
+    return days - 1;
+  }
+
+  /**
+   * bring the index up to date with a newer list of periods. when the list is
+   * the indexed one with more hours on the end, only those hours are added,
+   * otherwise it is indexed from scratch, reusing this index's storage
+   *
+   * @param periods the periods, in order
+   */
+  public void update(List<HourlyPeriod> periods) {
+    if (!continuedBy(periods.size(), i -> periods.get(i).startTime)) {
+      clear();
+    }
+
+    for (int i = size; i < periods.size(); i++) {
+      add(periods.get(i).startTime);
+    }
+  }
+
+  /**
+   * bring the index up to date with a newer {@code ForecastSeries}, like
+   * {@code update(List)}
+   *
+   * @param series the forecast
+   */
+  public void update(ForecastSeries series) {
+    if (!continuedBy(series.size(), series::startTime)) {
+      clear();
+    }
+
+    for (int i = size; i < series.size(); i++) {
+      add(series.startTime(i));
+    }
+  }
+
+  /**
+   * @return {@code true} if a forecast of {@code hours} hours starts with the
+   *         hours indexed
+   */
+  private boolean continuedBy(int hours, IntToLongFunction startTime) {
+    return size <= hours
+        && (size == 0 || startTime.applyAsLong(0) == first && startTime.applyAsLong(size - 1) == last);
+  }
+
+  /**
+   * forget every hour, keeping the storage
+   */
+  public void clear() {
+    size = 0;
+    days = 0;
+    offsets[0] = 0;
+  }
+
+  /**
+   * @return the zone hours are grouped by
+   */
+  public ZoneId zone() {
+    return zone;
+  }
+
+  /**
+   * @return the number of hours indexed
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of days the indexed hours fall on
+   */
+  public int days() {
+    return days;
+  }
+
+  /**
+   * @return the local date of day {@code day}
+   */
+  public LocalDate date(int day) {
+    return LocalDate.ofEpochDay(dates[day]);
+  }
+
+  /**
+   * @return the offset of the first hour of day {@code day}
+   */
+  public int from(int day) {
+    return offsets[day];
+  }
+
+  /**
+   * @return the offset after the last hour of day {@code day}
+   */
+  public int to(int day) {
+    return offsets[day + 1];
+  }
+
+  /**
+   * @return the number of hours on day {@code day}
+   */
+  public int hours(int day) {
+    return offsets[day + 1] - offsets[day];
+  }
+
+  /**
+   * get the hours of a day out of the list that was indexed
+   *
+   * @param periods the indexed periods
+   * @param day     the day
+   * @return a view of the periods starting on day {@code day}
+   */
+  public <T> List<T> slice(List<T> periods, int day) {
+    return periods.subList(from(day), to(day));
+  }
+}
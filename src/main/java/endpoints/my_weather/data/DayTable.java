@@ -0,0 +1,393 @@
+package endpoints.my_weather.data;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import views.util.UnitHandler.TemperatureUnit;
+
+/**
+ * The per-day numbers of an hourly forecast, computed once when the forecast
+ * arrives: temperature range in both units, max precipitation, mean humidity
+ * and wind, and the most common short forecast.
+ * Holds one primitive array per statistic, with a row per day of its
+ * {@code DayIndex}.
+ *
+ * keeps a copy of the hours it was built from, so {@code update} only
+ * recomputes the days whose hours changed
+ */
+public class DayTable {
+  private final DayIndex index;
+
+  // the hours, in the same layout as {@code ForecastSeries}
+  int size = 0;
+  long[] startTime = new long[0];
+  boolean[] isDaytime = new boolean[0];
+  int[] temperature = new int[0], precipitation = new int[0], humidity = new int[0], windSpeed = new int[0];
+  short[] forecastIds = new short[0];
+  ArrayList<String> forecastTable = new ArrayList<>();
+  HashMap<String, Short> forecastLookup = new HashMap<>();
+
+  // the days. {@code from} is the first hour of each day, to tell whether a
+  // day still has the same hours after an update
+  int days = 0;
+  long[] dates = new long[0];
+  int[] from = new int[0], hours = new int[0];
+  int[] minF = new int[0], maxF = new int[0], minC = new int[0], maxC = new int[0];
+  int[] maxPrecipitation = new int[0], meanHumidity = new int[0], meanWindSpeed = new int[0];
+  short[] commonForecast = new short[0];
+  boolean[] commonIsDaytime = new boolean[0];
+
+  // occurrences of each short forecast while computing a day, zeroed after
+  int[] counts = new int[0];
+  // which days need computing during an update
+  boolean[] dirty = new boolean[0];
+
+  /**
+   * create an empty table. fill it with {@code update}
+   *
+   * @param index the index to group hours by, updated along with the table
+   */
+  public DayTable(DayIndex index) {
+    this.index = index;
+  }
+
+  /**
+   * build the table of a list of periods
+   *
+   * @param periods the periods, in order
+   * @param zone    the zone whose calendar days hours are grouped by
+   * @return the {@code DayTable}
+   */
+  public static DayTable of(List<HourlyPeriod> periods, ZoneId zone) {
+    DayTable table = new DayTable(new DayIndex(zone));
+    table.update(periods);
+    return table;
+  }
+
+  /**
+   * build the table of a {@code ForecastSeries}
+   *
+   * @param series the forecast
+   * @param zone   the zone whose calendar days hours are grouped by
+   * @return the {@code DayTable}
+   */
+  public static DayTable of(ForecastSeries series, ZoneId zone) {
+    DayTable table = new DayTable(new DayIndex(zone));
+    table.update(series);
+    return table;
+  }
+
+  /**
+   * bring the table, and its index, up to date with a newer list of periods.
+   * hours are matched up by start time, so a forecast that moved forward
+   * still only recomputes the days with hours that changed
+   *
+   * @param periods the periods, in order
+   * @return the number of days computed
+   */
+  public int update(List<HourlyPeriod> periods) {
+    index.update(periods);
+    int shift = begin();
+    for (int i = 0; i < index.size; i++) {
+      HourlyPeriod p = periods.get(i);
+      setHour(i, p.startTime, p.isDaytime, p.temperature,
+          p.probabilityOfPrecipitation.value, p.relativeHumidity.value, p.windSpeedMin, p.shortForecast);
+    }
+    return finish(shift);
+  }
+
+  /**
+   * bring the table, and its index, up to date with a newer
+   * {@code ForecastSeries}, like {@code update(List)}
+   *
+   * @param series the forecast
+   * @return the number of days computed
+   */
+  public int update(ForecastSeries series) {
+    index.update(series);
+    int shift = begin();
+    for (int i = 0; i < index.size; i++) {
+      setHour(i, series.startTime(i), series.isDaytime(i), series.temperature(i),
+          series.precipitation(i), series.humidity(i), series.windSpeed(i), series.shortForecast(i));
+    }
+    return finish(shift);
+  }
+
+  /**
+   * line the stored hours up with the index's: drop the hours from before its
+   * first one, and make room for all of them
+   *
+   * @return how many hours were dropped, or -1 if the index does not start
+   *         with a stored hour and nothing can be reused
+   */
+  private int begin() {
+    int shift = index.size == 0 ? -1 : Arrays.binarySearch(startTime, 0, size, index.first);
+    int kept = 0;
+    if (shift > 0) {
+      kept = size - shift;
+      System.arraycopy(startTime, shift, startTime, 0, kept);
+      System.arraycopy(isDaytime, shift, isDaytime, 0, kept);
+      System.arraycopy(temperature, shift, temperature, 0, kept);
+      System.arraycopy(precipitation, shift, precipitation, 0, kept);
+      System.arraycopy(humidity, shift, humidity, 0, kept);
+      System.arraycopy(windSpeed, shift, windSpeed, 0, kept);
+      System.arraycopy(forecastIds, shift, forecastIds, 0, kept);
+    } else if (shift == 0) {
+      kept = size;
+    }
+
+    // hours past the ones kept are all new
+    size = Math.min(kept, index.size);
+    if (startTime.length < index.size) {
+      int capacity = Math.max(index.size, startTime.length * 2);
+      startTime = Arrays.copyOf(startTime, capacity);
+      isDaytime = Arrays.copyOf(isDaytime, capacity);
+      temperature = Arrays.copyOf(temperature, capacity);
+      precipitation = Arrays.copyOf(precipitation, capacity);
+      humidity = Arrays.copyOf(humidity, capacity);
+      windSpeed = Arrays.copyOf(windSpeed, capacity);
+      forecastIds = Arrays.copyOf(forecastIds, capacity);
+    }
+
+    if (dirty.length < index.days) {
+      dirty = new boolean[Math.max(index.days, dirty.length * 2)];
+    }
+    Arrays.fill(dirty, 0, index.days, false);
+    return shift;
+  }
+
+  /**
+   * store hour {@code i}, marking its day dirty if it differs from the hour
+   * stored there
+   */
+  private void setHour(int i, long start, boolean daytime, int temp, int pop, int relHumidity,
+      int wind, String shortForecast) {
+    short id = intern(shortForecast);
+    if (i < size && startTime[i] == start && isDaytime[i] == daytime && temperature[i] == temp
+        && precipitation[i] == pop && humidity[i] == relHumidity && windSpeed[i] == wind
+        && forecastIds[i] == id) {
+      return;
+    }
+
+    startTime[i] = start;
+    isDaytime[i] = daytime;
+    temperature[i] = temp;
+    precipitation[i] = pop;
+    humidity[i] = relHumidity;
+    windSpeed[i] = wind;
+    forecastIds[i] = id;
+    dirty[dayOf(i)] = true;
+  }
+
+  /**
+   * the day of the index hour {@code i} falls on
+   */
+  private int dayOf(int i) {
+    int day = Arrays.binarySearch(index.offsets, 0, index.days, i);
+    // an hour inside a day lands after the day's first hour
+    return day >= 0 ? day : -day - 2;
+  }
+
+  /**
+   * line the stored days up with the index's, and compute the dirty ones and
+   * any that gained or lost hours
+   *
+   * @return the number of days computed
+   */
+  private int finish(int shift) {
+    size = index.size;
+
+    // the row of the index's first day among the stored ones
+    int dayShift = shift < 0 || days == 0 ? -1 : Arrays.binarySearch(dates, 0, days, index.dates[0]);
+    int kept = dayShift < 0 ? 0 : days - dayShift;
+    if (dayShift > 0) {
+      System.arraycopy(dates, dayShift, dates, 0, kept);
+      System.arraycopy(from, dayShift, from, 0, kept);
+      System.arraycopy(hours, dayShift, hours, 0, kept);
+      System.arraycopy(minF, dayShift, minF, 0, kept);
+      System.arraycopy(maxF, dayShift, maxF, 0, kept);
+      System.arraycopy(minC, dayShift, minC, 0, kept);
+      System.arraycopy(maxC, dayShift, maxC, 0, kept);
+      System.arraycopy(maxPrecipitation, dayShift, maxPrecipitation, 0, kept);
+      System.arraycopy(meanHumidity, dayShift, meanHumidity, 0, kept);
+      System.arraycopy(meanWindSpeed, dayShift, meanWindSpeed, 0, kept);
+      System.arraycopy(commonForecast, dayShift, commonForecast, 0, kept);
+      System.arraycopy(commonIsDaytime, dayShift, commonIsDaytime, 0, kept);
+    }
+
+    days = index.days;
+    if (dates.length < days) {
+      int capacity = Math.max(days, dates.length * 2);
+      dates = Arrays.copyOf(dates, capacity);
+      from = Arrays.copyOf(from, capacity);
+      hours = Arrays.copyOf(hours, capacity);
+      minF = Arrays.copyOf(minF, capacity);
+      maxF = Arrays.copyOf(maxF, capacity);
+      minC = Arrays.copyOf(minC, capacity);
+      maxC = Arrays.copyOf(maxC, capacity);
+      maxPrecipitation = Arrays.copyOf(maxPrecipitation, capacity);
+      meanHumidity = Arrays.copyOf(meanHumidity, capacity);
+      meanWindSpeed = Arrays.copyOf(meanWindSpeed, capacity);
+      commonForecast = Arrays.copyOf(commonForecast, capacity);
+      commonIsDaytime = Arrays.copyOf(commonIsDaytime, capacity);
+    }
+    if (counts.length < forecastTable.size()) {
+      counts = new int[Math.max(forecastTable.size(), counts.length * 2)];
+    }
+
+    int computed = 0;
+    for (int day = 0; day < days; day++) {
+      // a kept day is only still right if it covers the same hours
+      boolean same = day < kept && from[day] - shift == index.from(day) && hours[day] == index.hours(day);
+      if (same && !dirty[day]) {
+        from[day] = index.from(day);
+        continue;
+      }
+      compute(day);
+      computed++;
+    }
+    return computed;
+  }
+
+  /**
+   * compute the statistics of one day from its hours
+   */
+  private void compute(int day) {
+    int start = index.from(day), end = index.to(day);
+    int low = Integer.MAX_VALUE, high = Integer.MIN_VALUE;
+    int pop = 0, totalHumidity = 0, totalWind = 0;
+    int common = -1;
+
+    for (int i = start; i < end; i++) {
+      low = Math.min(low, temperature[i]);
+      high = Math.max(high, temperature[i]);
+      pop = Math.max(pop, precipitation[i]);
+      totalHumidity += humidity[i];
+      totalWind += windSpeed[i];
+
+      // the first forecast to reach the highest count wins ties
+      int id = forecastIds[i];
+      counts[id]++;
+      if (common < 0 || counts[id] > counts[common] || id == common) {
+        common = id;
+        commonIsDaytime[day] = isDaytime[i];
+      }
+    }
+    for (int i = start; i < end; i++) {
+      counts[forecastIds[i]] = 0;
+    }
+
+    int count = end - start;
+    dates[day] = index.dates[day];
+    from[day] = start;
+    hours[day] = count;
+    minF[day] = low;
+    maxF[day] = high;
+    minC[day] = toCelsius(low);
+    maxC[day] = toCelsius(high);
+    maxPrecipitation[day] = pop;
+    meanHumidity[day] = totalHumidity / count;
+    meanWindSpeed[day] = totalWind / count;
+    commonForecast[day] = (short) common;
+  }
+
+  /**
+   * get the id of a short forecast string, adding it to the table if new
+   */
+  private short intern(String shortForecast) {
+    Short id = forecastLookup.get(shortForecast);
+    if (id == null) {
+      id = (short) forecastTable.size();
+      forecastTable.add(shortForecast);
+      forecastLookup.put(shortForecast, id);
+    }
+    return id;
+  }
+
+  private static int toCelsius(int fahrenheit) {
+    return (int) ((fahrenheit - 32.) * 5. / 9.);
+  }
+
+  /**
+   * @return the {@code DayIndex} the table is grouped by
+   */
+  public DayIndex index() {
+    return index;
+  }
+
+  /**
+   * @return the number of days in the table
+   */
+  public int days() {
+    return days;
+  }
+
+  /**
+   * @return the local date of day {@code day}
+   */
+  public LocalDate date(int day) {
+    return LocalDate.ofEpochDay(dates[day]);
+  }
+
+  /**
+   * @return the number of hours on day {@code day}
+   */
+  public int hours(int day) {
+    return hours[day];
+  }
+
+  /**
+   * @return the lowest temperature of day {@code day} in {@code unit}
+   */
+  public int minTemperature(int day, TemperatureUnit unit) {
+    return unit == TemperatureUnit.Celsius ? minC[day] : minF[day];
+  }
+
+  /**
+   * @return the highest temperature of day {@code day} in {@code unit}
+   */
+  public int maxTemperature(int day, TemperatureUnit unit) {
+    return unit == TemperatureUnit.Celsius ? maxC[day] : maxF[day];
+  }
+
+  /**
+   * @return the highest probability of precipitation of day {@code day}, in
+   *         percent
+   */
+  public int maxPrecipitation(int day) {
+    return maxPrecipitation[day];
+  }
+
+  /**
+   * @return the mean relative humidity of day {@code day}, in percent
+   */
+  public int meanHumidity(int day) {
+    return meanHumidity[day];
+  }
+
+  /**
+   * @return the mean wind speed of day {@code day}, in mph
+   */
+  public int meanWindSpeed(int day) {
+    return meanWindSpeed[day];
+  }
+
+  /**
+   * @return the most common short forecast of day {@code day}
+   */
+  public String commonForecast(int day) {
+    return forecastTable.get(commonForecast[day]);
+  }
+
+  /**
+   * @return {@code true} if the last hour of day {@code day} with its most
+   *         common short forecast is during the day
+   */
+  public boolean commonIsDaytime(int day) {
+    return commonIsDaytime[day];
+  }
+}
@@ -0,0 +1,271 @@
+package endpoints.my_weather.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A compact, column oriented hourly forecast.
+ * Holds one primitive array per forecast field instead of one
+ * {@code HourlyPeriod} object (and its inner objects) per hour.
+ * Typically created by use of {@code HourlyForecastDecoder}
+ */
+public class ForecastSeries {
+  private static final int DEFAULT_CAPACITY = 160;
+
+  // time the forecast was generated and last updated, in epoch seconds
+  public long generatedAt, updateTime;
+
+  // outline of the forecast grid cell as longitude, latitude pairs, null when
+  // the response has no geometry
+  public double[] cell;
+
+  int size = 0;
+
+  // start and end time of each hour, in epoch seconds
+  long[] startTime, endTime;
+  boolean[] isDaytime;
+
+  // temperature in fahrenheit
+  int[] temperature;
+  // probability of precipitation and relative humidity, in percent
+  int[] precipitation, humidity;
+  // dew point in celsius, NaN when not given
+  float[] dewpoint;
+  // wind speed in mph, the lower and upper bound when given as a range
+  int[] windSpeed, windSpeedMax;
+  // wind direction in degrees clockwise from north, NaN when not given
+  float[] windDirection;
+
+  // index of each hour's short forecast in the forecast table
+  short[] forecastIds;
+  ArrayList<String> forecastTable = new ArrayList<>();
+  HashMap<String, Short> forecastLookup = new HashMap<>();
+
+  public ForecastSeries() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * create an empty series with room for {@code capacity} hours
+   *
+   * @param capacity the expected number of hours
+   */
+  public ForecastSeries(int capacity) {
+    startTime = new long[capacity];
+    endTime = new long[capacity];
+    isDaytime = new boolean[capacity];
+    temperature = new int[capacity];
+    precipitation = new int[capacity];
+    humidity = new int[capacity];
+    dewpoint = new float[capacity];
+    windSpeed = new int[capacity];
+    windSpeedMax = new int[capacity];
+    windDirection = new float[capacity];
+    forecastIds = new short[capacity];
+  }
+
+  /**
+   * append one hour to the end of the series
+   *
+   * @return the index of the new hour
+   */
+  public int add(long start, long end, boolean daytime, int temp, int pop, float dew, int relHumidity,
+      int wind, int windMax, float windDegrees, String shortForecast) {
+    return add(start, end, daytime, temp, pop, dew, relHumidity, wind, windMax, windDegrees,
+        intern(shortForecast));
+  }
+
+  /**
+   * append one hour to the end of the series, its short forecast given by an
+   * id from {@code forecastId}
+   *
+   * @return the index of the new hour
+   */
+  public int add(long start, long end, boolean daytime, int temp, int pop, float dew, int relHumidity,
+      int wind, int windMax, float windDegrees, int shortForecastId) {
+    if (size == startTime.length) {
+      grow();
+    }
+
+    startTime[size] = start;
+    endTime[size] = end;
+    isDaytime[size] = daytime;
+    temperature[size] = temp;
+    precipitation[size] = pop;
+    dewpoint[size] = dew;
+    humidity[size] = relHumidity;
+    windSpeed[size] = wind;
+    windSpeedMax[size] = windMax;
+    windDirection[size] = windDegrees;
+    forecastIds[size] = (short) shortForecastId;
+
+    return size++;
+  }
+
+  /**
+   * get the id of a short forecast string, adding it to the table if new
+   */
+  private short intern(String shortForecast) {
+    Short id = forecastLookup.get(shortForecast);
+    if (id == null) {
+      id = (short) forecastTable.size();
+      forecastTable.add(shortForecast);
+      forecastLookup.put(shortForecast, id);
+    }
+    return id;
+  }
+
+  /**
+   * get the id of a short forecast held in a range of characters, adding it to
+   * the table if new. a {@code String} is only created for a forecast not
+   * seen before
+   *
+   * @param text   the characters holding the short forecast
+   * @param offset where it starts
+   * @param length how many characters it is
+   * @return the id, see {@code forecastById}
+   */
+  public int forecastId(char[] text, int offset, int length) {
+    // a forecast only uses a few dozen phrases, so scanning them is cheap
+    for (int id = 0; id < forecastTable.size(); id++) {
+      String known = forecastTable.get(id);
+      if (known.length() != length) {
+        continue;
+      }
+      int i = 0;
+      while (i < length && known.charAt(i) == text[offset + i]) {
+        i++;
+      }
+      if (i == length) {
+        return id;
+      }
+    }
+    return intern(new String(text, offset, length));
+  }
+
+  /**
+   * double the capacity of every column
+   */
+  private void grow() {
+    int capacity = Math.max(16, startTime.length * 2);
+    startTime = Arrays.copyOf(startTime, capacity);
+    endTime = Arrays.copyOf(endTime, capacity);
+    isDaytime = Arrays.copyOf(isDaytime, capacity);
+    temperature = Arrays.copyOf(temperature, capacity);
+    precipitation = Arrays.copyOf(precipitation, capacity);
+    humidity = Arrays.copyOf(humidity, capacity);
+    dewpoint = Arrays.copyOf(dewpoint, capacity);
+    windSpeed = Arrays.copyOf(windSpeed, capacity);
+    windSpeedMax = Arrays.copyOf(windSpeedMax, capacity);
+    windDirection = Arrays.copyOf(windDirection, capacity);
+    forecastIds = Arrays.copyOf(forecastIds, capacity);
+  }
+
+  /**
+   * @return the number of hours in this series
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the start of hour {@code i} in epoch seconds
+   */
+  public long startTime(int i) {
+    return startTime[i];
+  }
+
+  /**
+   * @return the end of hour {@code i} in epoch seconds
+   */
+  public long endTime(int i) {
+    return endTime[i];
+  }
+
+  /**
+   * @return {@code true} if hour {@code i} is during the day
+   */
+  public boolean isDaytime(int i) {
+    return isDaytime[i];
+  }
+
+  /**
+   * @return the temperature of hour {@code i} in fahrenheit
+   */
+  public int temperature(int i) {
+    return temperature[i];
+  }
+
+  /**
+   * @return the probability of precipitation of hour {@code i} in percent
+   */
+  public int precipitation(int i) {
+    return precipitation[i];
+  }
+
+  /**
+   * @return the relative humidity of hour {@code i} in percent
+   */
+  public int humidity(int i) {
+    return humidity[i];
+  }
+
+  /**
+   * @return the dew point of hour {@code i} in celsius, or NaN if unknown
+   */
+  public float dewpoint(int i) {
+    return dewpoint[i];
+  }
+
+  /**
+   * @return the wind speed of hour {@code i} in mph, the lower bound when
+   *         given as a range
+   */
+  public int windSpeed(int i) {
+    return windSpeed[i];
+  }
+
+  /**
+   * @return the highest wind speed of hour {@code i} in mph
+   */
+  public int windSpeedMax(int i) {
+    return windSpeedMax[i];
+  }
+
+  /**
+   * @return the wind direction of hour {@code i} in degrees clockwise from
+   *         north, or NaN if unknown
+   */
+  public float windDirection(int i) {
+    return windDirection[i];
+  }
+
+  /**
+   * @return the short forecast of hour {@code i}
+   */
+  public String shortForecast(int i) {
+    return forecastTable.get(forecastIds[i]);
+  }
+
+  /**
+   * @return the id of hour {@code i}'s short forecast in the forecast table
+   */
+  public int shortForecastId(int i) {
+    return forecastIds[i];
+  }
+
+  /**
+   * @return the number of distinct short forecasts in this series
+   */
+  public int forecastCount() {
+    return forecastTable.size();
+  }
+
+  /**
+   * @return the short forecast with the given id
+   */
+  public String forecastById(int id) {
+    return forecastTable.get(id);
+  }
+}
@@ -1,18 +1,43 @@
 package endpoints.my_weather.data;
 
+import java.time.DateTimeException;
+import java.time.ZoneId;
+
 /**
- * A gridpoint containing a region, location, and grid coordinates.
+ * A gridpoint containing a region, location, time zone, and grid coordinates.
  * Typically for use with {@code MyWeatherAPI}
  */
 public class GridPoint {
   public int gridX, gridY;
   public String region;
   public String location;
+  // the time zone of the location, which its forecast hours are shown in
+  public ZoneId zone;
 
-  public GridPoint(int gridX, int gridY, String region, String location) {
+  public GridPoint(int gridX, int gridY, String region, String location, ZoneId zone) {
     this.gridX = gridX;
     this.gridY = gridY;
     this.region = region;
     this.location = location;
+    this.zone = zone;
+  }
+
+  /**
+   * get a time zone from its id, like {@code America/Chicago}
+   *
+   * @param id the zone id given by {@code /points}
+   * @return the {@code ZoneId}, or {@code null} if {@code id} is missing or
+   *         not a known zone
+   */
+  public static ZoneId zoneOf(String id) {
+    if (id == null) {
+      return null;
+    }
+    try {
+      return ZoneId.of(id);
+    } catch (DateTimeException e) {
+      System.err.println("Unknown time zone: " + id);
+      return null;
+    }
   }
 }
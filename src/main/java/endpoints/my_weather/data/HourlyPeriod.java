@@ -1,7 +1,5 @@
 package endpoints.my_weather.data;
 
-import java.util.Date;
-
 /**
  * A one hour period of weather forecast data.
  * Typically created by use of {@code MyWeatherAPI}
@@ -9,8 +7,9 @@ import java.util.Date;
 public class HourlyPeriod {
   public int number;
   public String name;
-  public Date startTime;
-  public Date endTime;
+  // in epoch seconds, filled in from the ISO-8601 strings of the forecast
+  public long startTime;
+  public long endTime;
   public boolean isDaytime;
   public int temperature;
   public String temperatureUnit;
@@ -18,12 +17,57 @@ public class HourlyPeriod {
   public ProbabilityOfPrecipitation probabilityOfPrecipitation;
   public String windSpeed;
   public String windDirection;
+  // the wind as numbers, filled in when the strings above are set. speeds in
+  // mph, direction in degrees clockwise from north or NaN if not given
+  public int windSpeedMin, windSpeedMax;
+  public float windDegrees = Float.NaN;
   public String icon;
   public String shortForecast;
   public String detailedForecast;
   public DewPoint dewpoint;
   public RelativeHumidity relativeHumidity;
 
+  /**
+   * set the start of the hour from a timestamp like
+   * {@code 2025-04-02T14:00:00-05:00}
+   *
+   * @param startTime the ISO-8601 timestamp
+   */
+  public void setStartTime(String startTime) {
+    this.startTime = IsoTime.epochSecond(startTime);
+  }
+
+  /**
+   * set the end of the hour from a timestamp like
+   * {@code 2025-04-02T15:00:00-05:00}
+   *
+   * @param endTime the ISO-8601 timestamp
+   */
+  public void setEndTime(String endTime) {
+    this.endTime = IsoTime.epochSecond(endTime);
+  }
+
+  /**
+   * set the wind speed, like {@code 5 to 10 mph}, and its numbers
+   *
+   * @param windSpeed the wind speed
+   */
+  public void setWindSpeed(String windSpeed) {
+    this.windSpeed = windSpeed;
+    this.windSpeedMin = Wind.minSpeed(windSpeed);
+    this.windSpeedMax = Wind.maxSpeed(windSpeed);
+  }
+
+  /**
+   * set the wind direction, like {@code NNW}, and its degrees
+   *
+   * @param windDirection the 16-point compass direction
+   */
+  public void setWindDirection(String windDirection) {
+    this.windDirection = windDirection;
+    this.windDegrees = Wind.degrees(windDirection);
+  }
+
   public class ProbabilityOfPrecipitation {
     public String unitCode;
     public int value;
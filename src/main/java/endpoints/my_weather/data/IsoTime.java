@@ -0,0 +1,74 @@
+package endpoints.my_weather.data;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Turns ISO-8601 timestamps, like {@code 2025-04-02T14:00:00-05:00}, into
+ * epoch seconds. works on characters in place, so decoders can call it
+ * without creating a {@code String}.
+ * likely should not be instantiated.
+ */
+public class IsoTime {
+  /**
+   * get the epoch seconds of a timestamp. the fixed NWS layout is parsed in
+   * place, anything else falls back to {@code OffsetDateTime}
+   *
+   * @param text   the characters holding the timestamp
+   * @param offset where the timestamp starts
+   * @param length how many characters it is
+   * @return the seconds since 1970-01-01T00:00:00Z
+   */
+  public static long epochSecond(char[] text, int offset, int length) {
+    int o = offset;
+
+    // yyyy-MM-ddTHH:mm:ss+HH:mm
+    if (length != 25 || text[o + 4] != '-' || text[o + 10] != 'T' || text[o + 22] != ':') {
+      return OffsetDateTime.parse(new String(text, offset, length)).toEpochSecond();
+    }
+
+    int year = digits(text, o, 4);
+    int month = digits(text, o + 5, 2);
+    int day = digits(text, o + 8, 2);
+    int hour = digits(text, o + 11, 2);
+    int minute = digits(text, o + 14, 2);
+    int second = digits(text, o + 17, 2);
+    int zoneOffset = digits(text, o + 20, 2) * 3600 + digits(text, o + 23, 2) * 60;
+    if (text[o + 19] == '-') {
+      zoneOffset = -zoneOffset;
+    }
+
+    return epochDay(year, month, day) * 86400L + hour * 3600 + minute * 60 + second - zoneOffset;
+  }
+
+  /**
+   * @see {@code epochSecond(char[], int, int)}
+   * @return the epoch seconds, or 0 if {@code timestamp} is {@code null}
+   */
+  public static long epochSecond(String timestamp) {
+    return timestamp == null ? 0 : epochSecond(timestamp.toCharArray(), 0, timestamp.length());
+  }
+
+  /**
+   * days since 1970-01-01 for a proleptic gregorian date
+   */
+  public static long epochDay(int year, int month, int day) {
+    // shift the year to start in march so the leap day is the last day
+    int y = month <= 2 ? year - 1 : year;
+    int era = Math.floorDiv(y, 400);
+    int yearOfEra = y - era * 400;
+    int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return era * 146097L + dayOfEra - 719468;
+  }
+
+  /**
+   * parse {@code count} decimal digits starting at {@code from}
+   */
+  private static int digits(char[] text, int from, int count) {
+    int value = 0;
+    for (int i = from; i < from + count; ++i) {
+      value = value * 10 + (text[i] - '0');
+    }
+    return value;
+  }
+}
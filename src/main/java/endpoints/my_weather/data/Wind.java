@@ -0,0 +1,131 @@
+package endpoints.my_weather.data;
+
+/**
+ * Turns the wind fields of a forecast, like {@code 5 to 10 mph} and
+ * {@code NNW}, into numbers. works on characters in place, so decoders can
+ * call it without creating a {@code String}.
+ * likely should not be instantiated.
+ */
+public class Wind {
+  // the 16 points of the compass, 22.5 degrees apart starting from north
+  private static final String[] POINTS = { "N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE",
+      "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW" };
+  private static final float DEGREES_PER_POINT = 22.5f;
+
+  /**
+   * get the lowest speed of a wind speed like {@code 5 to 10 mph}
+   *
+   * @param text   the characters holding the wind speed
+   * @param offset where the wind speed starts
+   * @param length how many characters it is
+   * @return the first number, or 0 if there is none
+   */
+  public static int minSpeed(char[] text, int offset, int length) {
+    int end = offset + length;
+    int i = offset;
+    while (i < end && !isDigit(text[i])) {
+      i++;
+    }
+
+    int value = 0;
+    while (i < end && isDigit(text[i])) {
+      value = value * 10 + (text[i] - '0');
+      i++;
+    }
+    return value;
+  }
+
+  /**
+   * get the highest speed of a wind speed like {@code 5 to 10 mph}
+   *
+   * @param text   the characters holding the wind speed
+   * @param offset where the wind speed starts
+   * @param length how many characters it is
+   * @return the last number, or 0 if there is none
+   */
+  public static int maxSpeed(char[] text, int offset, int length) {
+    int i = offset + length - 1;
+    while (i >= offset && !isDigit(text[i])) {
+      i--;
+    }
+
+    // walk back to the start of the number, then read it forwards
+    int last = i;
+    while (i >= offset && isDigit(text[i])) {
+      i--;
+    }
+
+    int value = 0;
+    for (int j = i + 1; j <= last; j++) {
+      value = value * 10 + (text[j] - '0');
+    }
+    return value;
+  }
+
+  /**
+   * get the direction of a 16-point compass point like {@code NNW}
+   *
+   * @param text   the characters holding the compass point
+   * @param offset where the compass point starts
+   * @param length how many characters it is
+   * @return the direction in degrees clockwise from north, or NaN if it is not
+   *         a compass point
+   */
+  public static float degrees(char[] text, int offset, int length) {
+    for (int point = 0; point < POINTS.length; point++) {
+      String name = POINTS[point];
+      if (name.length() != length) {
+        continue;
+      }
+
+      int i = 0;
+      while (i < length && name.charAt(i) == text[offset + i]) {
+        i++;
+      }
+      if (i == length) {
+        return point * DEGREES_PER_POINT;
+      }
+    }
+    return Float.NaN;
+  }
+
+  /**
+   * @see {@code minSpeed(char[], int, int)}
+   */
+  public static int minSpeed(String windSpeed) {
+    return windSpeed == null ? 0 : minSpeed(windSpeed.toCharArray(), 0, windSpeed.length());
+  }
+
+  /**
+   * @see {@code maxSpeed(char[], int, int)}
+   */
+  public static int maxSpeed(String windSpeed) {
+    return windSpeed == null ? 0 : maxSpeed(windSpeed.toCharArray(), 0, windSpeed.length());
+  }
+
+  /**
+   * @see {@code degrees(char[], int, int)}
+   */
+  public static float degrees(String direction) {
+    return direction == null ? Float.NaN : degrees(direction.toCharArray(), 0, direction.length());
+  }
+
+  /**
+   * get the 16-point compass point closest to a direction
+   *
+   * @param degrees the direction in degrees clockwise from north
+   * @return the compass point, like {@code NNW}. north if {@code degrees} is
+   *         NaN
+   */
+  public static String compassPoint(double degrees) {
+    if (Double.isNaN(degrees)) {
+      return POINTS[0];
+    }
+    int point = (int) Math.round(degrees / DEGREES_PER_POINT) % POINTS.length;
+    return POINTS[point < 0 ? point + POINTS.length : point];
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,34 @@
+package endpoints.transport;
+
+/**
+ * A snapshot of the counters kept by {@code ResponseCache}.
+ * Typically created by use of {@code ResponseCache.getStats}
+ */
+public class CacheStats {
+  // served from the cache without touching the network
+  public final long hits;
+  // served stale from the cache while a revalidation ran in the background
+  public final long staleHits;
+  // not in the cache, or too old to serve
+  public final long misses;
+  // conditional requests answered with 304 Not Modified
+  public final long revalidations;
+  // entries and bytes currently stored
+  public final long entries, bytes;
+
+  public CacheStats(long hits, long staleHits, long misses, long revalidations, long entries,
+      long bytes) {
+    this.hits = hits;
+    this.staleHits = staleHits;
+    this.misses = misses;
+    this.revalidations = revalidations;
+    this.entries = entries;
+    this.bytes = bytes;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("hits=%d stale=%d misses=%d revalidated=%d entries=%d size=%dKB", hits,
+        staleHits, misses, revalidations, entries, bytes / 1024);
+  }
+}
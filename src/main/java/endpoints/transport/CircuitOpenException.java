@@ -0,0 +1,13 @@
+package endpoints.transport;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a request is not sent because its endpoint's circuit is open
+ * and there is no earlier response for the url to fall back on
+ */
+public class CircuitOpenException extends IOException {
+  public CircuitOpenException(String endpoint) {
+    super("Circuit open for " + endpoint);
+  }
+}
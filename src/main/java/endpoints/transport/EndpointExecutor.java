@@ -0,0 +1,181 @@
+package endpoints.transport;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The executors endpoint futures run on.
+ * likely should not be instantiated.
+ *
+ * Blocking endpoint work, like reading the response cache from disk, is kept
+ * off the common {@code ForkJoinPool}, which is sized to the CPU count and
+ * shared with the rest of the program. By default each task gets its own
+ * virtual thread. A
+ * bounded pool of platform threads can be chosen instead, either through
+ * {@code configure} or with {@code -Dweatherfx.executor=platform} (and
+ * optionally {@code -Dweatherfx.executor.threads=N}).
+ *
+ * Decoding responses is CPU bound, so it runs on a separate pool with one
+ * thread per CPU, see {@code getDecoder}.
+ *
+ * most useful methods:
+ * - {@code get}
+ * - {@code getDecoder}
+ * - {@code configure}
+ * - {@code getStats}
+ */
+public class EndpointExecutor {
+  public static final int DEFAULT_THREADS = 8;
+  public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+  private static volatile Executor delegate;
+  private static ExecutorService decoder;
+
+  // every task goes through here so it can be measured
+  private static final Executor instrumented = EndpointExecutor::execute;
+
+  // counters, see {@code ExecutorStats}
+  private static final AtomicLong submitted = new AtomicLong();
+  private static final AtomicLong completed = new AtomicLong();
+  private static final AtomicLong queued = new AtomicLong();
+  private static final AtomicLong maxQueued = new AtomicLong();
+  private static final AtomicLong totalWaitMicros = new AtomicLong();
+  private static final AtomicLong maxWaitMicros = new AtomicLong();
+
+  /**
+   * replace the executor endpoint calls run on. calls already running are
+   * not affected, and the old executor is not shut down.
+   *
+   * @param executor the executor to use, or {@code null} to go back to the
+   *                 default
+   */
+  public static synchronized void configure(Executor executor) {
+    delegate = executor;
+  }
+
+  /**
+   * get the executor to pass to {@code CompletableFuture.supplyAsync} and
+   * friends
+   *
+   * @return the shared, measured {@code Executor}
+   */
+  public static Executor get() {
+    return instrumented;
+  }
+
+  /**
+   * get the executor responses are decoded on, a pool of daemon threads with
+   * one thread per CPU
+   *
+   * @return the shared decoding {@code Executor}
+   */
+  public static synchronized Executor getDecoder() {
+    if (decoder == null) {
+      AtomicInteger count = new AtomicInteger();
+      decoder = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), task -> {
+        Thread thread = new Thread(task, "decoder-" + count.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return decoder;
+  }
+
+  /**
+   * create an executor that starts a new virtual thread for each task
+   *
+   * @return the {@code ExecutorService}
+   */
+  public static ExecutorService virtual() {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("endpoint-", 0).factory());
+  }
+
+  /**
+   * create a fixed pool of daemon platform threads with a bounded queue. tasks
+   * submitted while the queue is full are rejected, which fails their future.
+   *
+   * @param threads       the number of threads
+   * @param queueCapacity how many tasks may wait for a thread
+   * @return the {@code ExecutorService}
+   */
+  public static ExecutorService bounded(int threads, int queueCapacity) {
+    AtomicInteger count = new AtomicInteger();
+    ThreadFactory factory = task -> {
+      Thread thread = new Thread(task, "endpoint-" + count.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * get the current queue and wait time counts
+   *
+   * @return an {@code ExecutorStats} snapshot
+   */
+  public static ExecutorStats getStats() {
+    return new ExecutorStats(submitted.get(), completed.get(), queued.get(), maxQueued.get(),
+        totalWaitMicros.get(), maxWaitMicros.get());
+  }
+
+  /**
+   * run a task on the configured executor, recording how long it waited
+   */
+  private static void execute(Runnable task) {
+    long submittedAt = System.nanoTime();
+    submitted.incrementAndGet();
+    long depth = queued.incrementAndGet();
+    maxQueued.accumulateAndGet(depth, Math::max);
+
+    try {
+      delegate().execute(() -> {
+        long waited = (System.nanoTime() - submittedAt) / 1000;
+        queued.decrementAndGet();
+        totalWaitMicros.addAndGet(waited);
+        maxWaitMicros.accumulateAndGet(waited, Math::max);
+        try {
+          task.run();
+        } finally {
+          completed.incrementAndGet();
+        }
+      });
+    } catch (RuntimeException e) {
+      // rejected, it will never start
+      submitted.decrementAndGet();
+      queued.decrementAndGet();
+      throw e;
+    }
+  }
+
+  /**
+   * get the configured executor, creating the default on first use
+   */
+  private static Executor delegate() {
+    Executor current = delegate;
+    if (current != null) {
+      return current;
+    }
+    return createDefault();
+  }
+
+  private static synchronized Executor createDefault() {
+    if (delegate == null) {
+      if ("platform".equals(System.getProperty("weatherfx.executor"))) {
+        int threads = Integer.getInteger("weatherfx.executor.threads", DEFAULT_THREADS);
+        delegate = bounded(threads, DEFAULT_QUEUE_CAPACITY);
+      } else {
+        delegate = virtual();
+      }
+    }
+    return delegate;
+  }
+}
@@ -0,0 +1,42 @@
+package endpoints.transport;
+
+/**
+ * A snapshot of the counters kept by {@code EndpointExecutor}.
+ * Typically created by use of {@code EndpointExecutor.getStats}
+ */
+public class ExecutorStats {
+  // tasks handed to the executor, and tasks that have finished
+  public final long submitted, completed;
+  // tasks waiting for a thread right now, and the most ever waiting at once
+  public final long queued, maxQueued;
+  // time between submitting a task and it starting, in microseconds
+  public final long totalWaitMicros, maxWaitMicros;
+
+  public ExecutorStats(long submitted, long completed, long queued, long maxQueued,
+      long totalWaitMicros, long maxWaitMicros) {
+    this.submitted = submitted;
+    this.completed = completed;
+    this.queued = queued;
+    this.maxQueued = maxQueued;
+    this.totalWaitMicros = totalWaitMicros;
+    this.maxWaitMicros = maxWaitMicros;
+  }
+
+  /**
+   * get the average time a started task waited for a thread
+   *
+   * @return the average wait in microseconds
+   */
+  public double averageWaitMicros() {
+    long started = submitted - queued;
+    if (started <= 0)
+      return 0;
+    return (double) totalWaitMicros / started;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("submitted=%d completed=%d queued=%d maxQueued=%d avgWait=%.0fus maxWait=%dus",
+        submitted, completed, queued, maxQueued, averageWaitMicros(), maxWaitMicros);
+  }
+}
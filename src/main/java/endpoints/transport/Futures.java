@@ -0,0 +1,108 @@
+package endpoints.transport;
+
+import java.net.ConnectException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Helpers for chaining endpoint futures so that cancelling, or timing out,
+ * the last future in a chain also cancels whatever stage is still running,
+ * down to the HTTP exchange itself.
+ * likely should not be instantiated.
+ *
+ * Plain {@code CompletableFuture} stages do not do this. cancelling the result
+ * of {@code thenApply} or {@code thenCompose} leaves the future it was made
+ * from running.
+ */
+public class Futures {
+  /**
+   * cancel {@code upstream} if {@code downstream} fails or is cancelled first
+   *
+   * @param downstream the future handed to the caller
+   * @param upstream   the future doing the work
+   * @return {@code downstream}, for chaining
+   */
+  public static <T> CompletableFuture<T> propagateCancel(CompletableFuture<T> downstream,
+      Future<?> upstream) {
+    downstream.whenComplete((value, error) -> {
+      if (error != null) {
+        upstream.cancel(true);
+      }
+    });
+    return downstream;
+  }
+
+  /**
+   * like {@code first.thenCompose(next)}, except cancelling the result cancels
+   * {@code first}, or the future returned by {@code next} once it has started.
+   * {@code next} runs at the {@code Priority} of the caller
+   *
+   * @param first the first stage
+   * @param next  starts the second stage from the result of the first
+   * @return a {@code CompletableFuture} of the second stage's result
+   */
+  public static <T, U> CompletableFuture<U> chain(CompletableFuture<T> first,
+      Function<? super T, CompletableFuture<U>> next) {
+    CompletableFuture<U> result = new CompletableFuture<>();
+    propagateCancel(result, first);
+    Priority priority = Priority.current();
+
+    first.whenComplete((value, error) -> {
+      if (error != null) {
+        result.completeExceptionally(error);
+        return;
+      }
+      // given up on while the first stage ran
+      if (result.isDone()) {
+        return;
+      }
+
+      CompletableFuture<U> second;
+      try {
+        second = Priority.with(priority, () -> next.apply(value));
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+        return;
+      }
+
+      propagateCancel(result, second);
+      second.whenComplete((v, e) -> {
+        if (e != null) {
+          result.completeExceptionally(e);
+        } else {
+          result.complete(v);
+        }
+      });
+    });
+
+    return result;
+  }
+
+  /**
+   * block on an endpoint future, for use by the blocking endpoint methods.
+   * connection failures are rethrown, anything else is logged and turned into
+   * {@code null}, as the blocking methods always have.
+   *
+   * @param future the future to wait on
+   * @return the result of the future, or {@code null} if it failed
+   */
+  public static <T> T await(CompletableFuture<T> future) throws ConnectException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      return null;
+    } catch (ExecutionException e) {
+      for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+        if (cause instanceof ConnectException) {
+          throw new ConnectException("Failed to connect to the internet");
+        }
+      }
+      e.getCause().printStackTrace();
+      return null;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package endpoints.transport;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.http.HttpHeaders;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A fully read response from the weather service, either fresh off the wire
+ * or served from the {@code ResponseCache}.
+ * Typically created by use of {@code NwsTransport.get}
+ */
+public class NwsResponse {
+  public final String url;
+  public final int statusCode;
+  public final HttpHeaders headers;
+  public final byte[] body;
+  // true if the body came from the cache instead of the network
+  public final boolean fromCache;
+
+  public NwsResponse(String url, int statusCode, HttpHeaders headers, byte[] body, boolean fromCache) {
+    this.url = url;
+    this.statusCode = statusCode;
+    this.headers = headers;
+    this.body = body;
+    this.fromCache = fromCache;
+  }
+
+  /**
+   * @return {@code true} if the status code is in the 2xx range
+   */
+  public boolean isSuccess() {
+    return statusCode >= 200 && statusCode <= 299;
+  }
+
+  /**
+   * @return the body decoded as UTF-8
+   */
+  public String bodyAsString() {
+    return new String(body, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @return a stream over the body, for use with streaming decoders
+   */
+  public InputStream bodyStream() {
+    return new ByteArrayInputStream(body);
+  }
+
+  @Override
+  public String toString() {
+    return "(" + statusCode + (fromCache ? ", cached" : "") + ") GET " + url;
+  }
+}
@@ -0,0 +1,559 @@
+package endpoints.transport;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.security.KeyManagementException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLContextSpi;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+
+import tracing.ExchangeEvent;
+
+/**
+ * The single HTTP transport shared by every NWS endpoint class.
+ * likely should not be instantiated.
+ *
+ * Holds one HTTP/2 {@code HttpClient} for the life of the program, so every
+ * request to api.weather.gov is multiplexed over an already open connection
+ * instead of paying for a new client, pool, and TLS handshake each time.
+ *
+ * Plain GETs should go through {@code getAsync}, which answers from the
+ * {@code ResponseCache} where the server's caching headers allow it, and
+ * aborts the exchange if its future is cancelled. {@code get} is its blocking
+ * form. Exchanges are retried, hedged and circuit broken by
+ * {@code Resilience}, and paced by a {@code RateLimiter} lane chosen by the
+ * caller's {@code Priority}. while an endpoint's circuit is open, urls with a
+ * cached response get that response, however old.
+ *
+ * most useful methods:
+ * - {@code getAsync}
+ * - {@code get}
+ * - {@code baseUrl}
+ * - {@code send}
+ * - {@code sendAsync}
+ * - {@code warmUp}
+ * - {@code getStats}
+ * - {@code getResilienceStats}
+ * - {@code getRateLimiterStats}
+ */
+public class NwsTransport {
+  public static final String DEFAULT_BASE_URL = "https://api.weather.gov";
+
+  private static TransportConfig config = new TransportConfig();
+  private static HttpClient client;
+  private static Resilience resilience;
+  private static RateLimiter rateLimiter;
+
+  // the response cache, opened on first use unless disabled with
+  // -Dweatherfx.cache=off
+  private static Optional<ResponseCache> cache;
+  private static final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+  // counters for reporting connection reuse
+  private static final AtomicLong requests = new AtomicLong();
+  private static final AtomicLong handshakes = new AtomicLong();
+
+  /**
+   * replace the transport settings. the shared client is rebuilt on the next
+   * request, so this is best called once before anything is sent.
+   *
+   * @param newConfig the settings to use
+   */
+  public static synchronized void configure(TransportConfig newConfig) {
+    config = newConfig;
+    client = null;
+    resilience = null;
+    rateLimiter = null;
+  }
+
+  /**
+   * get the url every endpoint path is appended to, without a trailing slash
+   *
+   * @return the base url, {@code https://api.weather.gov} unless configured
+   *         otherwise
+   */
+  public static synchronized String baseUrl() {
+    return config.baseUrl;
+  }
+
+  /**
+   * get the shared client, building it on first use
+   *
+   * @return the shared {@code HttpClient}
+   */
+  public static synchronized HttpClient getClient() {
+    if (client == null) {
+      client = buildClient(config);
+    }
+    return client;
+  }
+
+  /**
+   * get the retry, hedging and circuit state, creating it on first use
+   *
+   * @return the shared {@code Resilience}
+   */
+  public static synchronized Resilience getResilience() {
+    if (resilience == null) {
+      resilience = new Resilience(config.resilience);
+    }
+    return resilience;
+  }
+
+  /**
+   * get the limiter every request waits on, creating it on first use
+   *
+   * @return the shared {@code RateLimiter}
+   */
+  public static synchronized RateLimiter getRateLimiter() {
+    if (rateLimiter == null) {
+      rateLimiter = new RateLimiter(config.ratePerSecond, config.burst);
+    }
+    return rateLimiter;
+  }
+
+  /**
+   * replace the response cache
+   *
+   * @param newCache the cache to use, or {@code null} to disable caching
+   */
+  public static synchronized void setCache(ResponseCache newCache) {
+    cache = Optional.ofNullable(newCache);
+  }
+
+  /**
+   * get the response cache, opening the default one on first use
+   *
+   * @return the {@code ResponseCache}, if caching is enabled
+   */
+  public static synchronized Optional<ResponseCache> getCache() {
+    if (cache == null) {
+      cache = Optional.empty();
+      if (!"off".equals(System.getProperty("weatherfx.cache"))) {
+        try {
+          cache = Optional.of(new ResponseCache());
+        } catch (Exception e) {
+          System.err.println("Failed to open response cache, continuing without it: " + e.getMessage());
+        }
+      }
+    }
+    return cache;
+  }
+
+  /**
+   * GET a url, answering from the cache when possible, blocking until the
+   * response is read. see {@code getAsync}
+   *
+   * @param url the full url to get
+   * @return the {@code NwsResponse}, whatever its status
+   */
+  public static NwsResponse get(String url) throws IOException, InterruptedException {
+    CompletableFuture<NwsResponse> future = getAsync(url);
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException io) {
+        throw io;
+      }
+      if (cause instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  /**
+   * GET a url without blocking, answering from the cache when possible.
+   *
+   * fresh entries are served without touching the network. entries just past
+   * their expiry are served as is while a conditional request refreshes them in
+   * the background. anything older is revalidated with
+   * {@code If-None-Match}/{@code If-Modified-Since} before being served.
+   *
+   * cancelling the returned future, or letting it time out, aborts the
+   * exchange if it is still running.
+   *
+   * @param url the full url to get
+   * @return a {@code CompletableFuture} of the {@code NwsResponse}, whatever
+   *         its status
+   */
+  public static CompletableFuture<NwsResponse> getAsync(String url) {
+    Optional<ResponseCache> cache = getCache();
+    if (cache.isEmpty()) {
+      return exchange(null, url, null);
+    }
+
+    // the cache lives on disk, so look it up off the calling thread
+    ResponseCache rc = cache.get();
+    CompletableFuture<Optional<ResponseCache.Entry>> lookup = CompletableFuture
+        .supplyAsync(() -> rc.lookup(url), EndpointExecutor.get());
+
+    return Futures.chain(lookup, entry -> {
+      long now = System.currentTimeMillis();
+      if (entry.isPresent()) {
+        ResponseCache.Entry e = entry.get();
+        if (e.isFresh(now)) {
+          rc.hits.incrementAndGet();
+          return CompletableFuture.completedFuture(fromEntry(e));
+        }
+        if (e.isServableStale(now)) {
+          rc.staleHits.incrementAndGet();
+          revalidateAsync(rc, e);
+          return CompletableFuture.completedFuture(fromEntry(e));
+        }
+      }
+      return exchange(rc, url, entry.orElse(null));
+    });
+  }
+
+  /**
+   * GET a url without blocking and decode the response on the decoder
+   * executor. connection failures complete the future with a
+   * {@code RuntimeException} reading "Failed to connect".
+   *
+   * @param url     the full url to get
+   * @param decoder turns the response into a result
+   * @return a {@code CompletableFuture} of the decoded result
+   */
+  public static <T> CompletableFuture<T> getAsync(String url, Function<NwsResponse, T> decoder) {
+    CompletableFuture<NwsResponse> response = getAsync(url);
+    return Futures.propagateCancel(response.handleAsync((r, error) -> {
+      if (error != null) {
+        throw failure(error);
+      }
+      return decoder.apply(r);
+    }, EndpointExecutor.getDecoder()), response);
+  }
+
+  /**
+   * send a conditional GET, paced, retried and hedged as needed, and record
+   * the response in the cache
+   */
+  private static CompletableFuture<NwsResponse> exchange(ResponseCache rc, String url,
+      ResponseCache.Entry entry) {
+    Priority priority = Priority.current();
+    CompletableFuture<HttpResponse<byte[]>> sent = getResilience().send(url,
+        () -> getRateLimiter().acquire(priority), () -> traced(priority, conditionalRequest(url, entry)));
+    return Futures.propagateCancel(sent.handle((response, error) -> {
+      if (error == null) {
+        return complete(rc, url, entry, response);
+      }
+      // the endpoint's circuit is open, what is on disk beats nothing. it is
+      // served as is, so it stays due for revalidation once the circuit closes
+      if (entry != null && unwrap(error) instanceof CircuitOpenException) {
+        rc.staleHits.incrementAndGet();
+        return fromEntry(entry);
+      }
+      throw error instanceof CompletionException ce ? ce : new CompletionException(error);
+    }), sent);
+  }
+
+  /**
+   * get the exception a stage failed with, without its {@code CompletionException}
+   */
+  private static Throwable unwrap(Throwable error) {
+    if (error instanceof CompletionException && error.getCause() != null) {
+      return error.getCause();
+    }
+    return error;
+  }
+
+  /**
+   * unwrap a failed exchange into the exception endpoint futures fail with
+   */
+  private static RuntimeException failure(Throwable error) {
+    Throwable cause = unwrap(error);
+    if (cause instanceof ConnectException) {
+      return new RuntimeException("Failed to connect", cause);
+    }
+    if (cause instanceof RuntimeException re) {
+      return re;
+    }
+    return new CompletionException(cause);
+  }
+
+  /**
+   * refresh a stale entry without blocking the caller. only one refresh per url
+   * runs at a time.
+   */
+  private static void revalidateAsync(ResponseCache rc, ResponseCache.Entry entry) {
+    if (!revalidating.add(entry.url)) {
+      return;
+    }
+
+    getResilience().send(entry.url, () -> getRateLimiter().acquire(Priority.Background),
+        () -> traced(Priority.Background, conditionalRequest(entry.url, entry)))
+        .thenAccept(response -> complete(rc, entry.url, entry, response))
+        .whenComplete((r, e) -> revalidating.remove(entry.url));
+  }
+
+  /**
+   * send a request, recording an {@code ExchangeEvent} for it
+   */
+  private static CompletableFuture<HttpResponse<byte[]>> traced(Priority priority, HttpRequest request) {
+    ExchangeEvent event = new ExchangeEvent();
+    event.begin();
+    CompletableFuture<HttpResponse<byte[]>> sent = sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+    sent.whenComplete((response, error) -> {
+      event.end();
+      if (event.shouldCommit()) {
+        event.url = request.uri().toString();
+        event.priority = priority.name();
+        event.conditional = request.headers().firstValue("If-None-Match").isPresent()
+            || request.headers().firstValue("If-Modified-Since").isPresent();
+        if (response != null) {
+          event.status = response.statusCode();
+          event.bytes = response.body() == null ? 0 : response.body().length;
+        }
+        event.commit();
+      }
+    });
+    return sent;
+  }
+
+  /**
+   * build a GET, made conditional if there is a cached entry to validate
+   */
+  private static HttpRequest conditionalRequest(String url, ResponseCache.Entry entry) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder().uri(URI.create(url));
+    if (entry != null) {
+      if (entry.etag != null) {
+        builder.header("If-None-Match", entry.etag);
+      }
+      if (entry.lastModified != null) {
+        builder.header("If-Modified-Since", entry.lastModified);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * record a network response in the cache and turn it into an
+   * {@code NwsResponse}
+   */
+  private static NwsResponse complete(ResponseCache rc, String url, ResponseCache.Entry entry,
+      HttpResponse<byte[]> response) {
+    // not modified, the cached body is still good
+    if (response.statusCode() == 304 && entry != null) {
+      rc.refresh(url, response.headers());
+      return fromEntry(entry);
+    }
+
+    if (rc != null) {
+      rc.misses.incrementAndGet();
+      if (response.statusCode() == 200) {
+        rc.store(url, response.statusCode(), response.headers(), response.body());
+      }
+    }
+
+    return new NwsResponse(url, response.statusCode(), response.headers(), response.body(), false);
+  }
+
+  /**
+   * turn a cache entry into an {@code NwsResponse}
+   */
+  private static NwsResponse fromEntry(ResponseCache.Entry entry) {
+    return new NwsResponse(entry.url, entry.statusCode, HttpHeaders.of(Map.of(), (k, v) -> true),
+        entry.body, true);
+  }
+
+  /**
+   * send a request over the shared client, blocking until the response arrives
+   *
+   * @param request the request to send
+   * @param handler how to read the response body
+   * @return the {@code HttpResponse} received
+   */
+  public static <T> HttpResponse<T> send(HttpRequest request, BodyHandler<T> handler)
+      throws IOException, InterruptedException {
+    requests.incrementAndGet();
+    return getClient().send(request, handler);
+  }
+
+  /**
+   * send a request over the shared client without blocking
+   *
+   * @param request the request to send
+   * @param handler how to read the response body
+   * @return a {@code CompletableFuture} of the {@code HttpResponse}
+   */
+  public static <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+      BodyHandler<T> handler) {
+    requests.incrementAndGet();
+    return getClient().sendAsync(request, handler);
+  }
+
+  /**
+   * open a connection to api.weather.gov in the background so the first real
+   * request does not pay for the TLS handshake. failures are ignored, as the
+   * next request will simply connect itself.
+   */
+  public static void warmUp() {
+    HttpRequest request = HttpRequest.newBuilder()
+        .uri(URI.create(baseUrl() + "/"))
+        .method("HEAD", HttpRequest.BodyPublishers.noBody())
+        .build();
+
+    Futures.chain(getRateLimiter().acquire(Priority.Background),
+        v -> sendAsync(request, HttpResponse.BodyHandlers.discarding())).exceptionally(e -> null);
+  }
+
+  /**
+   * get the current handshake and reuse counts
+   *
+   * @return a {@code TransportStats} snapshot
+   */
+  public static TransportStats getStats() {
+    return new TransportStats(requests.get(), handshakes.get());
+  }
+
+  /**
+   * get the current grant, drop and wait counts of every priority
+   *
+   * @return a {@code RateLimiterStats} snapshot
+   */
+  public static RateLimiterStats getRateLimiterStats() {
+    return getRateLimiter().getStats();
+  }
+
+  /**
+   * get the current retry, hedge and circuit counts
+   *
+   * @return a {@code ResilienceStats} snapshot
+   */
+  public static ResilienceStats getResilienceStats() {
+    return getResilience().getStats();
+  }
+
+  /**
+   * build a new client from a config
+   */
+  private static HttpClient buildClient(TransportConfig config) {
+    // the JDK client reads its pool settings from system properties the first
+    // time a client is built. respect anything set on the command line.
+    setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(config.poolSize));
+    setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(config.keepAlive.toSeconds()));
+    setIfAbsent("jdk.httpclient.keepalive.timeout.h2", String.valueOf(config.keepAlive.toSeconds()));
+
+    HttpClient.Builder builder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .connectTimeout(config.connectTimeout);
+
+    config.executor.ifPresent(builder::executor);
+
+    try {
+      builder.sslContext(new CountingSSLContext(SSLContext.getDefault()));
+    } catch (NoSuchAlgorithmException e) {
+      // fall back to the client's own context, we only lose the handshake count
+      System.err.println("Failed to wrap default SSLContext, handshakes will not be counted");
+    }
+
+    return builder.build();
+  }
+
+  private static void setIfAbsent(String key, String value) {
+    if (System.getProperty(key) == null) {
+      System.setProperty(key, value);
+    }
+  }
+
+  /**
+   * An {@code SSLContext} that counts every engine it creates.
+   * The client creates exactly one engine per new TLS connection, so this
+   * count is the number of handshakes the transport has paid for.
+   */
+  private static class CountingSSLContext extends SSLContext {
+    CountingSSLContext(SSLContext delegate) {
+      super(new CountingSpi(delegate), delegate.getProvider(), delegate.getProtocol());
+    }
+  }
+
+  /**
+   * the service provider behind {@code CountingSSLContext}, passing everything
+   * through to the real context
+   */
+  private static class CountingSpi extends SSLContextSpi {
+    private final SSLContext delegate;
+
+    CountingSpi(SSLContext delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected void engineInit(KeyManager[] km, TrustManager[] tm, SecureRandom sr)
+        throws KeyManagementException {
+      delegate.init(km, tm, sr);
+    }
+
+    @Override
+    protected SSLSocketFactory engineGetSocketFactory() {
+      return delegate.getSocketFactory();
+    }
+
+    @Override
+    protected SSLServerSocketFactory engineGetServerSocketFactory() {
+      return delegate.getServerSocketFactory();
+    }
+
+    @Override
+    protected SSLEngine engineCreateSSLEngine() {
+      handshakes.incrementAndGet();
+      return delegate.createSSLEngine();
+    }
+
+    @Override
+    protected SSLEngine engineCreateSSLEngine(String host, int port) {
+      handshakes.incrementAndGet();
+      return delegate.createSSLEngine(host, port);
+    }
+
+    @Override
+    protected SSLSessionContext engineGetServerSessionContext() {
+      return delegate.getServerSessionContext();
+    }
+
+    @Override
+    protected SSLSessionContext engineGetClientSessionContext() {
+      return delegate.getClientSessionContext();
+    }
+
+    @Override
+    protected SSLParameters engineGetDefaultSSLParameters() {
+      return delegate.getDefaultSSLParameters();
+    }
+
+    @Override
+    protected SSLParameters engineGetSupportedSSLParameters() {
+      return delegate.getSupportedSSLParameters();
+    }
+  }
+}
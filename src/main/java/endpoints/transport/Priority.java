@@ -0,0 +1,49 @@
+package endpoints.transport;
+
+import java.util.function.Supplier;
+
+/**
+ * How urgently a request to api.weather.gov is needed, which decides its lane
+ * in the {@code RateLimiter}.
+ *
+ * The priority is picked up by {@code NwsTransport} on the thread that asks
+ * for a url, and {@code Futures.chain} carries it into the stages it starts,
+ * so wrapping the start of a load in {@code with} covers every request the
+ * load makes. Requests made outside of {@code with} are {@code Interactive}.
+ */
+public enum Priority {
+  // the user is waiting on it
+  Interactive,
+  // refreshes the user may not be looking at
+  Background,
+  // batch and polling work, deferred or dropped first
+  Bulk;
+
+  private static final ThreadLocal<Priority> current = ThreadLocal.withInitial(() -> Interactive);
+
+  /**
+   * get the priority requests made on this thread are sent with
+   *
+   * @return the current {@code Priority}
+   */
+  public static Priority current() {
+    return current.get();
+  }
+
+  /**
+   * run {@code work} with requests it makes sent at {@code priority}
+   *
+   * @param priority the priority to send with
+   * @param work     starts the requests, usually returning their future
+   * @return the result of {@code work}
+   */
+  public static <T> T with(Priority priority, Supplier<T> work) {
+    Priority previous = current.get();
+    current.set(priority);
+    try {
+      return work.get();
+    } finally {
+      current.set(previous);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package endpoints.transport;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the {@code RateLimiter} drops a low priority request rather
+ * than keep it waiting
+ */
+public class RateLimitedException extends IOException {
+  public RateLimitedException(Priority priority) {
+    super("Dropped " + priority + " request, too many requests waiting");
+  }
+}
@@ -0,0 +1,208 @@
+package endpoints.transport;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket pacing every request sent to api.weather.gov, with one lane
+ * per {@code Priority}.
+ *
+ * Tokens refill at a steady rate up to a burst size. A request takes a token
+ * right away if one is free and nobody is waiting, otherwise it waits in its
+ * lane. Waiting requests are let through highest priority first, so an
+ * {@code Interactive} request never waits behind background or bulk work.
+ *
+ * {@code Bulk} requests are also kept from spending the last few tokens,
+ * which are held back for interactive use, and are dropped with a
+ * {@code RateLimitedException} if their lane is full or they have waited
+ * too long.
+ */
+public class RateLimiter {
+  // tokens bulk work leaves for interactive requests, how many bulk requests
+  // may wait, and for how long
+  public static final int DEFAULT_RESERVE = 2;
+  public static final int DEFAULT_BULK_QUEUE_CAPACITY = 256;
+  public static final long DEFAULT_MAX_BULK_WAIT_MILLIS = 30_000;
+
+  private final double ratePerSecond;
+  private final double burst;
+  private final double reserve;
+  private final int bulkQueueCapacity;
+  private final long maxBulkWaitNanos;
+
+  private double tokens;
+  private long refilledAt = System.nanoTime();
+  private boolean drainScheduled;
+
+  private final ArrayList<ArrayDeque<Waiter>> lanes = new ArrayList<>();
+
+  // counters, see {@code RateLimiterStats}
+  private final long[] granted = new long[Priority.values().length];
+  private final long[] dropped = new long[Priority.values().length];
+  private final long[] totalWaitMicros = new long[Priority.values().length];
+  private final long[] maxWaitMicros = new long[Priority.values().length];
+
+  /**
+   * A request waiting for a token
+   */
+  private static class Waiter {
+    final Priority priority;
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final long enqueuedAt = System.nanoTime();
+    // set under the lock when the request is dropped rather than let through
+    boolean dropped;
+
+    Waiter(Priority priority) {
+      this.priority = priority;
+    }
+  }
+
+  /**
+   * create a limiter with the default bulk settings. the bucket starts full.
+   *
+   * @param ratePerSecond how many tokens are added each second
+   * @param burst         the most tokens the bucket holds
+   */
+  public RateLimiter(double ratePerSecond, int burst) {
+    this(ratePerSecond, burst, DEFAULT_RESERVE, DEFAULT_BULK_QUEUE_CAPACITY,
+        DEFAULT_MAX_BULK_WAIT_MILLIS);
+  }
+
+  /**
+   * create a limiter. the bucket starts full.
+   *
+   * @param ratePerSecond     how many tokens are added each second
+   * @param burst             the most tokens the bucket holds
+   * @param reserve           how many tokens {@code Bulk} requests must leave
+   *                          in the bucket
+   * @param bulkQueueCapacity how many {@code Bulk} requests may wait at once
+   * @param maxBulkWaitMillis how long a {@code Bulk} request may wait before
+   *                          it is dropped
+   */
+  public RateLimiter(double ratePerSecond, int burst, int reserve, int bulkQueueCapacity,
+      long maxBulkWaitMillis) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = burst;
+    this.reserve = Math.max(0, Math.min(reserve, burst - 1));
+    this.bulkQueueCapacity = bulkQueueCapacity;
+    this.maxBulkWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxBulkWaitMillis);
+    this.tokens = burst;
+    for (int i = 0; i < Priority.values().length; i++) {
+      lanes.add(new ArrayDeque<>());
+    }
+  }
+
+  /**
+   * wait for a token
+   *
+   * @param priority the lane to wait in
+   * @return a {@code CompletableFuture} completing once the request may be
+   *         sent. it fails with a {@code RateLimitedException} if the request
+   *         was dropped. cancelling it gives up the place in the lane
+   */
+  public CompletableFuture<Void> acquire(Priority priority) {
+    Waiter waiter = new Waiter(priority);
+    ArrayList<Waiter> ready = new ArrayList<>();
+
+    synchronized (this) {
+      ArrayDeque<Waiter> lane = lanes.get(priority.ordinal());
+      if (priority == Priority.Bulk && lane.size() >= bulkQueueCapacity) {
+        dropped[priority.ordinal()]++;
+        return CompletableFuture.failedFuture(new RateLimitedException(priority));
+      }
+      lane.add(waiter);
+      drain(ready);
+    }
+
+    release(ready);
+    return waiter.future;
+  }
+
+  /**
+   * let through as many waiting requests as there are tokens for, highest
+   * priority first, and schedule the next drain if any are left waiting
+   */
+  private synchronized void drain(ArrayList<Waiter> ready) {
+    long now = System.nanoTime();
+    tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * ratePerSecond);
+    refilledAt = now;
+
+    boolean waiting = false;
+    for (Priority priority : Priority.values()) {
+      ArrayDeque<Waiter> lane = lanes.get(priority.ordinal());
+      double floor = priority == Priority.Bulk ? reserve : 0;
+
+      while (!lane.isEmpty()) {
+        Waiter waiter = lane.peek();
+        // given up on while waiting
+        if (waiter.future.isDone()) {
+          lane.poll();
+          continue;
+        }
+        if (priority == Priority.Bulk && now - waiter.enqueuedAt > maxBulkWaitNanos) {
+          lane.poll();
+          dropped[priority.ordinal()]++;
+          waiter.dropped = true;
+          ready.add(waiter);
+          continue;
+        }
+        if (tokens - 1 < floor) {
+          break;
+        }
+
+        lane.poll();
+        tokens -= 1;
+        long waited = (now - waiter.enqueuedAt) / 1000;
+        granted[priority.ordinal()]++;
+        totalWaitMicros[priority.ordinal()] += waited;
+        maxWaitMicros[priority.ordinal()] = Math.max(maxWaitMicros[priority.ordinal()], waited);
+        ready.add(waiter);
+      }
+      waiting |= !lane.isEmpty();
+    }
+
+    if (waiting && !drainScheduled) {
+      drainScheduled = true;
+      // come back once the next token is in
+      long delay = (long) Math.ceil(Math.max(0, 1 - (tokens - Math.floor(tokens))) / ratePerSecond * 1e6);
+      CompletableFuture.delayedExecutor(Math.max(delay, 1), TimeUnit.MICROSECONDS).execute(() -> {
+        ArrayList<Waiter> next = new ArrayList<>();
+        synchronized (this) {
+          drainScheduled = false;
+          drain(next);
+        }
+        release(next);
+      });
+    }
+  }
+
+  /**
+   * complete the futures of requests let through or dropped, outside the lock
+   * since their callers send requests from these completions
+   */
+  private static void release(ArrayList<Waiter> ready) {
+    for (Waiter waiter : ready) {
+      if (waiter.dropped) {
+        waiter.future.completeExceptionally(new RateLimitedException(waiter.priority));
+      } else {
+        waiter.future.complete(null);
+      }
+    }
+  }
+
+  /**
+   * get the current grant, drop and wait counts of every lane
+   *
+   * @return a {@code RateLimiterStats} snapshot
+   */
+  public synchronized RateLimiterStats getStats() {
+    long[] queued = new long[lanes.size()];
+    for (int i = 0; i < lanes.size(); i++) {
+      queued[i] = lanes.get(i).size();
+    }
+    return new RateLimiterStats(granted.clone(), dropped.clone(), queued, totalWaitMicros.clone(),
+        maxWaitMicros.clone());
+  }
+}
@@ -0,0 +1,51 @@
+package endpoints.transport;
+
+/**
+ * A snapshot of the counters kept by {@code RateLimiter}, one entry per
+ * {@code Priority}, indexed by its ordinal.
+ * Typically created by use of {@code NwsTransport.getRateLimiterStats}
+ */
+public class RateLimiterStats {
+  // requests let through, and requests dropped
+  public final long[] granted, dropped;
+  // requests waiting for a token right now
+  public final long[] queued;
+  // time between asking for a token and getting it, in microseconds
+  public final long[] totalWaitMicros, maxWaitMicros;
+
+  public RateLimiterStats(long[] granted, long[] dropped, long[] queued, long[] totalWaitMicros,
+      long[] maxWaitMicros) {
+    this.granted = granted;
+    this.dropped = dropped;
+    this.queued = queued;
+    this.totalWaitMicros = totalWaitMicros;
+    this.maxWaitMicros = maxWaitMicros;
+  }
+
+  /**
+   * get the average time a request of a priority waited for a token
+   *
+   * @param priority the lane to look at
+   * @return the average wait in microseconds
+   */
+  public double averageWaitMicros(Priority priority) {
+    int i = priority.ordinal();
+    if (granted[i] == 0)
+      return 0;
+    return (double) totalWaitMicros[i] / granted[i];
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder();
+    for (Priority priority : Priority.values()) {
+      int i = priority.ordinal();
+      if (s.length() > 0) {
+        s.append(' ');
+      }
+      s.append(String.format("%s[granted=%d dropped=%d queued=%d avgWait=%.0fus maxWait=%dus]",
+          priority, granted[i], dropped[i], queued[i], averageWaitMicros(priority), maxWaitMicros[i]));
+    }
+    return s.toString();
+  }
+}
@@ -0,0 +1,403 @@
+package endpoints.transport;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Retries, hedges and circuit breaking for the GETs sent by
+ * {@code NwsTransport}.
+ *
+ * api.weather.gov answers with a 500 or 503 every so often under load, so a
+ * GET that fails, or gets a 5xx or 429, is sent again after a random backoff,
+ * as long as the retry budget allows. A GET taking longer than its endpoint's
+ * p95 latency gets a duplicate, and whichever answers first wins.
+ *
+ * Each endpoint, a url path with its regions, coordinates and station ids
+ * taken out, has its own circuit. After enough failures in a row the circuit
+ * opens and requests to that endpoint fail with a
+ * {@code CircuitOpenException}, without being sent, until a trial request
+ * succeeds. {@code NwsTransport} answers those from its {@code ResponseCache}
+ * where it can.
+ *
+ * Every attempt, retry and hedge waits for its own permit, usually a rate
+ * limiter token, before it is sent. A request refused a permit failed on our
+ * side rather than the endpoint's, so it is neither retried nor counted
+ * against the circuit, and only the time after the permit is granted counts
+ * towards the endpoint's latency.
+ *
+ * Only safe for idempotent requests.
+ */
+public class Resilience {
+  // retries and hedges allowed before the budgets start to apply
+  private static final int RETRY_ALLOWANCE = 10;
+  private static final int HEDGE_ALLOWANCE = 5;
+
+  // latencies kept per endpoint, and how many are needed before hedging
+  private static final int LATENCY_SAMPLES = 128;
+  private static final int MIN_SAMPLES = 20;
+
+  private final ResilienceConfig config;
+  private final ConcurrentHashMap<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+  // counters, see {@code ResilienceStats}
+  private final AtomicLong sent = new AtomicLong();
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong retriesDenied = new AtomicLong();
+  private final AtomicLong hedges = new AtomicLong();
+  private final AtomicLong hedgeWins = new AtomicLong();
+  private final AtomicLong opens = new AtomicLong();
+  private final AtomicLong shortCircuits = new AtomicLong();
+  private final AtomicLong closedOpenMillis = new AtomicLong();
+
+  /**
+   * The circuit and recent latencies of one endpoint
+   */
+  private class Endpoint {
+    final String name;
+    final long[] latencies = new long[LATENCY_SAMPLES];
+    int samples;
+
+    int failures;
+    // when the circuit opened, or 0 while it is closed
+    long openedAt;
+    // when the trial request of an open circuit was sent, or 0. a trial that
+    // was cancelled never reports back, so it expires after a period
+    long trialAt;
+
+    Endpoint(String name) {
+      this.name = name;
+    }
+
+    synchronized void recordLatency(long millis) {
+      latencies[samples % LATENCY_SAMPLES] = millis;
+      samples++;
+    }
+
+    /**
+     * @return the p95 latency in milliseconds, or -1 if there are too few
+     *         samples
+     */
+    synchronized long p95() {
+      int count = Math.min(samples, LATENCY_SAMPLES);
+      if (count < MIN_SAMPLES) {
+        return -1;
+      }
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      return sorted[(int) Math.ceil(count * 0.95) - 1];
+    }
+
+    /**
+     * @return {@code true} if a request may be sent. once an open circuit
+     *         has waited long enough, a single trial request is let through
+     */
+    synchronized boolean allowRequest(long now) {
+      if (openedAt == 0) {
+        return true;
+      }
+      long period = config.openDuration.toMillis();
+      if (now - openedAt >= period && (trialAt == 0 || now - trialAt >= period)) {
+        trialAt = now;
+        return true;
+      }
+      return false;
+    }
+
+    synchronized boolean isOpen() {
+      return openedAt != 0;
+    }
+
+    synchronized void onSuccess(long now) {
+      if (openedAt != 0) {
+        closedOpenMillis.addAndGet(now - openedAt);
+        openedAt = 0;
+      }
+      failures = 0;
+      trialAt = 0;
+    }
+
+    synchronized void onFailure(long now) {
+      failures++;
+      if (openedAt != 0) {
+        // the trial failed, stay open for another period
+        closedOpenMillis.addAndGet(now - openedAt);
+        openedAt = now;
+        trialAt = 0;
+      } else if (failures >= config.failureThreshold) {
+        openedAt = now;
+        opens.incrementAndGet();
+        System.err.println("Circuit opened for " + name + " after " + failures + " failures");
+      }
+    }
+
+    synchronized long openMillis(long now) {
+      return openedAt == 0 ? 0 : now - openedAt;
+    }
+  }
+
+  /**
+   * create the retry, hedging and circuit state for a transport
+   *
+   * @param config the budgets and thresholds to use
+   */
+  public Resilience(ResilienceConfig config) {
+    this.config = config;
+  }
+
+  /**
+   * send a GET with retries, hedging and circuit breaking
+   *
+   * @param url    the url being fetched, used to pick its endpoint
+   * @param permit waits for permission to send, called before every attempt
+   *               and hedge. a {@code RateLimitedException} from it fails the
+   *               request as is
+   * @param send   sends the request once, called again for every retry and
+   *               hedge
+   * @return a {@code CompletableFuture} of the response. cancelling it cancels
+   *         every attempt still running
+   */
+  public CompletableFuture<HttpResponse<byte[]>> send(String url, Supplier<CompletableFuture<Void>> permit,
+      Supplier<CompletableFuture<HttpResponse<byte[]>>> send) {
+    Endpoint endpoint = endpoints.computeIfAbsent(endpointOf(url), Endpoint::new);
+
+    if (!endpoint.allowRequest(System.currentTimeMillis())) {
+      shortCircuits.incrementAndGet();
+      return CompletableFuture.failedFuture(new CircuitOpenException(endpoint.name));
+    }
+
+    sent.incrementAndGet();
+    CompletableFuture<HttpResponse<byte[]>> result = new CompletableFuture<>();
+    attempt(endpoint, permit, send, 0, result);
+    return result;
+  }
+
+  /**
+   * send one attempt, hedged, and retry it if it fails
+   */
+  private void attempt(Endpoint endpoint, Supplier<CompletableFuture<Void>> permit,
+      Supplier<CompletableFuture<HttpResponse<byte[]>>> send, int attempt,
+      CompletableFuture<HttpResponse<byte[]>> result) {
+    if (result.isDone()) {
+      return;
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> call = hedged(endpoint, permit, send);
+    Futures.propagateCancel(result, call);
+
+    call.whenComplete((response, error) -> {
+      // given up on by the caller, nothing to learn from this attempt
+      if (result.isDone()) {
+        return;
+      }
+
+      // never sent, so the endpoint has not failed and a retry would only
+      // wait in line again
+      if (isRateLimited(error)) {
+        result.completeExceptionally(error);
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      if (error == null && !isRetriable(response.statusCode())) {
+        endpoint.onSuccess(now);
+        result.complete(response);
+        return;
+      }
+
+      endpoint.onFailure(now);
+      if (attempt < config.maxRetries && !endpoint.isOpen()) {
+        if (takeBudget(retries, config.retryBudget, RETRY_ALLOWANCE)) {
+          long delay = backoff(attempt, response);
+          CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, EndpointExecutor.get())
+              .execute(() -> attempt(endpoint, permit, send, attempt + 1, result));
+          return;
+        }
+        retriesDenied.incrementAndGet();
+      }
+
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(response);
+      }
+    });
+  }
+
+  /**
+   * send a request, and a duplicate of it if it is slower than the endpoint's
+   * p95 once sent. the first response wins and the other request is
+   * cancelled. a failure only wins if the other request has failed too.
+   */
+  private CompletableFuture<HttpResponse<byte[]>> hedged(Endpoint endpoint,
+      Supplier<CompletableFuture<Void>> permit, Supplier<CompletableFuture<HttpResponse<byte[]>>> send) {
+    CompletableFuture<Void> granted = permit.get();
+    CompletableFuture<HttpResponse<byte[]>> first = timed(endpoint, granted, send);
+    long p95 = endpoint.p95();
+    if (!config.hedging || p95 < 0) {
+      return first;
+    }
+
+    CompletableFuture<HttpResponse<byte[]>> winner = new CompletableFuture<>();
+    AtomicInteger running = new AtomicInteger(1);
+    race(first, winner, running, null);
+    Futures.propagateCancel(winner, first);
+    winner.whenComplete((r, e) -> first.cancel(true));
+
+    // the hedge clock starts once the first request is sent, not while it
+    // waits for its permit
+    long delay = Math.max(p95, config.minHedgeDelay.toMillis());
+    granted.thenRun(() -> CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS,
+        EndpointExecutor.get()).execute(() -> {
+          if (winner.isDone() || !takeBudget(hedges, config.hedgeBudget, HEDGE_ALLOWANCE)) {
+            return;
+          }
+          running.incrementAndGet();
+          CompletableFuture<HttpResponse<byte[]>> second = timed(endpoint, permit.get(), send);
+          race(second, winner, running, hedgeWins::incrementAndGet);
+          winner.whenComplete((r, e) -> second.cancel(true));
+        }));
+
+    return winner;
+  }
+
+  /**
+   * complete {@code winner} with the outcome of {@code call}, unless it is a
+   * failure and another call is still running. {@code onWin}, if given, runs
+   * when {@code call} answers first
+   */
+  private static <T> void race(CompletableFuture<T> call, CompletableFuture<T> winner,
+      AtomicInteger running, Runnable onWin) {
+    call.whenComplete((value, error) -> {
+      int left = running.decrementAndGet();
+      if (error == null) {
+        if (winner.complete(value) && onWin != null) {
+          onWin.run();
+        }
+      } else if (left == 0) {
+        winner.completeExceptionally(error);
+      }
+    });
+  }
+
+  /**
+   * send a request once its permit is granted, recording how long good
+   * responses take from then on. cancelling the result gives up the permit,
+   * or aborts the request
+   */
+  private static CompletableFuture<HttpResponse<byte[]>> timed(Endpoint endpoint,
+      CompletableFuture<Void> granted, Supplier<CompletableFuture<HttpResponse<byte[]>>> send) {
+    return Futures.chain(granted, v -> {
+      long start = System.nanoTime();
+      CompletableFuture<HttpResponse<byte[]>> call = send.get();
+      call.thenAccept(response -> {
+        if (!isRetriable(response.statusCode())) {
+          endpoint.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+      });
+      return call;
+    });
+  }
+
+  /**
+   * take one unit out of a budget of {@code ratio} per request sent, plus an
+   * allowance
+   *
+   * @return {@code true} if the budget allowed it, in which case the counter
+   *         was incremented
+   */
+  private boolean takeBudget(AtomicLong counter, double ratio, int allowance) {
+    long limit = allowance + (long) (ratio * sent.get());
+    while (true) {
+      long used = counter.get();
+      if (used >= limit) {
+        return false;
+      }
+      if (counter.compareAndSet(used, used + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * get how long to wait before a retry. a random time up to
+   * {@code base * 2^attempt}, or what the server asked for in
+   * {@code Retry-After}, capped at the configured maximum
+   */
+  private long backoff(int attempt, HttpResponse<byte[]> response) {
+    long max = config.maxBackoff.toMillis();
+    long cap = Math.min(max, config.baseBackoff.toMillis() << Math.min(attempt, 20));
+    long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+
+    if (response != null) {
+      String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
+      if (retryAfter != null && retryAfter.matches("\\d+")) {
+        delay = Math.max(delay, Long.parseLong(retryAfter) * 1000);
+      }
+    }
+    return Math.min(delay, max);
+  }
+
+  /**
+   * @return {@code true} if an attempt failed because it was refused a permit
+   */
+  private static boolean isRateLimited(Throwable error) {
+    if (error instanceof CompletionException && error.getCause() != null) {
+      error = error.getCause();
+    }
+    return error instanceof RateLimitedException;
+  }
+
+  /**
+   * @return {@code true} for statuses worth sending the request again for
+   */
+  private static boolean isRetriable(int status) {
+    return status == 429 || status == 500 || status == 502 || status == 503 || status == 504;
+  }
+
+  /**
+   * get the endpoint a url belongs to, its path with every segment holding a
+   * region, coordinate or station id replaced by {@code {}}
+   *
+   * @param url the full url
+   * @return the endpoint, such as {@code gridpoints/{}/{}/forecast/hourly}
+   */
+  public static String endpointOf(String url) {
+    String path = URI.create(url).getPath();
+    StringBuilder endpoint = new StringBuilder();
+    for (String segment : path.split("/")) {
+      if (segment.isEmpty()) {
+        continue;
+      }
+      if (endpoint.length() > 0) {
+        endpoint.append('/');
+      }
+      boolean variable = !segment.equals(segment.toLowerCase()) || segment.matches(".*\\d.*");
+      endpoint.append(variable ? "{}" : segment);
+    }
+    return endpoint.toString();
+  }
+
+  /**
+   * get the current retry, hedge and circuit counts
+   *
+   * @return a {@code ResilienceStats} snapshot
+   */
+  public ResilienceStats getStats() {
+    long now = System.currentTimeMillis();
+    long openMillis = closedOpenMillis.get();
+    for (Endpoint endpoint : endpoints.values()) {
+      openMillis += endpoint.openMillis(now);
+    }
+    return new ResilienceStats(retries.get(), retriesDenied.get(), hedges.get(), hedgeWins.get(),
+        opens.get(), shortCircuits.get(), openMillis);
+  }
+}
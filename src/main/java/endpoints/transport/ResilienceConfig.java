@@ -0,0 +1,108 @@
+package endpoints.transport;
+
+import java.time.Duration;
+
+/**
+ * Allows for simple building of the retry, hedging and circuit breaker
+ * settings used by {@code Resilience}.
+ * Typically passed to {@code TransportConfig.withResilience}
+ */
+public class ResilienceConfig {
+  int maxRetries = 2;
+  Duration baseBackoff = Duration.ofMillis(200);
+  Duration maxBackoff = Duration.ofSeconds(2);
+  double retryBudget = 0.2;
+
+  boolean hedging = true;
+  Duration minHedgeDelay = Duration.ofMillis(250);
+  double hedgeBudget = 0.1;
+
+  int failureThreshold = 5;
+  Duration openDuration = Duration.ofSeconds(30);
+
+  public ResilienceConfig() {
+  }
+
+  /**
+   * Build a config that never retries, hedges or opens a circuit
+   */
+  public static ResilienceConfig disabled() {
+    return new ResilienceConfig()
+        .withMaxRetries(0)
+        .withHedging(false)
+        .withFailureThreshold(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Build a config that retries a failed GET at most {@code maxRetries} times
+   */
+  public ResilienceConfig withMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+    return this;
+  }
+
+  /**
+   * Build a config whose retries wait a random time up to
+   * {@code base * 2^attempt}, never more than {@code max}
+   */
+  public ResilienceConfig withBackoff(Duration base, Duration max) {
+    this.baseBackoff = base;
+    this.maxBackoff = max;
+    return this;
+  }
+
+  /**
+   * Build a config that allows at most {@code budget} retries per request
+   * sent, on top of a small allowance, so retries cannot multiply the load on
+   * a struggling server
+   */
+  public ResilienceConfig withRetryBudget(double budget) {
+    this.retryBudget = budget;
+    return this;
+  }
+
+  /**
+   * Build a config that does, or does not, send a duplicate of a request that
+   * has taken longer than the endpoint's p95 latency
+   */
+  public ResilienceConfig withHedging(boolean hedging) {
+    this.hedging = hedging;
+    return this;
+  }
+
+  /**
+   * Build a config that never hedges a request before {@code delay}, however
+   * fast the endpoint usually is
+   */
+  public ResilienceConfig withMinHedgeDelay(Duration delay) {
+    this.minHedgeDelay = delay;
+    return this;
+  }
+
+  /**
+   * Build a config that allows at most {@code budget} hedges per request sent,
+   * on top of a small allowance
+   */
+  public ResilienceConfig withHedgeBudget(double budget) {
+    this.hedgeBudget = budget;
+    return this;
+  }
+
+  /**
+   * Build a config that opens an endpoint's circuit after
+   * {@code failureThreshold} failures in a row
+   */
+  public ResilienceConfig withFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+    return this;
+  }
+
+  /**
+   * Build a config that keeps an open circuit open for {@code openDuration}
+   * before letting a trial request through
+   */
+  public ResilienceConfig withOpenDuration(Duration openDuration) {
+    this.openDuration = openDuration;
+    return this;
+  }
+}
@@ -0,0 +1,39 @@
+package endpoints.transport;
+
+/**
+ * A snapshot of the counters kept by {@code Resilience}.
+ * Typically created by use of {@code NwsTransport.getResilienceStats}
+ */
+public class ResilienceStats {
+  // requests sent again after a failure or a 5xx
+  public final long retries;
+  // retries skipped because the retry budget was spent
+  public final long retriesDenied;
+  // duplicate requests sent because the first was slower than p95
+  public final long hedges;
+  // hedges that answered before the request they duplicated
+  public final long hedgeWins;
+  // times a circuit opened
+  public final long opens;
+  // requests failed fast, without being sent, while a circuit was open
+  public final long shortCircuits;
+  // total time circuits spent open, in milliseconds
+  public final long openMillis;
+
+  public ResilienceStats(long retries, long retriesDenied, long hedges, long hedgeWins, long opens,
+      long shortCircuits, long openMillis) {
+    this.retries = retries;
+    this.retriesDenied = retriesDenied;
+    this.hedges = hedges;
+    this.hedgeWins = hedgeWins;
+    this.opens = opens;
+    this.shortCircuits = shortCircuits;
+    this.openMillis = openMillis;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("retries=%d denied=%d hedges=%d hedgeWins=%d opens=%d shortCircuits=%d open=%dms",
+        retries, retriesDenied, hedges, hedgeWins, opens, shortCircuits, openMillis);
+  }
+}
@@ -0,0 +1,416 @@
+package endpoints.transport;
+
+import java.net.http.HttpHeaders;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A disk backed cache of weather service responses, stored in SQLite.
+ * Honors the {@code Cache-Control}, {@code Expires}, {@code ETag} and
+ * {@code Last-Modified} headers sent by api.weather.gov, and keeps the
+ * database under a size bound by evicting the least recently used responses.
+ *
+ * Typically used through {@code NwsTransport.get}
+ */
+public class ResponseCache {
+  public static final long DEFAULT_MAX_BYTES = 32L * 1024 * 1024;
+  public static final Duration DEFAULT_STALE_WINDOW = Duration.ofMinutes(15);
+
+  private final Connection conn;
+  private final long maxBytes;
+  private final Duration staleWindow;
+  private long totalBytes;
+
+  // counters, see {@code CacheStats}
+  final AtomicLong hits = new AtomicLong();
+  final AtomicLong staleHits = new AtomicLong();
+  final AtomicLong misses = new AtomicLong();
+  final AtomicLong revalidations = new AtomicLong();
+
+  /**
+   * A single cached response
+   */
+  public static class Entry {
+    public final String url;
+    public final int statusCode;
+    public final byte[] body;
+    public final String etag, lastModified;
+    // epoch millis after which the entry must be revalidated, and after which
+    // it may no longer be served while revalidating
+    public final long expiresAt, staleUntil;
+
+    Entry(String url, int statusCode, byte[] body, String etag, String lastModified, long expiresAt,
+        long staleUntil) {
+      this.url = url;
+      this.statusCode = statusCode;
+      this.body = body;
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.expiresAt = expiresAt;
+      this.staleUntil = staleUntil;
+    }
+
+    /**
+     * @return {@code true} if the entry may be served without asking the server
+     */
+    public boolean isFresh(long now) {
+      return now < expiresAt;
+    }
+
+    /**
+     * @return {@code true} if the entry may be served while a revalidation runs
+     */
+    public boolean isServableStale(long now) {
+      return now < staleUntil;
+    }
+  }
+
+  /**
+   * open the cache at its default location with default bounds
+   */
+  public ResponseCache() throws SQLException {
+    this(defaultPath(), DEFAULT_MAX_BYTES, DEFAULT_STALE_WINDOW);
+  }
+
+  /**
+   * open (or create) a cache database
+   *
+   * @param file        the SQLite database file
+   * @param maxBytes    the most response bytes to keep on disk
+   * @param staleWindow how long past expiry a response with an explicit
+   *                    lifetime may be served while it is revalidated, if the
+   *                    server does not say otherwise
+   */
+  public ResponseCache(Path file, long maxBytes, Duration staleWindow) throws SQLException {
+    this.maxBytes = maxBytes;
+    this.staleWindow = staleWindow;
+
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+    } catch (Exception e) {
+      throw new SQLException("Failed to create cache directory for " + file, e);
+    }
+
+    conn = DriverManager.getConnection("jdbc:sqlite:" + file.toAbsolutePath());
+    try (Statement stmt = conn.createStatement()) {
+      // WAL keeps the per-hit access time update from syncing the whole file
+      stmt.execute("PRAGMA journal_mode=WAL");
+      stmt.execute("PRAGMA synchronous=NORMAL");
+      stmt.execute("create table if not exists RESPONSES (URL text primary key, STATUS integer,"
+          + " BODY blob, ETAG text, LAST_MODIFIED text, EXPIRES_AT integer, STALE_UNTIL integer,"
+          + " LAST_ACCESS integer, SIZE integer)");
+      stmt.execute("create index if not exists RESPONSES_ACCESS on RESPONSES (LAST_ACCESS)");
+
+      ResultSet rs = stmt.executeQuery("select coalesce(sum(SIZE), 0) from RESPONSES");
+      totalBytes = rs.getLong(1);
+    }
+  }
+
+  /**
+   * the default cache location, in the user's home directory
+   *
+   * @return the path of the cache database
+   */
+  public static Path defaultPath() {
+    return Paths.get(System.getProperty("user.home"), ".weatherfx", "http_cache.db");
+  }
+
+  /**
+   * look up a cached response. marks the entry as recently used.
+   *
+   * @param url the full request url
+   * @return the cached {@code Entry}, if there is one
+   */
+  public synchronized Optional<Entry> lookup(String url) {
+    String sql = "select STATUS, BODY, ETAG, LAST_MODIFIED, EXPIRES_AT, STALE_UNTIL from RESPONSES where URL = ?";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setString(1, url);
+      ResultSet rs = stmt.executeQuery();
+      if (!rs.next()) {
+        return Optional.empty();
+      }
+
+      Entry entry = new Entry(url, rs.getInt(1), rs.getBytes(2), rs.getString(3), rs.getString(4),
+          rs.getLong(5), rs.getLong(6));
+      touch(url);
+      return Optional.of(entry);
+    } catch (SQLException e) {
+      System.err.println("Failed to read cache: " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * store a successful response, if its headers allow it
+   *
+   * @param url     the full request url
+   * @param status  the response status code
+   * @param headers the response headers
+   * @param body    the response body
+   */
+  public synchronized void store(String url, int status, HttpHeaders headers, byte[] body) {
+    CacheControl cc = CacheControl.parse(headers);
+    if (cc.noStore) {
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    long expiresAt = cc.expiresAt(headers, now);
+    long staleUntil = cc.staleUntil(headers, expiresAt, staleWindow);
+
+    String sql = "insert or replace into RESPONSES (URL, STATUS, BODY, ETAG, LAST_MODIFIED, EXPIRES_AT,"
+        + " STALE_UNTIL, LAST_ACCESS, SIZE) values (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      long previous = sizeOf(url);
+
+      stmt.setString(1, url);
+      stmt.setInt(2, status);
+      stmt.setBytes(3, body);
+      stmt.setString(4, headers.firstValue("etag").orElse(null));
+      stmt.setString(5, headers.firstValue("last-modified").orElse(null));
+      stmt.setLong(6, expiresAt);
+      stmt.setLong(7, staleUntil);
+      stmt.setLong(8, now);
+      stmt.setLong(9, body.length);
+      stmt.executeUpdate();
+
+      totalBytes += body.length - previous;
+      evict();
+    } catch (SQLException e) {
+      System.err.println("Failed to write cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * extend the life of an entry after the server answered 304 Not Modified
+   *
+   * @param url     the full request url
+   * @param headers the headers of the 304 response
+   */
+  public synchronized void refresh(String url, HttpHeaders headers) {
+    revalidations.incrementAndGet();
+
+    CacheControl cc = CacheControl.parse(headers);
+    long now = System.currentTimeMillis();
+    long expiresAt = cc.expiresAt(headers, now);
+    long staleUntil = cc.staleUntil(headers, expiresAt, staleWindow);
+
+    String sql = "update RESPONSES set EXPIRES_AT = ?, STALE_UNTIL = ?, LAST_ACCESS = ?,"
+        + " ETAG = coalesce(?, ETAG) where URL = ?";
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      stmt.setLong(1, expiresAt);
+      stmt.setLong(2, staleUntil);
+      stmt.setLong(3, now);
+      stmt.setString(4, headers.firstValue("etag").orElse(null));
+      stmt.setString(5, url);
+      stmt.executeUpdate();
+    } catch (SQLException e) {
+      System.err.println("Failed to write cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * get the current counters and size of the cache
+   *
+   * @return a {@code CacheStats} snapshot
+   */
+  public synchronized CacheStats getStats() {
+    long entries = 0;
+    try (Statement stmt = conn.createStatement()) {
+      entries = stmt.executeQuery("select count(*) from RESPONSES").getLong(1);
+    } catch (SQLException e) {
+      System.err.println("Failed to read cache: " + e.getMessage());
+    }
+    return new CacheStats(hits.get(), staleHits.get(), misses.get(), revalidations.get(), entries,
+        totalBytes);
+  }
+
+  /**
+   * close the underlying database
+   */
+  public synchronized void close() {
+    try {
+      conn.close();
+    } catch (SQLException e) {
+      System.err.println("Failed to close cache: " + e.getMessage());
+    }
+  }
+
+  /**
+   * mark an entry as just used
+   */
+  private void touch(String url) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement("update RESPONSES set LAST_ACCESS = ? where URL = ?")) {
+      stmt.setLong(1, System.currentTimeMillis());
+      stmt.setString(2, url);
+      stmt.executeUpdate();
+    }
+  }
+
+  /**
+   * get the stored size of an entry, {@code 0} if absent
+   */
+  private long sizeOf(String url) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement("select SIZE from RESPONSES where URL = ?")) {
+      stmt.setString(1, url);
+      ResultSet rs = stmt.executeQuery();
+      return rs.next() ? rs.getLong(1) : 0;
+    }
+  }
+
+  /**
+   * drop the least recently used entries until the cache fits its bound
+   */
+  private void evict() throws SQLException {
+    if (totalBytes <= maxBytes) {
+      return;
+    }
+
+    // collect victims oldest first
+    ArrayList<String> victims = new ArrayList<>();
+    try (Statement stmt = conn.createStatement()) {
+      ResultSet rs = stmt.executeQuery("select URL, SIZE from RESPONSES order by LAST_ACCESS");
+      long remaining = totalBytes;
+      while (remaining > maxBytes && rs.next()) {
+        victims.add(rs.getString(1));
+        remaining -= rs.getLong(2);
+      }
+    }
+
+    try (PreparedStatement stmt = conn.prepareStatement("delete from RESPONSES where URL = ?")) {
+      for (String url : victims) {
+        totalBytes -= sizeOf(url);
+        stmt.setString(1, url);
+        stmt.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * The caching directives of a response
+   */
+  private static class CacheControl {
+    boolean noStore = false;
+    boolean noCache = false;
+    Optional<Long> maxAge = Optional.empty();
+    Optional<Duration> staleWindow = Optional.empty();
+
+    /**
+     * read the {@code Cache-Control} header of a response
+     */
+    static CacheControl parse(HttpHeaders headers) {
+      CacheControl cc = new CacheControl();
+      for (String value : headers.allValues("cache-control")) {
+        for (String directive : value.split(",")) {
+          String d = directive.trim().toLowerCase();
+          try {
+            if (d.equals("no-store")) {
+              cc.noStore = true;
+            } else if (d.equals("no-cache")) {
+              cc.noCache = true;
+            } else if (d.startsWith("max-age=")) {
+              cc.maxAge = Optional.of(Long.parseLong(d.substring(8)));
+            } else if (d.startsWith("stale-while-revalidate=")) {
+              cc.staleWindow = Optional.of(Duration.ofSeconds(Long.parseLong(d.substring(23))));
+            }
+          } catch (NumberFormatException e) {
+            // ignore malformed directives, like a browser would
+          }
+        }
+      }
+      return cc;
+    }
+
+    /**
+     * the time, in epoch millis, after which a response must be revalidated.
+     * a response is fresh for its lifetime less however old it already was
+     * when it arrived
+     */
+    long expiresAt(HttpHeaders headers, long now) {
+      if (noCache) {
+        return now;
+      }
+
+      long lifetime;
+      if (maxAge.isPresent()) {
+        lifetime = maxAge.get() * 1000;
+      } else {
+        // fall back to Expires, measured against the server's clock
+        Optional<Long> expires = dateOf(headers, "expires");
+        if (expires.isEmpty()) {
+          return now;
+        }
+        lifetime = expires.get() - dateOf(headers, "date").orElse(now);
+      }
+
+      return now + Math.max(0, lifetime - age(headers, now));
+    }
+
+    /**
+     * how old a response is, in millis: the larger of its {@code Age} header
+     * and the time since its {@code Date} header
+     */
+    static long age(HttpHeaders headers, long now) {
+      long age = 0;
+      try {
+        age = Long.parseLong(headers.firstValue("age").orElse("0").trim()) * 1000;
+      } catch (NumberFormatException e) {
+        // ignore a malformed Age, like a browser would
+      }
+      Optional<Long> date = dateOf(headers, "date");
+      if (date.isPresent()) {
+        age = Math.max(age, now - date.get());
+      }
+      return Math.max(0, age);
+    }
+
+    /**
+     * read an HTTP date header
+     *
+     * @return the date in epoch millis, empty if absent or malformed
+     */
+    static Optional<Long> dateOf(HttpHeaders headers, String name) {
+      try {
+        return headers.firstValue(name)
+            .map(d -> ZonedDateTime.parse(d, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli());
+      } catch (DateTimeParseException e) {
+        return Optional.empty();
+      }
+    }
+
+    /**
+     * the time, in epoch millis, until which a response may be served while it
+     * is revalidated. {@code no-cache} responses, and responses that do not
+     * say how long they are fresh for, must be revalidated before every use
+     *
+     * @param fallback the window for fresh-for-a-while responses that do not
+     *                 send {@code stale-while-revalidate}
+     */
+    long staleUntil(HttpHeaders headers, long expiresAt, Duration fallback) {
+      if (noCache) {
+        return expiresAt;
+      }
+      if (staleWindow.isPresent()) {
+        return expiresAt + staleWindow.get().toMillis();
+      }
+      if (maxAge.isPresent() || headers.firstValue("expires").isPresent()) {
+        return expiresAt + fallback.toMillis();
+      }
+      return expiresAt;
+    }
+  }
+}
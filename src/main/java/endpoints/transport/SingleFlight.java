@@ -0,0 +1,178 @@
+package endpoints.transport;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent identical requests into one.
+ * The first caller for a key starts the work, every caller that arrives while
+ * it is still running shares its result instead of starting another request.
+ *
+ * Typically held statically by an endpoint class, one per result type, and
+ * keyed by {@code normalize}d request url.
+ */
+public class SingleFlight<V> {
+  // totals over every instance, see {@code getStats}
+  private static final AtomicLong totalCalls = new AtomicLong();
+  private static final AtomicLong totalCollapsed = new AtomicLong();
+
+  private final ConcurrentHashMap<String, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * A single running call and the callers waiting on it
+   */
+  private static class Flight<V> {
+    final CompletableFuture<V> shared = new CompletableFuture<>();
+    CompletableFuture<V> started;
+    int waiters = 0;
+    boolean abandoned = false;
+
+    /**
+     * add a caller, unless every earlier caller has already given up
+     */
+    synchronized boolean join() {
+      if (abandoned) {
+        return false;
+      }
+      waiters++;
+      return true;
+    }
+
+    /**
+     * remove a caller that gave up, cancelling the work if it was the last
+     */
+    synchronized void leave() {
+      if (--waiters == 0 && !shared.isDone()) {
+        abandoned = true;
+        if (started != null) {
+          started.cancel(true);
+        }
+      }
+    }
+
+    /**
+     * get a caller's own copy of the shared result
+     */
+    CompletableFuture<V> follow() {
+      CompletableFuture<V> copy = shared.copy();
+      copy.whenComplete((value, error) -> {
+        if (error != null && !shared.isDone()) {
+          leave();
+        }
+      });
+      return copy;
+    }
+  }
+
+  public SingleFlight() {
+  }
+
+  /**
+   * run {@code work} for {@code key}, unless it is already running, in which
+   * case join the running call.
+   *
+   * each caller gets its own copy of the shared future, so one caller
+   * cancelling or timing out does not affect the others. once every caller
+   * has given up, the future returned by {@code work} is cancelled.
+   *
+   * @param key  the normalized request url
+   * @param work starts the request and decodes its result
+   * @return a {@code CompletableFuture} of the shared result
+   */
+  public CompletableFuture<V> run(String key, Supplier<CompletableFuture<V>> work) {
+    totalCalls.incrementAndGet();
+
+    Flight<V> flight = new Flight<>();
+    Flight<V> running;
+    while ((running = inFlight.putIfAbsent(key, flight)) != null) {
+      if (running.join()) {
+        totalCollapsed.incrementAndGet();
+        return running.follow();
+      }
+      // everyone waiting on it gave up, start over
+      inFlight.remove(key, running);
+    }
+    flight.join();
+
+    CompletableFuture<V> started;
+    try {
+      started = work.get();
+    } catch (Throwable e) {
+      started = CompletableFuture.failedFuture(e);
+    }
+    synchronized (flight) {
+      flight.started = started;
+    }
+
+    // forget the call before completing it, so late arrivals start fresh
+    started.whenComplete((value, error) -> {
+      inFlight.remove(key, flight);
+      if (error != null) {
+        flight.shared.completeExceptionally(error);
+      } else {
+        flight.shared.complete(value);
+      }
+    });
+
+    return flight.follow();
+  }
+
+  /**
+   * @return the number of calls currently running for this instance
+   */
+  public int inFlight() {
+    return inFlight.size();
+  }
+
+  /**
+   * get how many calls were made and how many of them joined another call,
+   * over every {@code SingleFlight}
+   *
+   * @return a {@code long} array of size two in the format of {calls,
+   *         collapsed}
+   */
+  public static long[] getStats() {
+    return new long[] { totalCalls.get(), totalCollapsed.get() };
+  }
+
+  /**
+   * normalize a url so equivalent requests share a key. lower cases the scheme
+   * and host, drops default ports and trailing slashes, and sorts the query.
+   *
+   * @param url the request url
+   * @return the normalized url
+   */
+  public static String normalize(String url) {
+    URI uri = URI.create(url).normalize();
+
+    String scheme = uri.getScheme() == null ? "" : uri.getScheme().toLowerCase();
+    String host = uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+    int port = uri.getPort();
+    if ((scheme.equals("https") && port == 443) || (scheme.equals("http") && port == 80)) {
+      port = -1;
+    }
+
+    String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+    if (path.endsWith("/")) {
+      path = path.substring(0, path.length() - 1);
+    }
+
+    StringBuilder key = new StringBuilder(scheme).append("://").append(host);
+    if (port != -1) {
+      key.append(':').append(port);
+    }
+    key.append(path);
+
+    if (uri.getRawQuery() != null && !uri.getRawQuery().isEmpty()) {
+      String[] params = uri.getRawQuery().split("&");
+      Arrays.sort(params);
+      key.append('?').append(String.join("&", params));
+    }
+
+    return key.toString();
+  }
+}
@@ -0,0 +1,90 @@
+package endpoints.transport;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+/**
+ * Allows for simple building of the settings used by {@code NwsTransport}.
+ * Pass the finished config to {@code NwsTransport.configure} before the first
+ * request is sent to take effect without rebuilding the client.
+ */
+public class TransportConfig {
+  Optional<Executor> executor = Optional.empty();
+  Duration connectTimeout = Duration.ofSeconds(5);
+  Duration keepAlive = Duration.ofMinutes(5);
+  int poolSize = 8;
+  ResilienceConfig resilience = new ResilienceConfig();
+  // the server to talk to, api.weather.gov unless -Dweatherfx.nws.url says
+  // otherwise
+  String baseUrl = System.getProperty("weatherfx.nws.url", NwsTransport.DEFAULT_BASE_URL);
+  double ratePerSecond = 10;
+  int burst = 20;
+
+  public TransportConfig() {
+  }
+
+  /**
+   * Build a config whose client runs its async work on {@code executor}.
+   * by default the client uses its own cached thread pool.
+   */
+  public TransportConfig withExecutor(Executor executor) {
+    this.executor = Optional.ofNullable(executor);
+    return this;
+  }
+
+  /**
+   * Build a config that gives up on opening a connection after {@code timeout}
+   */
+  public TransportConfig withConnectTimeout(Duration timeout) {
+    this.connectTimeout = timeout;
+    return this;
+  }
+
+  /**
+   * Build a config that keeps idle connections open for {@code keepAlive}
+   */
+  public TransportConfig withKeepAlive(Duration keepAlive) {
+    this.keepAlive = keepAlive;
+    return this;
+  }
+
+  /**
+   * Build a config that keeps at most {@code poolSize} idle HTTP/1.1
+   * connections. HTTP/2 multiplexes every request to a host over a single
+   * connection, so this only matters if the server refuses to upgrade.
+   */
+  public TransportConfig withPoolSize(int poolSize) {
+    this.poolSize = poolSize;
+    return this;
+  }
+
+  /**
+   * Build a config that sends requests to {@code baseUrl} instead of
+   * api.weather.gov, such as a local stand-in server
+   */
+  public TransportConfig withBaseUrl(String baseUrl) {
+    this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    return this;
+  }
+
+  /**
+   * Build a config that sends at most {@code ratePerSecond} requests a second
+   * on average, and at most {@code burst} at once after being idle
+   */
+  public TransportConfig withRateLimit(double ratePerSecond, int burst) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = burst;
+    return this;
+  }
+
+  /**
+   * Build a config that retries, hedges and breaks circuits as
+   * {@code resilience} says. see {@code ResilienceConfig.disabled} to turn it
+   * all off
+   */
+  public TransportConfig withResilience(ResilienceConfig resilience) {
+    this.resilience = resilience;
+    return this;
+  }
+}
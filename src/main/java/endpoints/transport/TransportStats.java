@@ -0,0 +1,37 @@
+package endpoints.transport;
+
+/**
+ * A snapshot of the counters kept by {@code NwsTransport}.
+ * Typically created by use of {@code NwsTransport.getStats}
+ */
+public class TransportStats {
+  // exchanges sent through the shared client
+  public final long requests;
+  // TLS sessions opened, each one a new connection and a full handshake
+  public final long handshakes;
+  // exchanges that rode on an already open connection
+  public final long reused;
+
+  public TransportStats(long requests, long handshakes) {
+    this.requests = requests;
+    this.handshakes = handshakes;
+    this.reused = Math.max(0, requests - handshakes);
+  }
+
+  /**
+   * get the share of exchanges that did not need a new connection
+   *
+   * @return a value between {@code 0} and {@code 1}
+   */
+  public double reuseRatio() {
+    if (requests == 0)
+      return 0;
+    return (double) reused / requests;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("requests=%d handshakes=%d reused=%d (%.0f%%)", requests, handshakes, reused,
+        reuseRatio() * 100);
+  }
+}
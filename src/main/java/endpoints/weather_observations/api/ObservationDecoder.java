@@ -0,0 +1,139 @@
+package endpoints.weather_observations.api;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import endpoints.my_weather.data.IsoTime;
+import endpoints.weather_observations.data.Observations;
+import endpoints.weather_observations.data.Observations.Unit;
+
+/**
+ * Streams a {@code /stations/{id}/observations/latest} response straight into
+ * an {@code Observations}.
+ * likely should not be instantiated.
+ *
+ * Reads tokens with a {@code JsonParser} as they arrive, filling the primitive
+ * fields directly, so no {@code String} body or boxed quantity is created.
+ */
+public class ObservationDecoder {
+  // factories are thread safe and expensive to create, so share one
+  private static final JsonFactory factory = new JsonFactory();
+
+  /**
+   * decode an observation document
+   *
+   * @param in the response body
+   * @return the {@code Observations} read from the body
+   */
+  public static Observations decode(InputStream in) throws IOException {
+    try (JsonParser p = factory.createParser(in)) {
+      Observations o = new Observations();
+
+      if (p.nextToken() != JsonToken.START_OBJECT) {
+        throw new JsonParseException(p, "Expected an observation object");
+      }
+
+      // only the properties member holds anything we keep
+      while (p.nextToken() == JsonToken.FIELD_NAME) {
+        String name = p.getCurrentName();
+        p.nextToken();
+        if (name.equals("properties")) {
+          readProperties(p, o);
+        } else {
+          p.skipChildren();
+        }
+      }
+
+      return o;
+    }
+  }
+
+  /**
+   * read the {@code properties} object, the parser must be on its start token
+   */
+  private static void readProperties(JsonParser p, Observations o) throws IOException {
+    // the unit of the quantity just read
+    Unit[] unit = new Unit[1];
+
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+
+      switch (name) {
+        case "timestamp":
+          if (token == JsonToken.VALUE_STRING) {
+            o.timestamp = IsoTime.epochSecond(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+          }
+          break;
+        case "windGust":
+          o.windGust = readQuantity(p, unit);
+          o.windGustUnit = unit[0];
+          break;
+        case "barometricPressure":
+          o.barometricPressure = readQuantity(p, unit);
+          o.barometricPressureUnit = unit[0];
+          break;
+        case "seaLevelPressure":
+          o.seaLevelPressure = readQuantity(p, unit);
+          o.seaLevelPressureUnit = unit[0];
+          break;
+        case "visibility":
+          o.visibility = readQuantity(p, unit);
+          o.visibilityUnit = unit[0];
+          break;
+        case "windChill":
+          o.windChill = readQuantity(p, unit);
+          o.windChillUnit = unit[0];
+          break;
+        case "heatIndex":
+          o.heatIndex = readQuantity(p, unit);
+          o.heatIndexUnit = unit[0];
+          break;
+        case "windSpeed":
+          o.windSpeed = readQuantity(p, unit);
+          o.windSpeedUnit = unit[0];
+          break;
+        case "windDirection":
+          o.windDirection = readQuantity(p, unit);
+          o.windDirectionUnit = unit[0];
+          break;
+        default:
+          p.skipChildren();
+          break;
+      }
+    }
+  }
+
+  /**
+   * read a {@code {unitCode, value}} quantity object
+   *
+   * @param unit where to put the unit of the quantity
+   * @return the value, or NaN if it is {@code null} or missing
+   */
+  private static double readQuantity(JsonParser p, Unit[] unit) throws IOException {
+    unit[0] = Unit.Unknown;
+    if (p.getCurrentToken() != JsonToken.START_OBJECT) {
+      p.skipChildren();
+      return Double.NaN;
+    }
+
+    double value = Double.NaN;
+    while (p.nextToken() == JsonToken.FIELD_NAME) {
+      String name = p.getCurrentName();
+      JsonToken token = p.nextToken();
+      if (name.equals("value") && token.isNumeric()) {
+        value = p.getDoubleValue();
+      } else if (name.equals("unitCode") && token == JsonToken.VALUE_STRING) {
+        unit[0] = Unit.of(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+      } else {
+        p.skipChildren();
+      }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,155 @@
+package endpoints.weather_observations.api;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import endpoints.transport.Futures;
+import endpoints.weather_observations.data.StationIndex;
+import endpoints.weather_observations.data.Stations;
+
+/**
+ * Keeps the weather stations of each grid point in memory, indexed for
+ * nearest station queries, so the station list is only downloaded once per
+ * grid point instead of once per observation request.
+ *
+ * Typically used through {@code WeatherStations.getNearestStation}
+ */
+public class StationCatalog {
+  // stations come and go rarely, a day is plenty fresh
+  public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+
+  private static StationCatalog defaultCatalog;
+
+  private final Duration ttl;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  // counters, see {@code getStats}
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+
+  /**
+   * The indexed stations of one grid point
+   */
+  private static class Entry {
+    final StationIndex index;
+    final long loadedAt;
+
+    Entry(StationIndex index, long loadedAt) {
+      this.index = index;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  /**
+   * create a catalog
+   *
+   * @param ttl how long a grid point's stations are kept before downloading
+   *            them again
+   */
+  public StationCatalog(Duration ttl) {
+    this.ttl = ttl;
+  }
+
+  /**
+   * get the shared catalog
+   *
+   * @return the shared {@code StationCatalog}
+   */
+  public static synchronized StationCatalog getDefault() {
+    if (defaultCatalog == null) {
+      defaultCatalog = new StationCatalog(DEFAULT_TTL);
+    }
+    return defaultCatalog;
+  }
+
+  /**
+   * asynchronously get the indexed stations of a grid point, downloading them
+   * if they are unknown or older than the ttl
+   *
+   * @param region the weather region
+   * @param gridX  the x value of the grid point
+   * @param gridY  the y value of the grid point
+   * @return a {@code CompletableFuture} of the {@code StationIndex}, or of
+   *         {@code null} if the stations could not be loaded
+   */
+  public CompletableFuture<StationIndex> getAsync(String region, int gridX, int gridY) {
+    String key = region + "/" + gridX + "," + gridY;
+    long now = System.currentTimeMillis();
+
+    Entry entry = entries.get(key);
+    if (entry != null && now - entry.loadedAt < ttl.toMillis()) {
+      hits.incrementAndGet();
+      return CompletableFuture.completedFuture(entry.index);
+    }
+
+    CompletableFuture<ArrayList<Stations>> stations = WeatherStations.getStationsAsync(region, gridX,
+        gridY);
+    return Futures.propagateCancel(stations.thenApply(list -> {
+      if (list == null) {
+        // keep serving the old stations rather than none
+        return entry == null ? null : entry.index;
+      }
+
+      loads.incrementAndGet();
+      StationIndex index = new StationIndex(list);
+      entries.put(key, new Entry(index, now));
+      return index;
+    }), stations);
+  }
+
+  /**
+   * get the indexed stations of a grid point, downloading them if they are
+   * unknown or older than the ttl
+   *
+   * @param region the weather region
+   * @param gridX  the x value of the grid point
+   * @param gridY  the y value of the grid point
+   * @return the {@code StationIndex}, or {@code null} if the stations could not
+   *         be loaded
+   */
+  public StationIndex get(String region, int gridX, int gridY) throws ConnectException {
+    return Futures.await(getAsync(region, gridX, gridY));
+  }
+
+  /**
+   * find the {@code k} stations of a grid point closest to a position
+   *
+   * @param region the weather region
+   * @param gridX  the x value of the grid point
+   * @param gridY  the y value of the grid point
+   * @param lat    the latitude to compare with
+   * @param lon    the longitude to compare with
+   * @param k      how many stations to find
+   * @return the station identifiers, closest first. empty if there are none
+   */
+  public List<String> nearest(String region, int gridX, int gridY, double lat, double lon, int k)
+      throws ConnectException {
+    StationIndex index = get(region, gridX, gridY);
+    if (index == null) {
+      return List.of();
+    }
+    return index.nearest(lat, lon, k);
+  }
+
+  /**
+   * forget every grid point
+   */
+  public void clear() {
+    entries.clear();
+  }
+
+  /**
+   * get how many lookups were answered from memory and how many downloaded
+   * the stations
+   *
+   * @return a {@code long} array of size two in the format of {hits, loads}
+   */
+  public long[] getStats() {
+    return new long[] { hits.get(), loads.get() };
+  }
+}
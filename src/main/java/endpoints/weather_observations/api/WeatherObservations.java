@@ -1,17 +1,18 @@
 package endpoints.weather_observations.api;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.ConnectException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.concurrent.CompletableFuture;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import endpoints.transport.Futures;
+import endpoints.transport.NwsResponse;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.SingleFlight;
 import endpoints.weather_observations.data.Observations;
+import endpoints.weather_observations.data.StationIndex;
+import tracing.Tracing;
 
 /** 
  * used for getting weather observations statically.
@@ -20,8 +21,12 @@ import endpoints.weather_observations.data.Observations;
  * most useful methods:
  *  - {@code getWeatherObservationsAsync}
  *  - {@code getWeatherObservations}
+ *  - {@code getStationObservationsAsync}
  */
 public class WeatherObservations {
+  // concurrent identical requests share one call, keyed by normalized url
+  private static final SingleFlight<Observations> flights = new SingleFlight<>();
+
   /**
    * asynchronously gather weather observations closest to a given latitude and longitude in a region and its grid points
    *
@@ -33,14 +38,34 @@ public class WeatherObservations {
    * @return a {@code CompletableFuture} containing the weather {@code Observations} found
    */
   public static CompletableFuture<Observations> getWeatherObservationsAsync(String region, int gridX, int gridY, double lat, double lon) {
-    return CompletableFuture
-      .supplyAsync(() -> {
-        try {
-          return getWeatherObservations(region, gridX, gridY, lat, lon);
-        } catch (ConnectException ce) {
-          throw new RuntimeException("Failed to connect");
+    // the station is picked by distance, so the position is part of the key
+    String key = SingleFlight.normalize(NwsTransport.baseUrl() + "/gridpoints/" + region + "/" + gridX
+        + "," + gridY + "/stations?lat=" + lat + "&lon=" + lon);
+    return flights.run(key, () -> {
+      // pick the nearest station, then ask it for its latest observation
+      CompletableFuture<StationIndex> stations = StationCatalog.getDefault().getAsync(region, gridX, gridY);
+      return Futures.chain(stations, index -> {
+        String station = index == null ? null : index.nearest(lat, lon);
+        if (station == null) {
+          System.err.println("No stations found for " + region + "/" + gridX + "," + gridY);
+          return CompletableFuture.completedFuture(null);
         }
+
+        return getStationObservationsAsync(station);
       });
+    });
+  }
+
+  /**
+   * asynchronously gather the latest weather observations of a station
+   *
+   * @param station the station identifier, such as {@code KMDW}
+   * @return a {@code CompletableFuture} containing the weather {@code Observations} found
+   */
+  public static CompletableFuture<Observations> getStationObservationsAsync(String station) {
+    // form api request
+    String url = NwsTransport.baseUrl() + "/stations/" + station + "/observations/latest";
+    return Tracing.endpoint("observations", station, url, response -> readObservations(station, response));
   }
 
   /**
@@ -54,61 +79,40 @@ public class WeatherObservations {
    * @return the weather {@code Observations} found
    */
   public static Observations getWeatherObservations(String region, int gridX, int gridY, double lat, double lon) throws ConnectException {
-    // get the nearset weather station to the latitude and longitude given
-    String station = WeatherStations.getNearestStation(region, gridX, gridY, lat, lon);
-
-    // form api request
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/stations/" + station + "/observations/latest"))
-        .build();
-    HttpResponse<String> response = null;
-
-    // send the request, fail gracefully if needed
-    try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-    } catch (ConnectException ce) {
-      throw new ConnectException("Failed to connect to the internet");
-    } catch (Exception e) {
-      e.printStackTrace();
-    }
-
-    // parse the response body into an object
-    ObservationJson r = getObject(response.body());
-    if (r == null) {
-      System.err.println("Failed to parse JSon");
-      return null;
-    }
-
-    return r.properties;
+    return Futures.await(getWeatherObservationsAsync(region, gridX, gridY, lat, lon));
   }
 
   /**
-   * parse a json string into a {@code Root} object
+   * stream an observation response into its {@code Observations}
    *
-   * @param json the json to parse in string form
-   * @return the {@code Root} object parsed
+   * @return the observations, or {@code null} if the response was bad
    */
-  @SuppressWarnings("unused")
-  public static ObservationJson getObject(String json) {
-    ObjectMapper om = new ObjectMapper();
-    ObservationJson toRet = null;
-    try {
-      toRet = om.readValue(json, ObservationJson.class);
-      Observations p = toRet.properties;
+  private static Observations readObservations(String station, NwsResponse response) {
+    // if a bad status code was recieved, fail gracefully, log to system err
+    if (!response.isSuccess()) {
+      System.err.println("Response was: " + response.toString());
+      return null;
+    }
 
-    } catch (JsonProcessingException e) {
+    // decode the body without building a string from it
+    try (InputStream body = response.bodyStream()) {
+      return Tracing.decode("Observations", station, response.body.length, () -> decode(body));
+    } catch (IOException | UncheckedIOException e) {
       e.printStackTrace();
+      System.err.println("Failed to parse JSon");
+      return null;
     }
-    return toRet;
-
   }
 
   /**
-   * Root of data for a weather observation.
-   * return properties for use
+   * decode observations, rethrowing failures unchecked so it can run inside
+   * {@code Tracing.decode}
    */
-  @JsonIgnoreProperties(ignoreUnknown = true)
-  private static class ObservationJson {
-    public Observations properties;
+  private static Observations decode(InputStream body) {
+    try {
+      return ObservationDecoder.decode(body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 }
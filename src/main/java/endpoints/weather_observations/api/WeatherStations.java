@@ -1,17 +1,19 @@
 package endpoints.weather_observations.api;
 
 import java.net.ConnectException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import endpoints.transport.Futures;
+import endpoints.transport.NwsResponse;
+import endpoints.transport.NwsTransport;
 import endpoints.weather_observations.data.Stations;
+import tracing.Tracing;
 
 /**
  * Used for getting weather stations statically.
@@ -23,7 +25,8 @@ import endpoints.weather_observations.data.Stations;
  */
 public class WeatherStations {
   /**
-   * Find the nearest weather station in a grid to latitude and longitude points
+   * Find the nearest weather station in a grid to latitude and longitude points,
+   * by great circle distance
    *
    * @param region the weather region. typically found from a
    *               {@code my_weather.gridPoint} object
@@ -35,30 +38,31 @@ public class WeatherStations {
    */
   public static String getNearestStation(String region, int gridX, int gridY, double lat, double lon)
       throws ConnectException {
-    // get all stations for the grid point
-    ArrayList<Stations> features = getStations(region, gridX, gridY);
-
-    double minDist = Double.MAX_VALUE;
-    String id = "NO_STATIONS";
-
-    if (features == null) {
-      return id;
-    }
-
-    // calculate the closest station to lat and lon
-    double dist, distLat, distLon;
-    for (Stations feature : features) {
-      distLat = feature.geometry.coordinates.getFirst() - lat;
-      distLon = feature.geometry.coordinates.getLast() - lon;
-      dist = Math.pow(distLat * distLat + distLon * distLon, .5);
-
-      if (dist < minDist) {
-        minDist = dist;
-        id = feature.properties.stationIdentifier;
-      }
+    // the stations of the grid point are downloaded once and kept indexed
+    List<String> nearest = StationCatalog.getDefault().nearest(region, gridX, gridY, lat, lon, 1);
+    if (nearest.isEmpty()) {
+      return "NO_STATIONS";
     }
+    return nearest.getFirst();
+  }
 
-    return id;
+  /**
+   * asynchronously get all stations for a given region and grid point
+   *
+   * @param region the weather region. typically found from a
+   *               {@code my_weather.gridPoint} object
+   * @param gridX  the x value for the grid point found similarly to above.
+   * @param gridY  the y value for the grid point found similarly to above.
+   * @return a {@code CompletableFuture} of a list of stations stored by their
+   *         {@code Features}
+   */
+  public static CompletableFuture<ArrayList<Stations>> getStationsAsync(String region, int gridX,
+      int gridY) {
+    // form API request
+    String url = NwsTransport.baseUrl() + "/gridpoints/" + region + "/" + String.valueOf(gridX)
+        + "," + String.valueOf(gridY) + "/stations";
+    String location = region + "/" + gridX + "," + gridY;
+    return Tracing.endpoint("stations", location, url, response -> readStations(location, response));
   }
 
   /**
@@ -71,24 +75,24 @@ public class WeatherStations {
    * @return a list of stations stored by their {@code Features}
    */
   public static ArrayList<Stations> getStations(String region, int gridX, int gridY) throws ConnectException {
-    // form API request
-    HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/gridpoints/" + region + "/" + String.valueOf(gridX)
-            + "," + String.valueOf(gridY) + "/stations"))
-        .build();
-    HttpResponse<String> response = null;
+    return Futures.await(getStationsAsync(region, gridX, gridY));
+  }
 
-    // send the request, fail gracefully if needed
-    try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
-    } catch (ConnectException ce) {
-      throw new ConnectException("Failed to connect to the internet");
-    } catch (Exception e) {
-      e.printStackTrace();
+  /**
+   * read a stations response into a list of stations
+   *
+   * @return the stations, or {@code null} if the response was bad
+   */
+  private static ArrayList<Stations> readStations(String location, NwsResponse response) {
+    // if a bad status code was recieved, fail gracefully, log to system err
+    if (!response.isSuccess()) {
+      System.err.println("Response was: " + response.toString());
+      return null;
     }
 
     // parse the response body into an object
-    StationJson r = getObject(response.body());
+    StationJson r = Tracing.decode("StationJson", location, response.body.length,
+        () -> getObject(response.bodyAsString()));
     if (r == null) {
       System.err.println("Failed to parse JSon");
       return null;
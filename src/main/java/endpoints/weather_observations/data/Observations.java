@@ -1,77 +1,117 @@
 package endpoints.weather_observations.data;
 
-import views.util.UnitHandler;
 import views.util.UnitHandler.TemperatureUnit;
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
-@JsonIgnoreProperties(ignoreUnknown = true)
-  public class Observations {
-    public WindGust windGust;
-    public BarometricPressure barometricPressure;
-    public SeaLevelPressure seaLevelPressure;
-    public Visibility visibility;
-    public WindChill windChill;
-    public HeatIndex heatIndex;
-    public WindSpeed windSpeed;
-    public WindDirection windDirection;
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class BarometricPressure {
-      public Double value;
-      public String unitCode;
-    }
-    
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class HeatIndex {
-      public Double value;
-      public String unitCode;
-    }
+/**
+ * The latest observations of a weather station.
+ * Typically created by use of {@code WeatherObservations}
+ *
+ * Every quantity is a primitive {@code double}, NaN if the station did not
+ * report it, next to the {@code Unit} it was reported in. one observation is
+ * a single object, so holding many of them stays cheap.
+ */
+public class Observations {
+  // when the observation was made, in epoch seconds
+  public long timestamp;
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class SeaLevelPressure {
-      public Double value;
-      public String unitCode;
-    }
+  public double windGust = Double.NaN;
+  public double barometricPressure = Double.NaN;
+  public double seaLevelPressure = Double.NaN;
+  public double visibility = Double.NaN;
+  public double windChill = Double.NaN;
+  public double heatIndex = Double.NaN;
+  public double windSpeed = Double.NaN;
+  public double windDirection = Double.NaN;
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class Visibility {
-      public Double value;
-      public String unitCode;
-    }
+  public Unit windGustUnit = Unit.Unknown;
+  public Unit barometricPressureUnit = Unit.Unknown;
+  public Unit seaLevelPressureUnit = Unit.Unknown;
+  public Unit visibilityUnit = Unit.Unknown;
+  public Unit windChillUnit = Unit.Unknown;
+  public Unit heatIndexUnit = Unit.Unknown;
+  public Unit windSpeedUnit = Unit.Unknown;
+  public Unit windDirectionUnit = Unit.Unknown;
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class WindSpeed {
-      public Double value;
-      public String unitCode;
+  /**
+   * The WMO unit a quantity is given in
+   */
+  public enum Unit {
+    KilometersPerHour("wmoUnit:km_h-1"),
+    MetersPerSecond("wmoUnit:m_s-1"),
+    Pascals("wmoUnit:Pa"),
+    Meters("wmoUnit:m"),
+    Celsius("wmoUnit:degC"),
+    Degrees("wmoUnit:degree_(angle)"),
+    Percent("wmoUnit:percent"),
+    Unknown(null);
 
-      /**
-       * gives the windspeed in mph instead of kmph
-       */
-      public Double mph() {
-        return value * 0.621371;
-      }
+    private static final Unit[] known = values();
+
+    public final String code;
+
+    Unit(String code) {
+      this.code = code;
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class WindChill {
-      public Double value;
-      public String unitCode;
+    /**
+     * get the unit of a unit code like {@code wmoUnit:km_h-1}
+     *
+     * @param text   the characters holding the unit code
+     * @param offset where the unit code starts
+     * @param length how many characters it is
+     * @return the {@code Unit}, {@code Unknown} if it is not one of these
+     */
+    public static Unit of(char[] text, int offset, int length) {
+      for (Unit unit : known) {
+        if (unit.code == null || unit.code.length() != length) {
+          continue;
+        }
 
-      public Double getTemperature() {
-        if (UnitHandler.getUnit() == TemperatureUnit.Celsius) return value;
-        return (value * 9. / 5.) + 32;
+        int i = 0;
+        while (i < length && unit.code.charAt(i) == text[offset + i]) {
+          i++;
+        }
+        if (i == length) {
+          return unit;
+        }
       }
+      return Unknown;
     }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class WindGust {
-      public Double value;
-      public String unitCode;
+    /**
+     * @see {@code of(char[], int, int)}
+     */
+    public static Unit of(String code) {
+      return code == null ? Unknown : of(code.toCharArray(), 0, code.length());
     }
+  }
+
+  /**
+   * get the wind speed in mph
+   *
+   * @return the wind speed, NaN if it was not reported or its unit is unknown
+   */
+  public double windSpeedMph() {
+    switch (windSpeedUnit) {
+      case KilometersPerHour:
+        return windSpeed * 0.621371;
+      case MetersPerSecond:
+        return windSpeed * 2.236936;
+      default:
+        return Double.NaN;
+    }
+  }
 
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    public class WindDirection {
-      public Double value;
-      public String unitCode;
+  /**
+   * get the wind chill in a given unit
+   *
+   * @param unit the unit to give the temperature in
+   * @return the wind chill, NaN if it was not reported
+   */
+  public double windChill(TemperatureUnit unit) {
+    if (unit == TemperatureUnit.Celsius) {
+      return windChill;
     }
+    return (windChill * 9. / 5.) + 32;
   }
+}
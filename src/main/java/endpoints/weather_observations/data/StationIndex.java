@@ -0,0 +1,227 @@
+package endpoints.weather_observations.data;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * A k-d tree over the positions of weather stations, answering nearest
+ * station queries by great circle (haversine) distance.
+ *
+ * The tree is stored implicitly: the stations are reordered so the node of
+ * any range is its middle element, splitting on latitude at even depths and
+ * longitude at odd depths.
+ * Typically created by use of {@code StationCatalog}
+ */
+public class StationIndex {
+  public static final double EARTH_RADIUS_KM = 6371.0088;
+
+  private final String[] ids;
+  // positions in radians
+  private final double[] lat, lon;
+
+  /**
+   * build an index over a list of station features. stations without a
+   * position are left out.
+   *
+   * @param stations the stations, as returned by {@code WeatherStations}
+   */
+  public StationIndex(List<Stations> stations) {
+    ArrayList<Stations> valid = new ArrayList<>();
+    for (Stations station : stations) {
+      if (station.geometry != null && station.geometry.coordinates != null
+          && station.geometry.coordinates.size() >= 2 && station.properties != null) {
+        valid.add(station);
+      }
+    }
+
+    int n = valid.size();
+    ids = new String[n];
+    lat = new double[n];
+    lon = new double[n];
+    for (int i = 0; i < n; i++) {
+      Stations station = valid.get(i);
+      // GeoJSON positions are longitude first
+      ids[i] = station.properties.stationIdentifier;
+      lon[i] = Math.toRadians(station.geometry.coordinates.get(0));
+      lat[i] = Math.toRadians(station.geometry.coordinates.get(1));
+    }
+
+    build(0, n, 0);
+  }
+
+  /**
+   * @return the number of stations in the index
+   */
+  public int size() {
+    return ids.length;
+  }
+
+  /**
+   * find the station closest to a position
+   *
+   * @param latDeg the latitude, in degrees
+   * @param lonDeg the longitude, in degrees
+   * @return the station identifier, or {@code null} if the index is empty
+   */
+  public String nearest(double latDeg, double lonDeg) {
+    List<String> found = nearest(latDeg, lonDeg, 1);
+    return found.isEmpty() ? null : found.getFirst();
+  }
+
+  /**
+   * find the {@code k} stations closest to a position
+   *
+   * @param latDeg the latitude, in degrees
+   * @param lonDeg the longitude, in degrees
+   * @param k      how many stations to find
+   * @return the station identifiers, closest first
+   */
+  public List<String> nearest(double latDeg, double lonDeg, int k) {
+    double qlat = Math.toRadians(latDeg), qlon = Math.toRadians(lonDeg);
+
+    // the k best so far, farthest on top. distances are kept as central angles
+    PriorityQueue<double[]> best = new PriorityQueue<>(
+        Comparator.comparingDouble((double[] e) -> e[0]).reversed());
+    search(0, ids.length, 0, qlat, qlon, Math.max(1, k), best);
+
+    ArrayList<String> result = new ArrayList<>(best.size());
+    while (!best.isEmpty()) {
+      result.add(ids[(int) best.poll()[1]]);
+    }
+    return result.reversed();
+  }
+
+  /**
+   * great circle distance between two positions
+   *
+   * @return the distance in kilometers
+   */
+  public static double haversineKm(double lat1Deg, double lon1Deg, double lat2Deg, double lon2Deg) {
+    return EARTH_RADIUS_KM * angle(Math.toRadians(lat1Deg), Math.toRadians(lon1Deg),
+        Math.toRadians(lat2Deg), Math.toRadians(lon2Deg));
+  }
+
+  /**
+   * central angle between two positions given in radians
+   */
+  private static double angle(double lat1, double lon1, double lat2, double lon2) {
+    double sinLat = Math.sin((lat2 - lat1) / 2);
+    double sinLon = Math.sin((lon2 - lon1) / 2);
+    double h = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+    return 2 * Math.asin(Math.min(1, Math.sqrt(h)));
+  }
+
+  /**
+   * a lower bound on the central angle from a position to anything on the
+   * other side of a splitting line
+   */
+  private static double planeBound(int axis, double qlat, double qlon, double split) {
+    if (axis == 0) {
+      // along a meridian, latitude difference is exact
+      return Math.abs(qlat - split);
+    }
+    // the other side reaches from the split to the antimeridian, and the
+    // antimeridian may be the nearer way around
+    double dlon = qlon < split
+        ? Math.min(split - qlon, qlon + Math.PI)
+        : Math.min(qlon - split, Math.PI - qlon);
+    if (dlon >= Math.PI / 2) {
+      return 0;
+    }
+    // distance to the meridian's great circle
+    return Math.asin(Math.min(1, Math.sin(dlon) * Math.cos(qlat)));
+  }
+
+  /**
+   * order the range so its middle element splits it on {@code axis}
+   */
+  private void build(int lo, int hi, int depth) {
+    if (hi - lo <= 1) {
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    select(lo, hi - 1, mid, depth & 1);
+    build(lo, mid, depth + 1);
+    build(mid + 1, hi, depth + 1);
+  }
+
+  /**
+   * quickselect, placing the {@code k}th smallest element on {@code axis} at
+   * {@code k}
+   */
+  private void select(int lo, int hi, int k, int axis) {
+    double[] key = axis == 0 ? lat : lon;
+    while (lo < hi) {
+      double pivot = key[(lo + hi) >>> 1];
+      int i = lo, j = hi;
+      while (i <= j) {
+        while (key[i] < pivot)
+          i++;
+        while (key[j] > pivot)
+          j--;
+        if (i <= j) {
+          swap(i++, j--);
+        }
+      }
+      if (k <= j) {
+        hi = j;
+      } else if (k >= i) {
+        lo = i;
+      } else {
+        return;
+      }
+    }
+  }
+
+  private void swap(int a, int b) {
+    String id = ids[a];
+    ids[a] = ids[b];
+    ids[b] = id;
+    double t = lat[a];
+    lat[a] = lat[b];
+    lat[b] = t;
+    t = lon[a];
+    lon[a] = lon[b];
+    lon[b] = t;
+  }
+
+  /**
+   * branch and bound search of the range, visiting the side of the split the
+   * position is on first
+   */
+  private void search(int lo, int hi, int depth, double qlat, double qlon, int k,
+      PriorityQueue<double[]> best) {
+    if (lo >= hi) {
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    int axis = depth & 1;
+
+    double d = angle(qlat, qlon, lat[mid], lon[mid]);
+    if (best.size() < k) {
+      best.add(new double[] { d, mid });
+    } else if (d < best.peek()[0]) {
+      best.poll();
+      best.add(new double[] { d, mid });
+    }
+
+    double split = axis == 0 ? lat[mid] : lon[mid];
+    boolean below = (axis == 0 ? qlat : qlon) < split;
+    if (below) {
+      search(lo, mid, depth + 1, qlat, qlon, k, best);
+    } else {
+      search(mid + 1, hi, depth + 1, qlat, qlon, k, best);
+    }
+
+    // only cross the split if something there could still be closer
+    if (best.size() < k || planeBound(axis, qlat, qlon, split) < best.peek()[0]) {
+      if (below) {
+        search(mid + 1, hi, depth + 1, qlat, qlon, k, best);
+      } else {
+        search(lo, mid, depth + 1, qlat, qlon, k, best);
+      }
+    }
+  }
+}
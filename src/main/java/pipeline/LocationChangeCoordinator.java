@@ -0,0 +1,155 @@
+package pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import endpoints.transport.Futures;
+import views.util.LocationChangeData;
+
+/**
+ * Makes sure only the newest location change reaches the screen.
+ *
+ * Every change gets a generation number. Starting a change cancels the one
+ * before it, which cancels whatever requests it still had running, and a
+ * change that has been superseded is never current again, so its result is
+ * dropped even if it was already on its way to the JavaFX thread.
+ *
+ * typical usage:
+ * - {@code start} a change
+ * - when its future completes, check {@code isCurrent} on the JavaFX thread
+ *   before touching any scene
+ */
+public class LocationChangeCoordinator {
+  /**
+   * Starts loading a location, {@code LocationLoader.load} by default
+   */
+  @FunctionalInterface
+  public interface Loader {
+    CompletableFuture<LocationChangeData> load(double lat, double lon, String name);
+  }
+
+  /**
+   * One location change
+   */
+  public static class Change {
+    public final long generation;
+    public final CompletableFuture<LocationChangeData> future;
+
+    Change(long generation, CompletableFuture<LocationChangeData> future) {
+      this.generation = generation;
+      this.future = future;
+    }
+  }
+
+  private final Loader loader;
+  private final AtomicLong generations = new AtomicLong();
+  private final AtomicLong superseded = new AtomicLong();
+  private Change current;
+
+  /**
+   * create a coordinator that loads through {@code LocationLoader}
+   */
+  public LocationChangeCoordinator() {
+    this(LocationLoader::load);
+  }
+
+  /**
+   * create a coordinator
+   *
+   * @param loader starts loading a location
+   */
+  public LocationChangeCoordinator(Loader loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * start loading a location, cancelling the change in flight, if any
+   *
+   * @param lat  the latitude of the location
+   * @param lon  the longitude of the location
+   * @param name the name to show for the location, or {@code null}
+   * @return the new {@code Change}. a superseded change's future is cancelled
+   */
+  public Change start(double lat, double lon, String name) {
+    Change previous;
+    Change next;
+    synchronized (this) {
+      previous = current;
+      // bump the generation first, so the old change is stale before it is
+      // cancelled and its handlers run
+      long generation = generations.incrementAndGet();
+      next = new Change(generation, new CompletableFuture<>());
+      current = next;
+    }
+
+    if (previous != null && previous.future.cancel(true)) {
+      superseded.incrementAndGet();
+    }
+
+    // start loading outside the lock, the loader may run for a while before it
+    // returns its future
+    CompletableFuture<LocationChangeData> load;
+    try {
+      load = loader.load(lat, lon, name);
+    } catch (RuntimeException e) {
+      next.future.completeExceptionally(e);
+      return next;
+    }
+
+    // cancelling the change cancels the load, down to its requests
+    Futures.propagateCancel(next.future, load);
+    load.whenComplete((data, error) -> {
+      if (error != null) {
+        next.future.completeExceptionally(error);
+      } else {
+        next.future.complete(data);
+      }
+    });
+    return next;
+  }
+
+  /**
+   * check whether a change is still the newest one. call this on the thread
+   * that applies the result, right before applying it
+   *
+   * @param change the change to check
+   * @return {@code true} if no change was started after it
+   */
+  public boolean isCurrent(Change change) {
+    return change.generation == generations.get();
+  }
+
+  /**
+   * check whether no change is loading, so a background refresh would not
+   * supersede one the user asked for
+   *
+   * @return {@code true} if every change started has completed
+   */
+  public synchronized boolean isIdle() {
+    return current == null || current.future.isDone();
+  }
+
+  /**
+   * cancel the change in flight, if any
+   */
+  public void cancel() {
+    Change previous;
+    synchronized (this) {
+      previous = current;
+    }
+    if (previous != null) {
+      previous.future.cancel(true);
+    }
+  }
+
+  /**
+   * get how many changes were started and how many of them were cancelled by
+   * a newer one
+   *
+   * @return a {@code long} array of size two in the format of {started,
+   *         superseded}
+   */
+  public long[] getStats() {
+    return new long[] { generations.get(), superseded.get() };
+  }
+}
@@ -0,0 +1,118 @@
+package pipeline;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.my_weather.data.HourlyPeriod;
+import endpoints.transport.Futures;
+import endpoints.weather_observations.api.WeatherObservations;
+import endpoints.weather_observations.data.Observations;
+import tracing.LocationLoadEvent;
+import tracing.Tracing;
+import views.util.LocationChangeData;
+import views.util.LocationChangeData.DetailedForecasts;
+
+/**
+ * Loads everything the weather scenes need for a location.
+ * likely should not be instantiated.
+ *
+ * The grid point is resolved first, then the hourly forecast, the detailed
+ * forecast and the observations are fetched in parallel, so a load costs two
+ * round trips instead of one per request. Nothing here blocks, and the time
+ * each stage took is logged.
+ *
+ * Used both on startup and by {@code JavaFX.changeLocation}
+ */
+public class LocationLoader {
+  // each stage gives up after this long
+  public static final long STAGE_TIMEOUT_SECONDS = 10;
+
+  /**
+   * load the data for a location
+   *
+   * @param lat  the latitude of the location
+   * @param lon  the longitude of the location
+   * @param name the name to show for the location, or {@code null} to use the
+   *             grid point's location
+   * @return a {@code CompletableFuture} of the {@code LocationChangeData}.
+   *         cancelling it cancels any request still running
+   */
+  public static CompletableFuture<LocationChangeData> load(double lat, double lon, String name) {
+    long start = System.nanoTime();
+    LocationLoadEvent event = new LocationLoadEvent();
+    event.begin();
+
+    CompletableFuture<GridPoint> pointFuture = timed("gridpoint", start,
+        MyWeatherAPI.getGridPointAsync(lat, lon)).orTimeout(STAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+    CompletableFuture<LocationChangeData> result = Futures.chain(pointFuture, point -> {
+      if (point == null) {
+        throw new RuntimeException("National Weather Service does not have data for this location");
+      }
+
+      // fan out every request that only needs the grid point
+      long fanOut = System.nanoTime();
+      CompletableFuture<ArrayList<HourlyPeriod>> periodFuture = timed("hourly", fanOut,
+          MyWeatherAPI.getHourlyForecastAsync(point.region, point.gridX, point.gridY));
+      CompletableFuture<Observations> observationFuture = timed("observations", fanOut,
+          WeatherObservations.getWeatherObservationsAsync(point.region, point.gridX, point.gridY, lat, lon));
+      CompletableFuture<DetailedForecasts> detailedFuture = timed("detailed", fanOut,
+          MyWeatherAPI.getForecastAsync(point.region, point.gridX, point.gridY));
+
+      CompletableFuture<LocationChangeData> combined = CompletableFuture
+          .allOf(periodFuture, observationFuture, detailedFuture)
+          .thenApply(v -> {
+            ArrayList<HourlyPeriod> periods = periodFuture.join();
+            Observations observations = observationFuture.join();
+            if (periods == null || observations == null) {
+              throw new RuntimeException(
+                  "Sorry, the National Weather Service does not provide data for " + point.location);
+            }
+            return new LocationChangeData(periods, observations, point, name, detailedFuture.join());
+          });
+
+      // give up on every request at once
+      Futures.propagateCancel(combined, periodFuture);
+      Futures.propagateCancel(combined, observationFuture);
+      Futures.propagateCancel(combined, detailedFuture);
+      return combined.orTimeout(STAGE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    });
+
+    result.whenComplete((data, error) -> {
+      event.end();
+      if (event.shouldCommit()) {
+        event.location = name != null ? name : data != null ? data.point.location : null;
+        event.latitude = lat;
+        event.longitude = lon;
+        event.succeeded = error == null;
+        event.commit();
+      }
+      if (Tracing.STATS) {
+        System.out.println(String.format("Load: total %dms%s", elapsedMillis(start),
+            error == null ? "" : " (failed)"));
+      }
+    });
+    return result;
+  }
+
+  /**
+   * log how long a stage took once it completes, with {@code -Dweatherfx.stats}
+   */
+  private static <T> CompletableFuture<T> timed(String stage, long start, CompletableFuture<T> future) {
+    if (!Tracing.STATS) {
+      return future;
+    }
+    future.whenComplete((value, error) -> {
+      System.out.println(String.format("Load: %s %dms%s", stage, elapsedMillis(start),
+          error == null ? "" : " (failed)"));
+    });
+    return future;
+  }
+
+  private static long elapsedMillis(long start) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,143 @@
+package services.batch;
+
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import views.util.CityData;
+import views.util.CityData.City;
+
+/**
+ * Command line entry point of the batch engine.
+ *
+ * usage: {@code BatchCli [--input FILE] [--city NAME]... [--format ndjson|csv]
+ * [--concurrency N] [--hours N] [--output FILE]}
+ *
+ * each line of the input is {@code lat,lon[,name]} or the display name of a
+ * city, like {@code Chicago, IL}. blank lines and lines starting with
+ * {@code #} are skipped. results stream to the output, stdout by default, and
+ * the report goes to stderr
+ */
+public class BatchCli {
+  private static final String USAGE = "usage: BatchCli [--input FILE] [--city NAME]... [--format ndjson|csv]"
+      + " [--concurrency N] [--hours N] [--output FILE]";
+
+  public static void main(String[] args) throws Exception {
+    // results own stdout, anything else printed along the way goes to stderr
+    PrintStream stdout = System.out;
+    System.setOut(System.err);
+
+    List<String> lines = new ArrayList<>();
+    String format = "ndjson";
+    String output = null;
+    int concurrency = BatchEngine.DEFAULT_CONCURRENCY;
+    int hours = 24;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--input":
+            lines.addAll(Files.readAllLines(Path.of(args[++i]), StandardCharsets.UTF_8));
+            break;
+          case "--city":
+            lines.add(args[++i]);
+            break;
+          case "--format":
+            format = args[++i];
+            break;
+          case "--concurrency":
+            concurrency = Integer.parseInt(args[++i]);
+            break;
+          case "--hours":
+            hours = Integer.parseInt(args[++i]);
+            break;
+          case "--output":
+            output = args[++i];
+            break;
+          default:
+            System.err.println("Unknown option " + args[i]);
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+
+    List<BatchSite> sites = parseSites(lines);
+    if (sites.isEmpty()) {
+      System.err.println("No locations to forecast");
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+
+    OutputStream out = output == null ? stdout : new FileOutputStream(output);
+    BatchReport report;
+    try (ResultWriter writer = ResultWriter.forFormat(format, out, hours)) {
+      report = new BatchEngine().withConcurrency(concurrency).run(sites, writer);
+    } catch (UncheckedIOException e) {
+      System.err.println("Failed to write results: " + e.getCause().getMessage());
+      System.exit(1);
+      return;
+    } finally {
+      if (out != stdout) {
+        out.close();
+      }
+    }
+
+    System.err.println(report);
+    System.exit(report.failed == 0 ? 0 : 1);
+  }
+
+  /**
+   * turn input lines into sites, looking up anything that is not a
+   * {@code lat,lon} pair as a city
+   *
+   * @param lines the input lines
+   * @return the sites, in input order. lines that match nothing are reported
+   *         to stderr and skipped
+   */
+  public static List<BatchSite> parseSites(List<String> lines) {
+    List<BatchSite> sites = new ArrayList<>();
+    List<City> cities = null;
+
+    for (String line : lines) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+
+      BatchSite site = BatchSite.parse(line);
+      if (site == null) {
+        // only load the city list when something needs it
+        if (cities == null) {
+          cities = new CityData().getCityList();
+        }
+        site = findCity(cities, line);
+      }
+
+      if (site == null) {
+        System.err.println("Skipping unknown location " + line);
+        continue;
+      }
+      sites.add(site);
+    }
+    return sites;
+  }
+
+  private static BatchSite findCity(List<City> cities, String name) {
+    for (City city : cities) {
+      if (city.display.equalsIgnoreCase(name)) {
+        return BatchSite.of(city);
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,191 @@
+package services.batch;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import endpoints.my_weather.api.GridPointResolver;
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.transport.EndpointExecutor;
+import endpoints.transport.Priority;
+import endpoints.weather_observations.api.StationCatalog;
+import endpoints.weather_observations.api.WeatherObservations;
+import endpoints.weather_observations.data.Observations;
+import endpoints.weather_observations.data.StationIndex;
+import services.metrics.LatencyHistogram;
+
+/**
+ * Forecasts many locations without the UI.
+ *
+ * Each site resolves its grid point, then the hourly forecast of its cell and
+ * the latest observations of its nearest station. Many sites share a cell or
+ * a station, so each distinct position, cell and station is only fetched once
+ * per batch, however many sites need it.
+ *
+ * At most {@code concurrency} sites are in flight at once, each on its own
+ * virtual thread, and every request is sent at {@code Priority.Bulk} unless
+ * configured otherwise, so a batch never crowds out the UI.
+ *
+ * typical usage:
+ * - {@code new BatchEngine().withConcurrency(32)}
+ * - {@code run(sites, result -> ...)}, which returns a {@code BatchReport}
+ */
+public class BatchEngine {
+  public static final int DEFAULT_CONCURRENCY = 16;
+
+  // stage names, in the order a site goes through them
+  public static final String GRIDPOINT = "gridpoint";
+  public static final String HOURLY = "hourly";
+  public static final String STATIONS = "stations";
+  public static final String OBSERVATIONS = "observations";
+  public static final String TOTAL = "total";
+
+  private int concurrency = DEFAULT_CONCURRENCY;
+  private Priority priority = Priority.Bulk;
+
+  public BatchEngine() {
+  }
+
+  /**
+   * Build an engine that works on at most {@code concurrency} sites at once
+   */
+  public BatchEngine withConcurrency(int concurrency) {
+    this.concurrency = Math.max(1, concurrency);
+    return this;
+  }
+
+  /**
+   * Build an engine that sends its requests at {@code priority}
+   */
+  public BatchEngine withPriority(Priority priority) {
+    this.priority = priority;
+    return this;
+  }
+
+  /**
+   * The requests shared by the sites of one run
+   */
+  private static class Run {
+    final ConcurrentHashMap<String, CompletableFuture<GridPoint>> points = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, CompletableFuture<ForecastSeries>> hourly = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, CompletableFuture<StationIndex>> stations = new ConcurrentHashMap<>();
+    final ConcurrentHashMap<String, CompletableFuture<Observations>> observations = new ConcurrentHashMap<>();
+    final Map<String, LatencyHistogram> stages = new LinkedHashMap<>();
+
+    Run() {
+      for (String stage : new String[] { GRIDPOINT, HOURLY, STATIONS, OBSERVATIONS, TOTAL }) {
+        stages.put(stage, new LatencyHistogram());
+      }
+    }
+  }
+
+  /**
+   * forecast every site, handing each result to {@code sink} as soon as it is
+   * ready. blocks until every site is done
+   *
+   * @param sites the locations to forecast
+   * @param sink  receives each {@code BatchResult}, in completion order. it is
+   *              called from one thread at a time
+   * @return a {@code BatchReport} of the run
+   */
+  public BatchReport run(List<BatchSite> sites, Consumer<BatchResult> sink) throws InterruptedException {
+    long start = System.nanoTime();
+    Run run = new Run();
+    Semaphore permits = new Semaphore(concurrency);
+    AtomicInteger succeeded = new AtomicInteger();
+    Object sinkLock = new Object();
+
+    try (ExecutorService executor = EndpointExecutor.virtual()) {
+      for (int i = 0; i < sites.size(); i++) {
+        permits.acquire();
+        int index = i;
+        executor.execute(() -> {
+          try {
+            BatchResult result = Priority.with(priority, () -> forecast(run, index, sites.get(index)));
+            if (result.isSuccess()) {
+              succeeded.incrementAndGet();
+            }
+            synchronized (sinkLock) {
+              sink.accept(result);
+            }
+          } finally {
+            permits.release();
+          }
+        });
+      }
+    }
+
+    long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    return new BatchReport(sites.size(), succeeded.get(), sites.size() - succeeded.get(),
+        run.hourly.size(), run.observations.size(), elapsed, run.stages);
+  }
+
+  /**
+   * forecast one site, sharing requests with the rest of the run
+   */
+  private static BatchResult forecast(Run run, int index, BatchSite site) {
+    long start = System.nanoTime();
+    BatchResult result = new BatchResult(index, site);
+    try {
+      // sites within a few meters of each other share their grid point
+      String position = GridPointResolver.quantize(site.lat) + "," + GridPointResolver.quantize(site.lon);
+      result.point = stage(run, GRIDPOINT, run.points, position,
+          () -> MyWeatherAPI.getGridPointAsync(site.lat, site.lon));
+      if (result.point == null) {
+        result.error = "National Weather Service does not have data for this location";
+        return result;
+      }
+
+      GridPoint point = result.point;
+      String cell = point.region + "/" + point.gridX + "," + point.gridY;
+      result.hourly = stage(run, HOURLY, run.hourly, cell,
+          () -> MyWeatherAPI.getHourlySeriesAsync(point.region, point.gridX, point.gridY));
+      if (result.hourly == null) {
+        result.error = "No hourly forecast for " + cell;
+        return result;
+      }
+
+      StationIndex stations = stage(run, STATIONS, run.stations, cell,
+          () -> StationCatalog.getDefault().getAsync(point.region, point.gridX, point.gridY));
+      result.station = stations == null ? null : stations.nearest(site.lat, site.lon);
+
+      // a site is still useful without observations
+      if (result.station != null) {
+        String station = result.station;
+        result.observations = stage(run, OBSERVATIONS, run.observations, station,
+            () -> WeatherObservations.getStationObservationsAsync(station));
+      }
+    } catch (RuntimeException e) {
+      Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+      result.error = cause.getMessage() == null ? cause.toString() : cause.getMessage();
+    } finally {
+      run.stages.get(TOTAL).recordSince(start);
+    }
+    return result;
+  }
+
+  /**
+   * wait on the shared request for {@code key}, starting it if this is the
+   * first site to need it, and record how long the wait took
+   */
+  private static <T> T stage(Run run, String stage, ConcurrentHashMap<String, CompletableFuture<T>> shared,
+      String key, Supplier<CompletableFuture<T>> request) {
+    long start = System.nanoTime();
+    try {
+      return shared.computeIfAbsent(key, k -> request.get()).join();
+    } finally {
+      run.stages.get(stage).recordSince(start);
+    }
+  }
+}
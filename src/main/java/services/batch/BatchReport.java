@@ -0,0 +1,48 @@
+package services.batch;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import services.metrics.LatencyHistogram;
+
+/**
+ * How a batch went: counts, throughput and the latency of each stage.
+ * Typically created by {@code BatchEngine.run}
+ */
+public class BatchReport {
+  public final int sites, succeeded, failed;
+  // distinct grid cells and stations the sites came down to
+  public final int cells, stations;
+  public final long elapsedMillis;
+  // stage name to the time sites spent in it, in stage order
+  public final Map<String, LatencyHistogram> stages;
+
+  public BatchReport(int sites, int succeeded, int failed, int cells, int stations, long elapsedMillis,
+      Map<String, LatencyHistogram> stages) {
+    this.sites = sites;
+    this.succeeded = succeeded;
+    this.failed = failed;
+    this.cells = cells;
+    this.stations = stations;
+    this.elapsedMillis = elapsedMillis;
+    this.stages = new LinkedHashMap<>(stages);
+  }
+
+  /**
+   * @return locations finished per second, failed or not
+   */
+  public double throughput() {
+    if (elapsedMillis == 0)
+      return 0;
+    return sites * 1000.0 / elapsedMillis;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder s = new StringBuilder(String.format(
+        "sites=%d ok=%d failed=%d cells=%d stations=%d elapsed=%dms throughput=%.1f locations/s",
+        sites, succeeded, failed, cells, stations, elapsedMillis, throughput()));
+    stages.forEach((stage, histogram) -> s.append("\n  ").append(stage).append(": ").append(histogram));
+    return s.toString();
+  }
+}
@@ -0,0 +1,36 @@
+package services.batch;
+
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.weather_observations.data.Observations;
+
+/**
+ * The forecast and observations found for one {@code BatchSite}.
+ * Typically created by {@code BatchEngine}
+ */
+public class BatchResult {
+  // position of the site in the input, results arrive in completion order
+  public final int index;
+  public final BatchSite site;
+
+  // any of these may be null when the site failed
+  public GridPoint point;
+  public String station;
+  public ForecastSeries hourly;
+  public Observations observations;
+
+  // why the site failed, null if it did not
+  public String error;
+
+  public BatchResult(int index, BatchSite site) {
+    this.index = index;
+    this.site = site;
+  }
+
+  /**
+   * @return {@code true} if the site has a forecast
+   */
+  public boolean isSuccess() {
+    return error == null;
+  }
+}
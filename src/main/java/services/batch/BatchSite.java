@@ -0,0 +1,55 @@
+package services.batch;
+
+import views.util.CityData.City;
+
+/**
+ * One location to forecast in a batch
+ */
+public class BatchSite {
+  public final double lat, lon;
+  // the name to report the site under, may be null
+  public final String name;
+
+  public BatchSite(double lat, double lon, String name) {
+    this.lat = lat;
+    this.lon = lon;
+    this.name = name;
+  }
+
+  /**
+   * create a site from a city
+   *
+   * @param city the city to forecast
+   * @return the {@code BatchSite}
+   */
+  public static BatchSite of(City city) {
+    return new BatchSite(city.lat, city.lon, city.display);
+  }
+
+  /**
+   * parse a site from a line of {@code lat,lon} or {@code lat,lon,name}
+   *
+   * @param line the line to parse
+   * @return the {@code BatchSite}, or {@code null} if the line does not start
+   *         with a latitude and longitude
+   */
+  public static BatchSite parse(String line) {
+    String[] parts = line.split(",", 3);
+    if (parts.length < 2) {
+      return null;
+    }
+    try {
+      double lat = Double.parseDouble(parts[0].trim());
+      double lon = Double.parseDouble(parts[1].trim());
+      String name = parts.length == 3 ? parts[2].trim() : null;
+      return new BatchSite(lat, lon, name == null || name.isEmpty() ? null : name);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return name != null ? name : lat + "," + lon;
+  }
+}
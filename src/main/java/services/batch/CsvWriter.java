@@ -0,0 +1,117 @@
+package services.batch;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.weather_observations.data.Observations;
+
+/**
+ * Writes one CSV row per site per forecast hour, after a header row.
+ *
+ * the site's observations are repeated on each of its rows. a failed site
+ * gets a single row with only its position and the error filled in
+ */
+public class CsvWriter implements ResultWriter {
+  private static final String HEADER = "index,name,lat,lon,region,grid_x,grid_y,station,start,"
+      + "temperature,precipitation,humidity,dewpoint,wind_speed,wind_speed_max,wind_direction,short_forecast,"
+      + "observed_wind_speed,observed_pressure,observed_visibility,error";
+
+  private final BufferedWriter out;
+  private final int hours;
+
+  /**
+   * create a writer and write the header
+   *
+   * @param out   where to write, flushed after every site
+   * @param hours how many hours of each forecast to write
+   */
+  public CsvWriter(OutputStream out, int hours) throws IOException {
+    this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    this.hours = hours;
+    this.out.write(HEADER);
+    this.out.newLine();
+  }
+
+  @Override
+  public void accept(BatchResult result) {
+    try {
+      StringBuilder site = new StringBuilder();
+      site.append(result.index).append(',')
+          .append(quote(result.site.name)).append(',')
+          .append(result.site.lat).append(',')
+          .append(result.site.lon).append(',');
+      if (result.point != null) {
+        site.append(quote(result.point.region)).append(',')
+            .append(result.point.gridX).append(',')
+            .append(result.point.gridY).append(',');
+      } else {
+        site.append(",,,");
+      }
+      site.append(quote(result.station)).append(',');
+
+      String observed = observed(result.observations);
+      ForecastSeries series = result.hourly;
+      if (series == null || series.size() == 0) {
+        out.write(site + ",,,,,,,,," + observed + "," + quote(result.error));
+        out.newLine();
+      } else {
+        for (int i = 0; i < Math.min(hours, series.size()); i++) {
+          out.write(site.toString());
+          out.write(Instant.ofEpochSecond(series.startTime(i)) + ","
+              + series.temperature(i) + ","
+              + series.precipitation(i) + ","
+              + series.humidity(i) + ","
+              + (Float.isNaN(series.dewpoint(i)) ? "" : series.dewpoint(i)) + ","
+              + series.windSpeed(i) + ","
+              + series.windSpeedMax(i) + ","
+              + (Float.isNaN(series.windDirection(i)) ? "" : series.windDirection(i)) + ","
+              + quote(series.shortForecast(i)) + ","
+              + observed + ","
+              + quote(result.error));
+          out.newLine();
+        }
+      }
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * the observation columns of a site
+   */
+  private static String observed(Observations o) {
+    if (o == null) {
+      return ",,";
+    }
+    return value(o.windSpeed) + "," + value(o.barometricPressure) + "," + value(o.visibility);
+  }
+
+  private static String value(double value) {
+    return Double.isNaN(value) ? "" : Double.toString(value);
+  }
+
+  /**
+   * quote a field if it needs it, empty for {@code null}
+   */
+  private static String quote(String field) {
+    if (field == null) {
+      return "";
+    }
+    if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+      return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+    return field;
+  }
+
+  @Override
+  public void close() throws IOException {
+    out.flush();
+  }
+}
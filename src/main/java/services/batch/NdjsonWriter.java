@@ -0,0 +1,75 @@
+package services.batch;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import services.json.ForecastJson;
+
+/**
+ * Writes one JSON object per site per line.
+ *
+ * each line holds the site, its grid point and station, the first
+ * {@code hours} hours of its forecast and its latest observations, or the
+ * error it failed with
+ */
+public class NdjsonWriter implements ResultWriter {
+  private final JsonGenerator json;
+  private final int hours;
+
+  /**
+   * create a writer
+   *
+   * @param out   where to write, flushed after every line
+   * @param hours how many hours of each forecast to write
+   */
+  public NdjsonWriter(OutputStream out, int hours) throws IOException {
+    // lines are ended by hand, so no separator between root values
+    this.json = new JsonFactory().setRootValueSeparator(null).createGenerator(out, JsonEncoding.UTF8);
+    this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    this.hours = hours;
+  }
+
+  @Override
+  public void accept(BatchResult result) {
+    try {
+      json.writeStartObject();
+      json.writeNumberField("index", result.index);
+      json.writeStringField("name", result.site.name);
+      json.writeNumberField("lat", result.site.lat);
+      json.writeNumberField("lon", result.site.lon);
+
+      if (result.point != null) {
+        ForecastJson.writePoint(json, result.point);
+      }
+      if (result.station != null) {
+        json.writeStringField("station", result.station);
+      }
+
+      if (result.hourly != null) {
+        ForecastJson.writeHourly(json, result.hourly, hours);
+      }
+      if (result.observations != null) {
+        ForecastJson.writeObservations(json, result.observations);
+      }
+      if (result.error != null) {
+        json.writeStringField("error", result.error);
+      }
+      json.writeEndObject();
+
+      json.writeRaw('\n');
+      json.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    json.close();
+  }
+}
@@ -0,0 +1,31 @@
+package services.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+/**
+ * Streams {@code BatchResult}s to an output as they arrive.
+ * Write failures are rethrown as {@code java.io.UncheckedIOException}
+ */
+public interface ResultWriter extends Consumer<BatchResult>, Closeable {
+  /**
+   * create a writer for a format
+   *
+   * @param format {@code ndjson} or {@code csv}
+   * @param out    where to write
+   * @param hours  how many hours of each forecast to write
+   * @return the {@code ResultWriter}
+   */
+  static ResultWriter forFormat(String format, OutputStream out, int hours) throws IOException {
+    switch (format.toLowerCase()) {
+      case "ndjson":
+        return new NdjsonWriter(out, hours);
+      case "csv":
+        return new CsvWriter(out, hours);
+      default:
+        throw new IllegalArgumentException("Unknown format " + format + ", expected ndjson or csv");
+    }
+  }
+}
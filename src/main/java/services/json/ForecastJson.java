@@ -0,0 +1,86 @@
+package services.json;
+
+import java.io.IOException;
+import java.time.Instant;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.weather_observations.data.Observations;
+
+/**
+ * Writes forecast data as JSON fields, the same way everywhere the services
+ * hand data out.
+ * likely should not be instantiated.
+ */
+public class ForecastJson {
+  /**
+   * write the fields of a grid point
+   *
+   * @param json  the generator, inside an object
+   * @param point the grid point
+   */
+  public static void writePoint(JsonGenerator json, GridPoint point) throws IOException {
+    json.writeStringField("region", point.region);
+    json.writeNumberField("gridX", point.gridX);
+    json.writeNumberField("gridY", point.gridY);
+    json.writeStringField("location", point.location);
+  }
+
+  /**
+   * write an {@code hourly} array of the first {@code hours} hours of a
+   * forecast
+   *
+   * @param json   the generator, inside an object
+   * @param series the forecast
+   * @param hours  how many hours to write at most
+   */
+  public static void writeHourly(JsonGenerator json, ForecastSeries series, int hours) throws IOException {
+    json.writeArrayFieldStart("hourly");
+    for (int i = 0; i < Math.min(hours, series.size()); i++) {
+      json.writeStartObject();
+      json.writeStringField("start", Instant.ofEpochSecond(series.startTime(i)).toString());
+      json.writeBooleanField("isDaytime", series.isDaytime(i));
+      json.writeNumberField("temperature", series.temperature(i));
+      json.writeNumberField("precipitation", series.precipitation(i));
+      json.writeNumberField("humidity", series.humidity(i));
+      if (!Float.isNaN(series.dewpoint(i))) {
+        json.writeNumberField("dewpoint", series.dewpoint(i));
+      }
+      json.writeNumberField("windSpeed", series.windSpeed(i));
+      json.writeNumberField("windSpeedMax", series.windSpeedMax(i));
+      if (!Float.isNaN(series.windDirection(i))) {
+        json.writeNumberField("windDirection", series.windDirection(i));
+      }
+      json.writeStringField("shortForecast", series.shortForecast(i));
+      json.writeEndObject();
+    }
+    json.writeEndArray();
+  }
+
+  /**
+   * write an {@code observations} object, leaving out missing values
+   *
+   * @param json the generator, inside an object
+   * @param o    the observations
+   */
+  public static void writeObservations(JsonGenerator json, Observations o) throws IOException {
+    json.writeObjectFieldStart("observations");
+    writeValue(json, "windSpeed", o.windSpeed);
+    writeValue(json, "windGust", o.windGust);
+    writeValue(json, "windDirection", o.windDirection);
+    writeValue(json, "barometricPressure", o.barometricPressure);
+    writeValue(json, "seaLevelPressure", o.seaLevelPressure);
+    writeValue(json, "visibility", o.visibility);
+    writeValue(json, "windChill", o.windChill);
+    writeValue(json, "heatIndex", o.heatIndex);
+    json.writeEndObject();
+  }
+
+  private static void writeValue(JsonGenerator json, String name, double value) throws IOException {
+    if (!Double.isNaN(value)) {
+      json.writeNumberField(name, value);
+    }
+  }
+}
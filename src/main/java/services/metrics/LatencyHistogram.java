@@ -0,0 +1,125 @@
+package services.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed size, lock free latency histogram.
+ *
+ * Latencies are recorded in microseconds into log-linear buckets: each power
+ * of two is split into eight buckets, so any percentile read back is within
+ * about 12% of the true value, whatever the range, while the histogram stays
+ * a few kilobytes.
+ */
+public class LatencyHistogram {
+  // eight buckets per power of two
+  private static final int SUB_BITS = 3;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_COUNT;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalMicros = new AtomicLong();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * record one latency
+   *
+   * @param micros the latency in microseconds
+   */
+  public void record(long micros) {
+    long value = Math.max(0, micros);
+    counts.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    totalMicros.addAndGet(value);
+    maxMicros.accumulateAndGet(value, Math::max);
+  }
+
+  /**
+   * record the time since {@code startNanos}
+   *
+   * @param startNanos a {@code System.nanoTime} reading
+   */
+  public void recordSince(long startNanos) {
+    record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+  }
+
+  /**
+   * @return how many latencies were recorded
+   */
+  public long count() {
+    return count.get();
+  }
+
+  /**
+   * @return the mean latency in microseconds
+   */
+  public double meanMicros() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) totalMicros.get() / n;
+  }
+
+  /**
+   * @return the highest latency recorded, in microseconds
+   */
+  public long maxMicros() {
+    return maxMicros.get();
+  }
+
+  /**
+   * get a percentile of the recorded latencies
+   *
+   * @param percentile between 0 and 100
+   * @return the latency in microseconds, the upper edge of the bucket it falls
+   *         in, or 0 if nothing was recorded
+   */
+  public long percentileMicros(double percentile) {
+    long n = count.get();
+    if (n == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(n * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(upperEdgeOf(i), maxMicros.get());
+      }
+    }
+    return maxMicros.get();
+  }
+
+  /**
+   * get the bucket a value falls in. values below {@code SUB_COUNT} get a
+   * bucket each
+   */
+  private static int bucketOf(long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_COUNT - 1);
+    return (exponent - SUB_BITS + 1) * SUB_COUNT + sub;
+  }
+
+  /**
+   * get the highest value that falls in a bucket
+   */
+  private static long upperEdgeOf(int bucket) {
+    if (bucket < SUB_COUNT) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_COUNT + SUB_BITS - 1;
+    int sub = bucket % SUB_COUNT;
+    long width = 1L << (exponent - SUB_BITS);
+    return (1L << exponent) + (sub + 1) * width - 1;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("n=%d mean=%.1fms p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms", count(),
+        meanMicros() / 1000, percentileMicros(50) / 1000.0, percentileMicros(95) / 1000.0,
+        percentileMicros(99) / 1000.0, maxMicros() / 1000.0);
+  }
+}
@@ -0,0 +1,330 @@
+package services.polling;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.transport.Priority;
+
+/**
+ * Keeps watched grid points up to date by polling their hourly forecast.
+ *
+ * NWS regenerates a grid's forecast on a roughly regular cycle, and says when
+ * in its {@code updateTime}. After a poll that finds a newer forecast, the
+ * next poll is timed for just after the next update is due, using the
+ * interval between the updates seen so far. A poll that finds nothing new
+ * backs off, doubling the wait from {@code minInterval} up to
+ * {@code maxInterval}. Subscribers only hear about forecasts whose
+ * {@code updateTime} advanced.
+ *
+ * Polls are sent at {@code Priority.Background}, so they never hold up the
+ * UI, and mostly cost nothing while the {@code ResponseCache} entry is fresh.
+ *
+ * typical usage:
+ * - {@code new ForecastPoller()}
+ * - {@code watch(region, gridX, gridY, series -> ...)}, which returns a
+ *   {@code Watch} to {@code cancel}
+ * - {@code getStats} for polls per hour and the ratio of useful polls
+ */
+public class ForecastPoller implements AutoCloseable {
+  public static final Duration DEFAULT_CYCLE = Duration.ofHours(1);
+  public static final Duration DEFAULT_GRACE = Duration.ofMinutes(2);
+  public static final Duration DEFAULT_MIN_INTERVAL = Duration.ofMinutes(5);
+  public static final Duration DEFAULT_MAX_INTERVAL = Duration.ofHours(1);
+
+  /**
+   * Fetches a grid's hourly forecast, {@code MyWeatherAPI.getHourlySeriesAsync}
+   * by default
+   */
+  @FunctionalInterface
+  public interface Fetcher {
+    CompletableFuture<ForecastSeries> fetch(String region, int gridX, int gridY);
+  }
+
+  private final Fetcher fetcher;
+  private long cycleMillis = DEFAULT_CYCLE.toMillis();
+  private long graceMillis = DEFAULT_GRACE.toMillis();
+  private long minIntervalMillis = DEFAULT_MIN_INTERVAL.toMillis();
+  private long maxIntervalMillis = DEFAULT_MAX_INTERVAL.toMillis();
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+    Thread thread = new Thread(task, "forecast-poller");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private final ConcurrentHashMap<String, Grid> grids = new ConcurrentHashMap<>();
+  private final long started = System.currentTimeMillis();
+
+  // counters
+  private final AtomicLong polls = new AtomicLong();
+  private final AtomicLong useful = new AtomicLong();
+  private final AtomicLong failed = new AtomicLong();
+  private final AtomicLong pushed = new AtomicLong();
+
+  /**
+   * One watched grid point and its subscribers
+   */
+  private class Grid {
+    final String key, region;
+    final int gridX, gridY;
+    final List<Consumer<ForecastSeries>> subscribers = new CopyOnWriteArrayList<>();
+
+    // guarded by this
+    long updateTime;
+    long cycleMillis = ForecastPoller.this.cycleMillis;
+    int misses = 0;
+    ScheduledFuture<?> next;
+    CompletableFuture<ForecastSeries> running;
+    boolean stopped = false;
+
+    Grid(String key, String region, int gridX, int gridY) {
+      this.key = key;
+      this.region = region;
+      this.gridX = gridX;
+      this.gridY = gridY;
+    }
+
+    synchronized void schedule(long delayMillis) {
+      if (!stopped) {
+        next = scheduler.schedule(this::poll, delayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    void poll() {
+      CompletableFuture<ForecastSeries> poll;
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        polls.incrementAndGet();
+        try {
+          poll = Priority.with(Priority.Background, () -> fetcher.fetch(region, gridX, gridY));
+        } catch (RuntimeException e) {
+          poll = CompletableFuture.failedFuture(e);
+        }
+        running = poll;
+      }
+      poll.whenComplete((series, error) -> {
+        if (error != null || series == null) {
+          failed.incrementAndGet();
+          schedule(jitter(backOff()));
+        } else {
+          polled(series);
+        }
+      });
+    }
+
+    /**
+     * record a poll's forecast, hand it out if it is newer, and schedule the
+     * next poll
+     */
+    void polled(ForecastSeries series) {
+      long delay;
+      boolean push;
+      synchronized (this) {
+        if (stopped) {
+          return;
+        }
+        if (series.updateTime <= updateTime) {
+          delay = backOff();
+          push = false;
+        } else {
+          // the first forecast seen only sets where the cycle is
+          push = updateTime != 0;
+          if (push) {
+            useful.incrementAndGet();
+            long seen = TimeUnit.SECONDS.toMillis(series.updateTime - updateTime);
+            cycleMillis = clamp((3 * cycleMillis + seen) / 4, minIntervalMillis,
+                4 * ForecastPoller.this.cycleMillis);
+          }
+          updateTime = series.updateTime;
+          misses = 0;
+
+          // poll just after the next update is due, or soon if it is overdue
+          long due = TimeUnit.SECONDS.toMillis(updateTime) + cycleMillis + graceMillis;
+          delay = Math.max(minIntervalMillis, due - System.currentTimeMillis());
+        }
+      }
+
+      if (push) {
+        for (Consumer<ForecastSeries> subscriber : subscribers) {
+          pushed.incrementAndGet();
+          try {
+            subscriber.accept(series);
+          } catch (RuntimeException e) {
+            System.err.println("Forecast subscriber failed: " + e.getMessage());
+          }
+        }
+      }
+      schedule(jitter(delay));
+    }
+
+    /**
+     * @return the wait after a poll that found nothing new, doubling each time
+     */
+    synchronized long backOff() {
+      misses++;
+      return Math.min(maxIntervalMillis, minIntervalMillis << Math.min(misses - 1, 20));
+    }
+
+    synchronized void stop() {
+      stopped = true;
+      if (next != null) {
+        next.cancel(false);
+      }
+      if (running != null) {
+        running.cancel(true);
+      }
+    }
+  }
+
+  /**
+   * A subscription to one grid point's forecast
+   */
+  public class Watch {
+    private final Grid grid;
+    private final Consumer<ForecastSeries> subscriber;
+
+    Watch(Grid grid, Consumer<ForecastSeries> subscriber) {
+      this.grid = grid;
+      this.subscriber = subscriber;
+    }
+
+    /**
+     * stop hearing about this grid point. it stops being polled once nobody
+     * watches it
+     */
+    public void cancel() {
+      unwatch(grid, subscriber);
+    }
+  }
+
+  /**
+   * create a poller that fetches through {@code MyWeatherAPI}
+   */
+  public ForecastPoller() {
+    this(MyWeatherAPI::getHourlySeriesAsync);
+  }
+
+  /**
+   * create a poller
+   *
+   * @param fetcher fetches a grid's hourly forecast
+   */
+  public ForecastPoller(Fetcher fetcher) {
+    this.fetcher = fetcher;
+  }
+
+  /**
+   * Build a poller that expects NWS to update a grid every {@code cycle} until
+   * it has seen a few updates, and polls {@code grace} after one is due
+   */
+  public ForecastPoller withCycle(Duration cycle, Duration grace) {
+    this.cycleMillis = cycle.toMillis();
+    this.graceMillis = grace.toMillis();
+    return this;
+  }
+
+  /**
+   * Build a poller that waits between {@code min} and {@code max} between
+   * polls of a grid
+   */
+  public ForecastPoller withIntervals(Duration min, Duration max) {
+    this.minIntervalMillis = min.toMillis();
+    this.maxIntervalMillis = max.toMillis();
+    return this;
+  }
+
+  /**
+   * start watching a grid point. the first poll is sent right away, and only
+   * sets the baseline: subscribers hear about forecasts newer than it
+   *
+   * @param region     the grid's forecast office
+   * @param gridX      the grid x coordinate
+   * @param gridY      the grid y coordinate
+   * @param subscriber receives each newer forecast, on a transport thread
+   * @return the {@code Watch}, to {@code cancel} when done
+   */
+  public Watch watch(String region, int gridX, int gridY, Consumer<ForecastSeries> subscriber) {
+    String key = region + "/" + gridX + "," + gridY;
+    while (true) {
+      Grid grid = grids.computeIfAbsent(key, k -> new Grid(k, region, gridX, gridY));
+      synchronized (grid) {
+        // lost a race with the last watch being cancelled
+        if (grid.stopped) {
+          continue;
+        }
+        boolean first = grid.subscribers.isEmpty();
+        grid.subscribers.add(subscriber);
+        if (first) {
+          grid.schedule(0);
+        }
+      }
+      return new Watch(grid, subscriber);
+    }
+  }
+
+  private void unwatch(Grid grid, Consumer<ForecastSeries> subscriber) {
+    synchronized (grid) {
+      grid.subscribers.remove(subscriber);
+      if (grid.subscribers.isEmpty()) {
+        grid.stop();
+        grids.remove(grid.key, grid);
+      }
+    }
+  }
+
+  /**
+   * @return the number of grid points being watched
+   */
+  public int watched() {
+    return grids.size();
+  }
+
+  /**
+   * get how often grids were polled and how many polls found something new
+   *
+   * @return the {@code PollerStats}
+   */
+  public PollerStats getStats() {
+    return new PollerStats(polls.get(), useful.get(), failed.get(), pushed.get(), grids.size(),
+        System.currentTimeMillis() - started);
+  }
+
+  /**
+   * stop polling every grid
+   */
+  @Override
+  public void close() {
+    for (Grid grid : grids.values()) {
+      grid.stop();
+    }
+    grids.clear();
+    scheduler.shutdownNow();
+  }
+
+  private static long clamp(long value, long min, long max) {
+    return Math.max(min, Math.min(max, value));
+  }
+
+  /**
+   * spread polls by up to 10% so watched grids do not all poll at once
+   */
+  private static long jitter(long delayMillis) {
+    if (delayMillis <= 0) {
+      return 0;
+    }
+    return delayMillis + ThreadLocalRandom.current().nextLong(delayMillis / 10 + 1);
+  }
+}
@@ -0,0 +1,49 @@
+package services.polling;
+
+/**
+ * A snapshot of the counters kept by {@code ForecastPoller}.
+ * Typically created by use of {@code ForecastPoller.getStats}
+ */
+public class PollerStats {
+  // polls sent, polls that found a newer forecast, and polls that failed
+  public final long polls, useful, failed;
+  // forecasts handed to subscribers
+  public final long pushed;
+  // grid points being watched right now
+  public final int watched;
+  // how long the poller has been running, in milliseconds
+  public final long uptimeMillis;
+
+  public PollerStats(long polls, long useful, long failed, long pushed, int watched, long uptimeMillis) {
+    this.polls = polls;
+    this.useful = useful;
+    this.failed = failed;
+    this.pushed = pushed;
+    this.watched = watched;
+    this.uptimeMillis = uptimeMillis;
+  }
+
+  /**
+   * @return polls sent per hour of uptime
+   */
+  public double pollsPerHour() {
+    if (uptimeMillis == 0)
+      return 0;
+    return polls * 3_600_000.0 / uptimeMillis;
+  }
+
+  /**
+   * @return the fraction of polls that found a newer forecast
+   */
+  public double usefulRatio() {
+    if (polls == 0)
+      return 0;
+    return (double) useful / polls;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("watched=%d polls=%d useful=%d failed=%d pushed=%d polls/h=%.1f useful-ratio=%.2f",
+        watched, polls, useful, failed, pushed, pollsPerHour(), usefulRatio());
+  }
+}
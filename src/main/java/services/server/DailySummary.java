@@ -0,0 +1,91 @@
+package services.server;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import endpoints.my_weather.data.DayTable;
+import endpoints.my_weather.data.ForecastSeries;
+import views.util.UnitHandler.TemperatureUnit;
+
+/**
+ * The per-day numbers a {@code Day} shows, without the UI: temperature range
+ * in both units, max precipitation, mean humidity and wind, and the most
+ * common short forecast. one row of a {@code DayTable}, as an object to write
+ * out.
+ *
+ * @see {@code endpoints.my_weather.data.DayTable}
+ */
+public class DailySummary {
+  public final LocalDate date;
+  // temperatures stored in {min, max} format
+  public final int[] fahrenheit, celsius;
+  public final int maxPrecipitation, meanHumidity, meanWindSpeed;
+  public final String commonForecast;
+  public final boolean commonIsDaytime;
+  public final int hours;
+
+  private DailySummary(LocalDate date, int[] fahrenheit, int[] celsius, int maxPrecipitation,
+      int meanHumidity, int meanWindSpeed, String commonForecast, boolean commonIsDaytime, int hours) {
+    this.date = date;
+    this.fahrenheit = fahrenheit;
+    this.celsius = celsius;
+    this.maxPrecipitation = maxPrecipitation;
+    this.meanHumidity = meanHumidity;
+    this.meanWindSpeed = meanWindSpeed;
+    this.commonForecast = commonForecast;
+    this.commonIsDaytime = commonIsDaytime;
+    this.hours = hours;
+  }
+
+  /**
+   * summarize a forecast day by day
+   *
+   * @param series the forecast
+   * @param zone   the zone whose calendar days the hours are grouped by
+   * @return a {@code DailySummary} per day, in order
+   */
+  public static List<DailySummary> of(ForecastSeries series, ZoneId zone) {
+    DayTable table = DayTable.of(series, zone);
+    List<DailySummary> days = new ArrayList<>(table.days());
+    for (int day = 0; day < table.days(); day++) {
+      days.add(new DailySummary(table.date(day),
+          new int[] { table.minTemperature(day, TemperatureUnit.Fahrenheit),
+              table.maxTemperature(day, TemperatureUnit.Fahrenheit) },
+          new int[] { table.minTemperature(day, TemperatureUnit.Celsius),
+              table.maxTemperature(day, TemperatureUnit.Celsius) },
+          table.maxPrecipitation(day), table.meanHumidity(day), table.meanWindSpeed(day),
+          table.commonForecast(day), table.commonIsDaytime(day), table.hours(day)));
+    }
+    return days;
+  }
+
+  /**
+   * write this day as a JSON object
+   *
+   * @param json the generator
+   */
+  public void write(JsonGenerator json) throws IOException {
+    json.writeStartObject();
+    json.writeStringField("date", date.toString());
+    json.writeNumberField("hours", hours);
+    json.writeArrayFieldStart("fahrenheit");
+    json.writeNumber(fahrenheit[0]);
+    json.writeNumber(fahrenheit[1]);
+    json.writeEndArray();
+    json.writeArrayFieldStart("celsius");
+    json.writeNumber(celsius[0]);
+    json.writeNumber(celsius[1]);
+    json.writeEndArray();
+    json.writeNumberField("maxPrecipitation", maxPrecipitation);
+    json.writeNumberField("meanHumidity", meanHumidity);
+    json.writeNumberField("meanWindSpeed", meanWindSpeed);
+    json.writeStringField("shortForecast", commonForecast);
+    json.writeBooleanField("isDaytime", commonIsDaytime);
+    json.writeEndObject();
+  }
+}
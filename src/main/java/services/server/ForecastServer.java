@@ -0,0 +1,397 @@
+package services.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import endpoints.my_weather.api.GridPointResolver;
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.transport.CircuitOpenException;
+import endpoints.transport.EndpointExecutor;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.Priority;
+import endpoints.transport.RateLimitedException;
+import endpoints.weather_observations.api.StationCatalog;
+import endpoints.weather_observations.api.WeatherObservations;
+import endpoints.weather_observations.data.Observations;
+import services.json.ForecastJson;
+import services.metrics.LatencyHistogram;
+
+/**
+ * Serves forecasts over HTTP, so dashboards can share one client of
+ * api.weather.gov instead of each calling it directly.
+ *
+ * routes, each taking {@code ?lat=&lon=}:
+ * - {@code /forecast}, the hourly forecast
+ * - {@code /observations}, the latest observations of the nearest station
+ * - {@code /daily}, the per-day numbers a {@code Day} shows
+ *
+ * plus {@code /health} and {@code /stats}.
+ *
+ * Every request is handled on its own virtual thread. Rendered responses are
+ * kept in a {@code RenderCache} shared by all clients, keyed by route and
+ * quantized position, in front of the transport's disk cache.
+ *
+ * typical usage:
+ * - {@code new ForecastServer().withPort(8642).start()}
+ * - {@code close()}
+ */
+public class ForecastServer implements AutoCloseable {
+  public static final int DEFAULT_PORT = 8642;
+
+  private static final JsonFactory JSON = new JsonFactory();
+
+  static {
+    // the server writes headers and body separately, with Nagle on the body
+    // waits for the client's delayed ACK, about 40ms a response
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private int port = DEFAULT_PORT;
+  private RenderCache cache = new RenderCache();
+  // null to use each grid point's own zone
+  private ZoneId zone;
+
+  private HttpServer server;
+  private ExecutorService executor;
+
+  // route to the latency of the requests it served
+  private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+
+  public ForecastServer() {
+    for (String route : new String[] { "/forecast", "/observations", "/daily" }) {
+      latencies.put(route, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Build a server listening on {@code port}, 0 for any free port
+   */
+  public ForecastServer withPort(int port) {
+    this.port = port;
+    return this;
+  }
+
+  /**
+   * Build a server that keeps rendered responses in {@code cache}
+   */
+  public ForecastServer withCache(RenderCache cache) {
+    this.cache = cache;
+    return this;
+  }
+
+  /**
+   * Build a server that groups {@code /daily} hours by the days of
+   * {@code zone}, instead of the days of each location's own zone
+   */
+  public ForecastServer withZone(ZoneId zone) {
+    this.zone = zone;
+    return this;
+  }
+
+  /**
+   * start listening
+   *
+   * @return this server
+   */
+  public ForecastServer start() throws IOException {
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    executor = EndpointExecutor.virtual();
+    server.setExecutor(executor);
+
+    server.createContext("/forecast", exchange -> route(exchange, this::renderForecast));
+    server.createContext("/observations", exchange -> route(exchange, this::renderObservations));
+    server.createContext("/daily", exchange -> route(exchange, this::renderDaily));
+    server.createContext("/health", exchange -> respond(exchange, 200, "text/plain", "ok\n".getBytes()));
+    server.createContext("/stats", exchange -> respond(exchange, 200, "text/plain",
+        statsText().getBytes(StandardCharsets.UTF_8)));
+
+    server.start();
+    return this;
+  }
+
+  /**
+   * @return the port the server is listening on
+   */
+  public int port() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * @return the rendered response cache
+   */
+  public RenderCache getCache() {
+    return cache;
+  }
+
+  /**
+   * @return the latency of each route, in route order
+   */
+  public Map<String, LatencyHistogram> getLatencies() {
+    return latencies;
+  }
+
+  /**
+   * stop listening, letting running requests finish for up to a second
+   */
+  @Override
+  public void close() {
+    if (server != null) {
+      server.stop(1);
+      executor.close();
+      server = null;
+    }
+  }
+
+  /**
+   * Turns a grid point into a response body
+   */
+  @FunctionalInterface
+  private interface Renderer {
+    CompletableFuture<byte[]> render(GridPoint point, double lat, double lon);
+  }
+
+  /**
+   * answer a request for a route, from the cache if possible
+   */
+  private void route(HttpExchange exchange, Renderer renderer) throws IOException {
+    long start = System.nanoTime();
+    String path = exchange.getHttpContext().getPath();
+    try (exchange) {
+      if (!"GET".equals(exchange.getRequestMethod())) {
+        error(exchange, 405, "Only GET is supported");
+        return;
+      }
+
+      double lat, lon;
+      try {
+        Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+        lat = Double.parseDouble(query.get("lat"));
+        lon = Double.parseDouble(query.get("lon"));
+      } catch (NullPointerException | NumberFormatException e) {
+        error(exchange, 400, "Expected ?lat=&lon=");
+        return;
+      }
+      // NaN, infinities and positions off the globe would each cost a trip to
+      // NWS only to fail there
+      if (!(lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180)) {
+        error(exchange, 400, "Expected lat in [-90, 90] and lon in [-180, 180]");
+        return;
+      }
+
+      // positions within a few meters share their response
+      String key = path + "?" + GridPointResolver.quantize(lat) + "," + GridPointResolver.quantize(lon);
+      boolean cached = cache.lookup(key) != null;
+      byte[] body;
+      try {
+        body = Priority.with(Priority.Interactive, () -> cache.get(key, () -> MyWeatherAPI
+            .getGridPointAsync(lat, lon)
+            .thenCompose(point -> {
+              if (point == null) {
+                throw new NoDataException();
+              }
+              return renderer.render(point, lat, lon);
+            })).join());
+      } catch (CompletionException e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        if (cause instanceof NoDataException) {
+          error(exchange, 404, "National Weather Service does not have data for this location");
+        } else if (cause instanceof CircuitOpenException || cause instanceof RateLimitedException) {
+          error(exchange, 503, cause.getMessage());
+        } else {
+          error(exchange, 502, cause.getMessage() == null ? cause.toString() : cause.getMessage());
+        }
+        return;
+      }
+
+      exchange.getResponseHeaders().set("Cache-Control", "public, max-age=" + cache.ttlSeconds());
+      exchange.getResponseHeaders().set("X-Cache", cached ? "hit" : "miss");
+      respond(exchange, 200, "application/json", body);
+    } finally {
+      latencies.get(path).recordSince(start);
+    }
+  }
+
+  /**
+   * Thrown when NWS has no grid point for a position
+   */
+  private static class NoDataException extends RuntimeException {
+  }
+
+  private CompletableFuture<byte[]> renderForecast(GridPoint point, double lat, double lon) {
+    return MyWeatherAPI.getHourlySeriesAsync(point.region, point.gridX, point.gridY)
+        .thenApply(series -> json(json -> {
+          json.writeStartObject();
+          ForecastJson.writePoint(json, point);
+          json.writeNumberField("updateTime", series.updateTime);
+          ForecastJson.writeHourly(json, series, series.size());
+          json.writeEndObject();
+        }));
+  }
+
+  private CompletableFuture<byte[]> renderObservations(GridPoint point, double lat, double lon) {
+    return StationCatalog.getDefault().getAsync(point.region, point.gridX, point.gridY)
+        .thenCompose(stations -> {
+          String station = stations == null ? null : stations.nearest(lat, lon);
+          if (station == null) {
+            throw new NoDataException();
+          }
+          return WeatherObservations.getStationObservationsAsync(station)
+              .thenApply(observations -> renderObservations(point, station, observations));
+        });
+  }
+
+  private static byte[] renderObservations(GridPoint point, String station, Observations observations) {
+    if (observations == null) {
+      throw new NoDataException();
+    }
+    return json(json -> {
+      json.writeStartObject();
+      ForecastJson.writePoint(json, point);
+      json.writeStringField("station", station);
+      ForecastJson.writeObservations(json, observations);
+      json.writeEndObject();
+    });
+  }
+
+  private CompletableFuture<byte[]> renderDaily(GridPoint point, double lat, double lon) {
+    return MyWeatherAPI.getHourlySeriesAsync(point.region, point.gridX, point.gridY)
+        .thenApply(series -> renderDaily(point, series));
+  }
+
+  private byte[] renderDaily(GridPoint point, ForecastSeries series) {
+    return json(json -> {
+      json.writeStartObject();
+      ForecastJson.writePoint(json, point);
+      json.writeArrayFieldStart("days");
+      for (DailySummary day : DailySummary.of(series, zone == null ? point.zone : zone)) {
+        day.write(json);
+      }
+      json.writeEndArray();
+      json.writeEndObject();
+    });
+  }
+
+  /**
+   * Writes a response with a {@code JsonGenerator}
+   */
+  @FunctionalInterface
+  private interface JsonBody {
+    void write(JsonGenerator json) throws IOException;
+  }
+
+  private static byte[] json(JsonBody body) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (JsonGenerator json = JSON.createGenerator(out, JsonEncoding.UTF8)) {
+      body.write(json);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return out.toByteArray();
+  }
+
+  private static void error(HttpExchange exchange, int status, String message) throws IOException {
+    respond(exchange, status, "application/json", json(json -> {
+      json.writeStartObject();
+      json.writeNumberField("status", status);
+      json.writeStringField("detail", message);
+      json.writeEndObject();
+    }));
+  }
+
+  private static void respond(HttpExchange exchange, int status, String type, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", type);
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * parse a raw query string into its parameters
+   */
+  private static Map<String, String> query(String raw) {
+    Map<String, String> params = new HashMap<>();
+    if (raw == null) {
+      return params;
+    }
+    for (String pair : raw.split("&")) {
+      int eq = pair.indexOf('=');
+      if (eq > 0) {
+        params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+            URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+      }
+    }
+    return params;
+  }
+
+  /**
+   * @return the cache and route latencies as text
+   */
+  private String statsText() {
+    StringBuilder s = new StringBuilder("cache: ").append(cache).append('\n');
+    latencies.forEach((route, histogram) -> s.append(route).append(": ").append(histogram).append('\n'));
+    s.append("transport: ").append(NwsTransport.getStats()).append('\n');
+    return s.toString();
+  }
+
+  /**
+   * run a server until the process is stopped.
+   * usage: {@code ForecastServer [--port N] [--ttl SECONDS]}
+   */
+  public static void main(String[] args) throws IOException {
+    int port = DEFAULT_PORT;
+    Duration ttl = RenderCache.DEFAULT_TTL;
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--port":
+            port = Integer.parseInt(args[++i]);
+            break;
+          case "--ttl":
+            ttl = Duration.ofSeconds(Long.parseLong(args[++i]));
+            break;
+          default:
+            throw new IllegalArgumentException(args[i]);
+        }
+      }
+    } catch (RuntimeException e) {
+      System.err.println("usage: ForecastServer [--port N] [--ttl SECONDS]");
+      System.exit(2);
+    }
+
+    ForecastServer server = new ForecastServer()
+        .withPort(port)
+        .withCache(new RenderCache(ttl, RenderCache.DEFAULT_MAX_ENTRIES))
+        .start();
+    NwsTransport.warmUp();
+    System.out.println("Serving forecasts on http://localhost:" + server.port());
+
+    Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+      server.close();
+      System.out.println(server.statsText());
+    }));
+  }
+}
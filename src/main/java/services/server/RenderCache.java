@@ -0,0 +1,140 @@
+package services.server;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import endpoints.transport.SingleFlight;
+
+/**
+ * An in memory cache of rendered responses, shared by every client of a
+ * {@code ForecastServer}.
+ *
+ * Sits in front of the transport's {@code ResponseCache}: a hit here skips
+ * the decoding and rendering too, not just the network. Concurrent misses
+ * for the same key render once and share the result. Failures are not cached.
+ */
+public class RenderCache {
+  public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+  public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+  private final long ttlMillis;
+  private final int maxEntries;
+  private final SingleFlight<byte[]> flights = new SingleFlight<>();
+
+  // least recently used first
+  private final LinkedHashMap<String, Entry> entries;
+
+  public final AtomicLong hits = new AtomicLong();
+  public final AtomicLong misses = new AtomicLong();
+
+  /**
+   * A rendered response and when it stops being served
+   */
+  private static class Entry {
+    final byte[] body;
+    final long expiresAt;
+
+    Entry(byte[] body, long expiresAt) {
+      this.body = body;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+  public RenderCache() {
+    this(DEFAULT_TTL, DEFAULT_MAX_ENTRIES);
+  }
+
+  /**
+   * create a cache
+   *
+   * @param ttl        how long a rendered response is served for
+   * @param maxEntries how many responses are kept, least recently used ones
+   *                   are dropped first
+   */
+  public RenderCache(Duration ttl, int maxEntries) {
+    this.ttlMillis = ttl.toMillis();
+    this.maxEntries = maxEntries;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return size() > RenderCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return how long a rendered response is served for, in seconds
+   */
+  public long ttlSeconds() {
+    return ttlMillis / 1000;
+  }
+
+  /**
+   * get the rendered response for {@code key}, rendering it if it is missing
+   * or expired
+   *
+   * @param key    identifies the response
+   * @param render renders the response
+   * @return a {@code CompletableFuture} of the response body
+   */
+  public CompletableFuture<byte[]> get(String key, Supplier<CompletableFuture<byte[]>> render) {
+    byte[] cached = lookup(key);
+    if (cached != null) {
+      hits.incrementAndGet();
+      return CompletableFuture.completedFuture(cached);
+    }
+
+    misses.incrementAndGet();
+    return flights.run(key, () -> render.get().thenApply(body -> {
+      synchronized (entries) {
+        entries.put(key, new Entry(body, System.currentTimeMillis() + ttlMillis));
+      }
+      return body;
+    }));
+  }
+
+  /**
+   * @return the cached response for {@code key}, or {@code null} if there is
+   *         none or it expired
+   */
+  public byte[] lookup(String key) {
+    synchronized (entries) {
+      Entry entry = entries.get(key);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.expiresAt <= System.currentTimeMillis()) {
+        entries.remove(key);
+        return null;
+      }
+      return entry.body;
+    }
+  }
+
+  /**
+   * @return the number of responses held
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /**
+   * drop every response
+   */
+  public void clear() {
+    synchronized (entries) {
+      entries.clear();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return String.format("hits=%d misses=%d entries=%d", hits.get(), misses.get(), size());
+  }
+}
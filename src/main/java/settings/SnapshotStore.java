@@ -0,0 +1,307 @@
+package settings;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Optional;
+
+import endpoints.my_weather.data.GridPoint;
+import endpoints.my_weather.data.HourlyPeriod;
+import endpoints.weather_observations.data.Observations;
+import endpoints.weather_observations.data.Observations.Unit;
+import views.util.LocationChangeData;
+import views.util.LocationChangeData.DetailedForecasts;
+
+/**
+ * Saves the last loaded location to a compact binary file, so the next launch
+ * can draw the weather right away and refresh it in the background.
+ *
+ * The file holds one {@code LocationChangeData} and the position it was loaded
+ * for. It is written to a temporary file and moved into place, so a crash
+ * while saving leaves the previous snapshot intact.
+ */
+public class SnapshotStore {
+  // "WFXS", then a format version
+  private static final int MAGIC = 0x57465853;
+  private static final int VERSION = 3;
+
+  private static SnapshotStore defaultStore;
+
+  private final Path file;
+
+  /**
+   * A saved location and when it was saved
+   */
+  public static class Snapshot {
+    public final LocationChangeData data;
+    public final double lat, lon;
+    // when the data was loaded, in epoch millis
+    public final long savedAt;
+
+    public Snapshot(LocationChangeData data, double lat, double lon, long savedAt) {
+      this.data = data;
+      this.lat = lat;
+      this.lon = lon;
+      this.savedAt = savedAt;
+    }
+
+    /**
+     * @return {@code true} if this snapshot was taken at the given position
+     */
+    public boolean isFor(double lat, double lon) {
+      return Math.abs(this.lat - lat) < 1e-4 && Math.abs(this.lon - lon) < 1e-4;
+    }
+
+    /**
+     * @return how long ago this snapshot was saved, in minutes
+     */
+    public long ageMinutes() {
+      return Math.max(0, (System.currentTimeMillis() - savedAt) / 60_000);
+    }
+  }
+
+  /**
+   * create a store backed by a file
+   *
+   * @param file where the snapshot is kept
+   */
+  public SnapshotStore(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * get the shared store, kept in the user's home directory
+   *
+   * @return the shared {@code SnapshotStore}
+   */
+  public static synchronized SnapshotStore getDefault() {
+    if (defaultStore == null) {
+      defaultStore = new SnapshotStore(
+          Paths.get(System.getProperty("user.home"), ".weatherfx", "snapshot.bin"));
+    }
+    return defaultStore;
+  }
+
+  /**
+   * save a location, replacing any earlier snapshot. failures are logged and
+   * ignored, the next launch simply starts cold.
+   *
+   * @param data     the data loaded for the location
+   * @param lat      the latitude it was loaded for
+   * @param lon      the longitude it was loaded for
+   * @param loadedAt when it was loaded, in epoch millis
+   */
+  public synchronized void save(LocationChangeData data, double lat, double lon, long loadedAt) {
+    if (data == null || data.periods == null || data.point == null) {
+      return;
+    }
+
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(loadedAt);
+        out.writeDouble(lat);
+        out.writeDouble(lon);
+
+        writeString(out, data.name);
+        writeGridPoint(out, data.point);
+
+        DetailedForecasts detailed = data.detailedForecasts;
+        writeString(out, detailed == null ? null : detailed.USdetailedForecast);
+
+        out.writeInt(data.periods.size());
+        for (HourlyPeriod period : data.periods) {
+          writePeriod(out, period);
+        }
+
+        writeObservations(out, data.observations);
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.err.println("Failed to save snapshot: " + e.getMessage());
+    }
+  }
+
+  /**
+   * read the saved snapshot
+   *
+   * @return the {@code Snapshot}, if there is a readable one
+   */
+  public synchronized Optional<Snapshot> load() {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return Optional.empty();
+      }
+      long savedAt = in.readLong();
+      double lat = in.readDouble();
+      double lon = in.readDouble();
+
+      String name = readString(in);
+      GridPoint point = readGridPoint(in);
+      String detailed = readString(in);
+
+      int count = in.readInt();
+      ArrayList<HourlyPeriod> periods = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        periods.add(readPeriod(in));
+      }
+
+      Observations observations = readObservations(in);
+
+      LocationChangeData data = new LocationChangeData(periods, observations, point, name,
+          detailed == null ? null : DetailedForecasts.fromUS(detailed));
+      return Optional.of(new Snapshot(data, lat, lon, savedAt));
+    } catch (NoSuchFileException e) {
+      return Optional.empty();
+    } catch (IOException e) {
+      System.err.println("Failed to read snapshot: " + e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private static void writeGridPoint(DataOutputStream out, GridPoint point) throws IOException {
+    out.writeInt(point.gridX);
+    out.writeInt(point.gridY);
+    writeString(out, point.region);
+    writeString(out, point.location);
+    writeString(out, point.zone.getId());
+  }
+
+  private static GridPoint readGridPoint(DataInputStream in) throws IOException {
+    int gridX = in.readInt();
+    int gridY = in.readInt();
+    String region = readString(in);
+    String location = readString(in);
+    ZoneId zone = GridPoint.zoneOf(readString(in));
+    return new GridPoint(gridX, gridY, region, location, zone == null ? ZoneId.systemDefault() : zone);
+  }
+
+  /**
+   * write the fields of a period the scenes use
+   */
+  private static void writePeriod(DataOutputStream out, HourlyPeriod period) throws IOException {
+    out.writeInt(period.number);
+    writeString(out, period.name);
+    out.writeLong(period.startTime);
+    out.writeLong(period.endTime);
+    out.writeBoolean(period.isDaytime);
+    out.writeInt(period.temperature);
+    writeString(out, period.temperatureUnit);
+    out.writeInt(period.probabilityOfPrecipitation == null ? 0 : period.probabilityOfPrecipitation.value);
+    writeString(out, period.windSpeed);
+    writeString(out, period.windDirection);
+    writeString(out, period.icon);
+    writeString(out, period.shortForecast);
+    out.writeDouble(period.dewpoint == null ? Double.NaN : period.dewpoint.value);
+    out.writeInt(period.relativeHumidity == null ? 0 : period.relativeHumidity.value);
+  }
+
+  private static HourlyPeriod readPeriod(DataInputStream in) throws IOException {
+    HourlyPeriod period = new HourlyPeriod();
+    period.number = in.readInt();
+    period.name = readString(in);
+    period.startTime = in.readLong();
+    period.endTime = in.readLong();
+    period.isDaytime = in.readBoolean();
+    period.temperature = in.readInt();
+    period.temperatureUnit = readString(in);
+
+    period.probabilityOfPrecipitation = period.new ProbabilityOfPrecipitation();
+    period.probabilityOfPrecipitation.unitCode = "wmoUnit:percent";
+    period.probabilityOfPrecipitation.value = in.readInt();
+
+    period.setWindSpeed(readString(in));
+    period.setWindDirection(readString(in));
+    period.icon = readString(in);
+    period.shortForecast = readString(in);
+
+    double dewpoint = in.readDouble();
+    if (!Double.isNaN(dewpoint)) {
+      period.dewpoint = period.new DewPoint();
+      period.dewpoint.unitCode = "wmoUnit:degC";
+      period.dewpoint.value = dewpoint;
+    }
+
+    period.relativeHumidity = period.new RelativeHumidity();
+    period.relativeHumidity.unitCode = "wmoUnit:percent";
+    period.relativeHumidity.value = in.readInt();
+    return period;
+  }
+
+  /**
+   * write the quantities of an observation, in field order
+   */
+  private static void writeObservations(DataOutputStream out, Observations o) throws IOException {
+    out.writeBoolean(o != null);
+    if (o == null) {
+      return;
+    }
+    out.writeLong(o.timestamp);
+    writeQuantity(out, o.windGust, o.windGustUnit);
+    writeQuantity(out, o.barometricPressure, o.barometricPressureUnit);
+    writeQuantity(out, o.seaLevelPressure, o.seaLevelPressureUnit);
+    writeQuantity(out, o.visibility, o.visibilityUnit);
+    writeQuantity(out, o.windChill, o.windChillUnit);
+    writeQuantity(out, o.heatIndex, o.heatIndexUnit);
+    writeQuantity(out, o.windSpeed, o.windSpeedUnit);
+    writeQuantity(out, o.windDirection, o.windDirectionUnit);
+  }
+
+  private static Observations readObservations(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    Observations o = new Observations();
+    o.timestamp = in.readLong();
+    o.windGust = in.readDouble();
+    o.windGustUnit = Unit.of(readString(in));
+    o.barometricPressure = in.readDouble();
+    o.barometricPressureUnit = Unit.of(readString(in));
+    o.seaLevelPressure = in.readDouble();
+    o.seaLevelPressureUnit = Unit.of(readString(in));
+    o.visibility = in.readDouble();
+    o.visibilityUnit = Unit.of(readString(in));
+    o.windChill = in.readDouble();
+    o.windChillUnit = Unit.of(readString(in));
+    o.heatIndex = in.readDouble();
+    o.heatIndexUnit = Unit.of(readString(in));
+    o.windSpeed = in.readDouble();
+    o.windSpeedUnit = Unit.of(readString(in));
+    o.windDirection = in.readDouble();
+    o.windDirectionUnit = Unit.of(readString(in));
+    return o;
+  }
+
+  /**
+   * write a value, NaN if missing, and the code of its unit
+   */
+  private static void writeQuantity(DataOutputStream out, double value, Unit unit) throws IOException {
+    out.writeDouble(value);
+    writeString(out, unit.code);
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      out.writeUTF(s);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+}
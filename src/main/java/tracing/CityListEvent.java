@@ -0,0 +1,24 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reading the city list out of the bundled database.
+ * Typically recorded by {@code CityData.getCityList}
+ */
+@Name("weatherfx.CityList")
+@Label("City List Load")
+@Category({ "WeatherFX", "UI" })
+@StackTrace(false)
+public class CityListEvent extends jdk.jfr.Event {
+  @Label("Cities")
+  public int cities;
+
+  @Label("Database Size")
+  @DataAmount(DataAmount.BYTES)
+  public long bytes;
+}
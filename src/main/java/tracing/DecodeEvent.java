@@ -0,0 +1,27 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Turning a response body into objects.
+ * Typically recorded by {@code Tracing.decode}
+ */
+@Name("weatherfx.JsonDecode")
+@Label("JSON Decode")
+@Category({ "WeatherFX", "Endpoints" })
+@StackTrace(false)
+public class DecodeEvent extends jdk.jfr.Event {
+  @Label("Type")
+  public String type;
+
+  @Label("Location")
+  public String location;
+
+  @Label("Body Size")
+  @DataAmount(DataAmount.BYTES)
+  public long bytes;
+}
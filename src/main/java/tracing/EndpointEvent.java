@@ -0,0 +1,44 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call to an NWS endpoint, from asking for it to having its result
+ * decoded, rate limiter wait, retries and cache lookups included.
+ * Typically recorded by {@code Tracing.endpoint}
+ */
+@Name("weatherfx.Endpoint")
+@Label("NWS Endpoint Call")
+@Category({ "WeatherFX", "Endpoints" })
+@Description("A call to an api.weather.gov endpoint, including decoding its response")
+@StackTrace(false)
+public class EndpointEvent extends jdk.jfr.Event {
+  @Label("Endpoint")
+  @Description("points, hourly, forecast, stations or observations")
+  public String endpoint;
+
+  @Label("Location")
+  @Description("The position, grid point or station asked about")
+  public String location;
+
+  @Label("URL")
+  public String url;
+
+  @Label("Status")
+  public int status;
+
+  @Label("Response Size")
+  @DataAmount(DataAmount.BYTES)
+  public long bytes;
+
+  @Label("From Cache")
+  public boolean fromCache;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+}
@@ -0,0 +1,38 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One HTTP exchange with api.weather.gov, from sending the request to having
+ * read the whole body: server time plus download. Retries and hedges are
+ * separate exchanges.
+ * Typically recorded by {@code NwsTransport}
+ */
+@Name("weatherfx.Exchange")
+@Label("NWS Exchange")
+@Category({ "WeatherFX", "Transport" })
+@Description("A single HTTP exchange, request sent to body read")
+@StackTrace(false)
+public class ExchangeEvent extends jdk.jfr.Event {
+  @Label("URL")
+  public String url;
+
+  @Label("Priority")
+  public String priority;
+
+  @Label("Conditional")
+  @Description("Whether the request revalidated a cached response")
+  public boolean conditional;
+
+  @Label("Status")
+  public int status;
+
+  @Label("Response Size")
+  @DataAmount(DataAmount.BYTES)
+  public long bytes;
+}
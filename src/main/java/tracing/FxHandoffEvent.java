@@ -0,0 +1,21 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The wait between handing a result to {@code Platform.runLater} and the FX
+ * thread picking it up, which is how long the UI was busy with its pulse.
+ */
+@Name("weatherfx.FxHandoff")
+@Label("FX Handoff")
+@Category({ "WeatherFX", "UI" })
+@Description("Time a result waited for the JavaFX application thread")
+@StackTrace(false)
+public class FxHandoffEvent extends jdk.jfr.Event {
+  @Label("Location")
+  public String location;
+}
@@ -0,0 +1,28 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Loading everything the scenes need for a location, grid point to last
+ * response. Typically recorded by {@code LocationLoader.load}
+ */
+@Name("weatherfx.LocationLoad")
+@Label("Location Load")
+@Category({ "WeatherFX", "Pipeline" })
+@StackTrace(false)
+public class LocationLoadEvent extends jdk.jfr.Event {
+  @Label("Location")
+  public String location;
+
+  @Label("Latitude")
+  public double latitude;
+
+  @Label("Longitude")
+  public double longitude;
+
+  @Label("Succeeded")
+  public boolean succeeded;
+}
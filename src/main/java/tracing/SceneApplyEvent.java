@@ -0,0 +1,26 @@
+package tracing;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A scene rebuilding its components from a forecast: the {@code Day}
+ * aggregation and the charts.
+ * Typically recorded by a {@code DayScene}'s {@code applyForecast}
+ */
+@Name("weatherfx.SceneApply")
+@Label("Apply Forecast")
+@Category({ "WeatherFX", "UI" })
+@StackTrace(false)
+public class SceneApplyEvent extends jdk.jfr.Event {
+  @Label("Scene")
+  public String scene;
+
+  @Label("Location")
+  public String location;
+
+  @Label("Periods")
+  public int periods;
+}
@@ -0,0 +1,193 @@
+package tracing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import endpoints.transport.Futures;
+import endpoints.transport.NwsResponse;
+import endpoints.transport.NwsTransport;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Records where the time of a location change goes, as JDK Flight Recorder
+ * events in the {@code WeatherFX} category.
+ * likely should not be instantiated.
+ *
+ * Events cost next to nothing unless a recording has them enabled. The
+ * bundled {@code weatherfx.jfc} enables them together with the few JDK
+ * events that explain them (TLS handshakes, slow socket reads, GC, pinned
+ * virtual threads) and little else, so it is cheap enough to leave on.
+ *
+ * to record, either:
+ * - run with {@code -Dweatherfx.jfr=recording.jfr}, see {@code startFromProperty}
+ * - or pass {@code -XX:StartFlightRecording:settings=weatherfx.jfc,filename=recording.jfr}
+ *   with the file extracted from {@code src/main/resources/jfr}
+ *
+ * then {@code jfr print --categories WeatherFX recording.jfr}
+ *
+ * run with {@code -Dweatherfx.stats=true} to also print load timings and, on
+ * exit, the transport and cache counters.
+ */
+public class Tracing {
+  // where the bundled configuration lives on the classpath
+  public static final String CONFIGURATION = "/jfr/weatherfx.jfc";
+
+  // print timings and counters to stdout, only with -Dweatherfx.stats
+  public static final boolean STATS = Boolean.getBoolean("weatherfx.stats");
+
+  /**
+   * GET an endpoint through {@code NwsTransport.getAsync}, recording an
+   * {@code EndpointEvent} for the call
+   *
+   * @param endpoint the kind of endpoint, such as {@code hourly}
+   * @param location what was asked about, such as {@code LOT/76,73}
+   * @param url      the full url to get
+   * @param decoder  turns the response into a result
+   * @return a {@code CompletableFuture} of the decoded result
+   */
+  public static <T> CompletableFuture<T> endpoint(String endpoint, String location, String url,
+      Function<NwsResponse, T> decoder) {
+    EndpointEvent event = begin(endpoint, location, url);
+    return end(event, NwsTransport.getAsync(url, response -> {
+      responded(event, response);
+      return decoder.apply(response);
+    }));
+  }
+
+  /**
+   * start timing an endpoint call made some other way than
+   * {@code endpoint}
+   *
+   * @param endpoint the kind of endpoint
+   * @param location what was asked about
+   * @param url      the url requested
+   * @return the started {@code EndpointEvent}
+   */
+  public static EndpointEvent begin(String endpoint, String location, String url) {
+    EndpointEvent event = new EndpointEvent();
+    event.begin();
+    event.endpoint = endpoint;
+    event.location = location;
+    event.url = url;
+    return event;
+  }
+
+  /**
+   * note the response an endpoint call got
+   *
+   * @param event    the call's event
+   * @param response the response
+   */
+  public static void responded(EndpointEvent event, NwsResponse response) {
+    event.url = response.url;
+    event.status = response.statusCode;
+    event.bytes = response.body == null ? 0 : response.body.length;
+    event.fromCache = response.fromCache;
+  }
+
+  /**
+   * commit an endpoint call's event once its result is ready. a call that
+   * fails, or decodes to {@code null}, is recorded as not succeeded
+   *
+   * @param event  the call's event
+   * @param future the call's result
+   * @return a {@code CompletableFuture} completed like {@code future}, after
+   *         the event is committed. cancelling it cancels {@code future}
+   */
+  public static <T> CompletableFuture<T> end(EndpointEvent event, CompletableFuture<T> future) {
+    // complete only once the event is committed, so whoever waits on the call
+    // sees it recorded
+    CompletableFuture<T> result = new CompletableFuture<>();
+    Futures.propagateCancel(result, future);
+    future.whenComplete((value, error) -> {
+      event.end();
+      if (event.shouldCommit()) {
+        event.succeeded = error == null && value != null;
+        event.commit();
+      }
+      if (error != null) {
+        result.completeExceptionally(error);
+      } else {
+        result.complete(value);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * decode a response body, recording a {@code DecodeEvent}
+   *
+   * @param type     what is decoded, such as {@code HourlyPeriodJson}
+   * @param location what the body is about
+   * @param bytes    the size of the body
+   * @param decode   does the decoding
+   * @return whatever {@code decode} returned
+   */
+  public static <T> T decode(String type, String location, long bytes, Supplier<T> decode) {
+    DecodeEvent event = new DecodeEvent();
+    event.begin();
+    try {
+      return decode.get();
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.type = type;
+        event.location = location;
+        event.bytes = bytes;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * start a recording with the bundled configuration, written to
+   * {@code destination} when the program exits
+   *
+   * @param destination the file to write the recording to
+   * @return the running {@code Recording}
+   */
+  public static Recording startRecording(Path destination) throws IOException, ParseException {
+    try (InputStream in = Tracing.class.getResourceAsStream(CONFIGURATION)) {
+      if (in == null) {
+        throw new IOException("Missing " + CONFIGURATION);
+      }
+      Configuration configuration = Configuration.create(new InputStreamReader(in, StandardCharsets.UTF_8));
+      Recording recording = new Recording(configuration);
+      recording.setName("WeatherFX");
+      recording.setDestination(destination);
+      recording.setToDisk(true);
+      recording.setDumpOnExit(true);
+      recording.start();
+      return recording;
+    }
+  }
+
+  /**
+   * start a recording if {@code -Dweatherfx.jfr=FILE} was given. failures are
+   * logged, never thrown
+   *
+   * @return the running {@code Recording}, or {@code null} if none was started
+   */
+  public static Recording startFromProperty() {
+    String file = System.getProperty("weatherfx.jfr");
+    if (file == null || file.isBlank()) {
+      return null;
+    }
+    try {
+      Recording recording = startRecording(Path.of(file));
+      System.out.println("Recording flight data to " + file);
+      return recording;
+    } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+      System.err.println("Failed to start flight recording: " + e.getMessage());
+      return null;
+    }
+  }
+}
@@ -7,6 +7,7 @@ import javafx.scene.control.ScrollPane;
 import javafx.scene.control.ScrollPane.ScrollBarPolicy;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import tracing.SceneApplyEvent;
 import views.components.sidebar.Sidebar;
 
 /**
@@ -26,6 +27,9 @@ public abstract class DayScene {
 
   private String currentTheme;
 
+  // the location shown, for tracing
+  protected String location;
+
   /**
    * initialize all components. most components will be added to or modified later
    * during initialization
@@ -120,6 +124,31 @@ public abstract class DayScene {
     scene.getStylesheets().add(filename);
   }
 
+  /**
+   * sets the name of the location the scene shows
+   *
+   * @param location the location's name
+   */
+  public void setLocation(String location) {
+    this.location = location;
+  }
+
+  /**
+   * start a {@code SceneApplyEvent} for this scene. {@code commit} it once
+   * {@code applyForecast} is done
+   *
+   * @param periods the number of periods being applied
+   * @return the started {@code SceneApplyEvent}
+   */
+  protected SceneApplyEvent beginApply(int periods) {
+    SceneApplyEvent event = new SceneApplyEvent();
+    event.begin();
+    event.scene = getClass().getSimpleName();
+    event.location = location;
+    event.periods = periods;
+    return event;
+  }
+
   /**
    * updates the {@code DayScene} with a new set of data
    *
@@ -2,12 +2,14 @@ package views;
 
 import java.util.ArrayList;
 
+import endpoints.my_weather.data.DayTable;
 import endpoints.my_weather.data.HourlyPeriod;
 import javafx.scene.Scene;
 import javafx.scene.layout.VBox;
 import views.components.Day.DayView.DayViewType;
 import views.components.DayCollection;
 import views.components.TempGraph;
+import tracing.SceneApplyEvent;
 import views.util.UnitHandler;
 
 /**
@@ -22,18 +24,21 @@ public class TenDayScene extends DayScene {
 
   TempGraph tempGraph;
 
-  // currently stored forecast
+  // currently stored forecast and its days
   ArrayList<HourlyPeriod> currentForecast;
+  DayTable currentDays;
 
   /**
    * create a new {@code ThreeDayScene} to show the forecast for the next 3 days
    *
    * @param forecast the forecast to use to make the view. must contain at least 3
    *                 days worth of data
+   * @param days     the {@code DayTable} of {@code forecast}
    */
-  public TenDayScene(ArrayList<HourlyPeriod> forecast) {
+  public TenDayScene(ArrayList<HourlyPeriod> forecast, DayTable days) {
     initComponents();
     currentForecast = forecast;
+    currentDays = days;
     applyForecast();
 
     styleComponents();
@@ -43,8 +48,10 @@ public class TenDayScene extends DayScene {
    * apply the {@code currentForecast} to the view, updating elements
    */
   protected void applyForecast() {
-    DayCollection collection = new DayCollection(10, currentForecast, DayViewType.TenDay);
+    SceneApplyEvent event = beginApply(currentForecast.size());
+    DayCollection collection = new DayCollection(10, currentForecast, currentDays, DayViewType.TenDay);
     dayCollectionBox.getChildren().setAll(collection.component());
+    event.commit();
   }
 
   /**
@@ -81,9 +88,13 @@ public class TenDayScene extends DayScene {
 
   /**
    * update the view to use a new forecast
+   *
+   * @param forecast the new forecast
+   * @param days     the {@code DayTable} of {@code forecast}
    */
-  public void update(ArrayList<HourlyPeriod> forecast) {
+  public void update(ArrayList<HourlyPeriod> forecast, DayTable days) {
     currentForecast = forecast;
+    currentDays = days;
     applyForecast();
   }
 
@@ -2,11 +2,13 @@ package views;
 
 import java.util.ArrayList;
 
+import endpoints.my_weather.data.DayTable;
 import endpoints.my_weather.data.HourlyPeriod;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import tracing.SceneApplyEvent;
 import views.components.Day;
 import views.components.Day.DayView.DayViewType;
 import views.components.DayCollection;
@@ -26,8 +28,9 @@ public class ThreeDayScene extends DayScene {
   // scene blocking
   HBox dayCollectionBox, graphContainer;
 
-  // currently stored forecast
+  // currently stored forecast and its days
   ArrayList<HourlyPeriod> currentForecast;
+  DayTable currentDays;
 
   // visual elements
   TempGraph tempGraph;
@@ -39,12 +42,14 @@ public class ThreeDayScene extends DayScene {
    *
    * @param forecast the forecast to use to make the view. must contain at least 3
    *                 days worth of data
+   * @param days     the {@code DayTable} of {@code forecast}
    */
-  public ThreeDayScene(ArrayList<HourlyPeriod> forecast) {
+  public ThreeDayScene(ArrayList<HourlyPeriod> forecast, DayTable days) {
     initComponents();
 
     addEventHandlers();
     currentForecast = forecast;
+    currentDays = days;
     applyForecast();
 
     styleComponents();
@@ -54,7 +59,8 @@ public class ThreeDayScene extends DayScene {
    * apply the {@code currentForecast} to the view, updating elements
    */
   protected void applyForecast() {
-    DayCollection collection = new DayCollection(3, currentForecast, DayViewType.ThreeDay);
+    SceneApplyEvent event = beginApply(currentForecast.size());
+    DayCollection collection = new DayCollection(3, currentForecast, currentDays, DayViewType.ThreeDay);
     dayCollectionBox.getChildren().setAll(collection.component());
     graphContainer.getChildren().setAll();
 
@@ -62,6 +68,7 @@ public class ThreeDayScene extends DayScene {
     // click on them?)
     showGraphs(collection.getDays().getFirst());
     collection.getDays().getFirst().select();
+    event.commit();
   }
 
   /**
@@ -102,9 +109,13 @@ public class ThreeDayScene extends DayScene {
 
   /**
    * update the view to use a new forecast
+   *
+   * @param forecast the new forecast
+   * @param days     the {@code DayTable} of {@code forecast}
    */
-  public void update(ArrayList<HourlyPeriod> forecast) {
+  public void update(ArrayList<HourlyPeriod> forecast, DayTable days) {
     currentForecast = forecast;
+    currentDays = days;
     applyForecast();
     // updateTempGraph();
   }
@@ -115,9 +126,9 @@ public class ThreeDayScene extends DayScene {
    * @param d the day to show graphs for
    */
   public void showGraphs(Day d) {
-    tempGraph = new TempGraph(d.getForecast(), UnitHandler.getUnit());
+    tempGraph = new TempGraph(d.getForecast(), currentDays.index().zone(), UnitHandler.getUnit());
     tempChart = tempGraph.component();
-    humidGraph = new HumidityGraph(d.getForecast(), d.getDate());
+    humidGraph = new HumidityGraph(d.getForecast(), currentDays.index().zone());
     humidChart = humidGraph.component();
 
     graphContainer.getChildren().setAll(tempChart, humidChart);
@@ -1,6 +1,7 @@
 package views;
 
 import java.io.FileNotFoundException;
+import java.time.ZoneId;
 import java.util.ArrayList;
 
 import endpoints.my_weather.data.HourlyPeriod;
@@ -17,6 +18,7 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import tracing.SceneApplyEvent;
 import views.components.HumidityGraph;
 import views.components.TempGraph;
 import views.components.events.TempUnitEvent;
@@ -67,8 +69,9 @@ public class TodayScene extends DayScene {
   HumidityGraph humidGraph;
   VBox tempChart, humidChart;
 
-  // currently stored forecast and observations
+  // currently stored forecast and observations, and the zone of its location
   ArrayList<HourlyPeriod> currentForecast;
+  ZoneId zone;
   Observations currentObservations;
   DetailedForecasts detailedForecasts;
 
@@ -82,14 +85,16 @@ public class TodayScene extends DayScene {
    *
    * @param forecast an {@code ArrayList} of {@code HourlyPeriod}, gathered from
    *                 {@code MyWeatherAPI}
+   * @param zone     the time zone of the forecast location
    */
-  public TodayScene(ArrayList<HourlyPeriod> forecast, Observations observations,
+  public TodayScene(ArrayList<HourlyPeriod> forecast, ZoneId zone, Observations observations,
       DetailedForecasts detailed) {
     initComponents();
 
     // populate fields with forecast
     detailedForecasts = detailed;
     currentForecast = forecast;
+    this.zone = zone;
     currentObservations = observations;
 
     applyForecast();
@@ -109,11 +114,13 @@ public class TodayScene extends DayScene {
    * update the view to use a new forecast and observations
    *
    * @param forecast     the new forecast to use
+   * @param zone         the time zone of its location
    * @param observations the new observations to use
    */
-  public void update(ArrayList<HourlyPeriod> forecast, Observations observations,
+  public void update(ArrayList<HourlyPeriod> forecast, ZoneId zone, Observations observations,
       DetailedForecasts detailed) {
     currentForecast = forecast;
+    this.zone = zone;
     currentObservations = observations;
     detailedForecasts = detailed;
     applyForecast();
@@ -123,6 +130,8 @@ public class TodayScene extends DayScene {
    * update the scene with the {@code currentForecast}
    */
   protected void applyForecast() {
+    SceneApplyEvent event = beginApply(currentForecast.size());
+
     // use the most current forecast
     HourlyPeriod now = currentForecast.getFirst();
 
@@ -139,9 +148,9 @@ public class TodayScene extends DayScene {
     weatherIcon.setImage(icon);
 
     // create data charts
-    tempGraph = new TempGraph(currentForecast, UnitHandler.getUnit());
+    tempGraph = new TempGraph(currentForecast, zone, UnitHandler.getUnit());
     tempChart = tempGraph.component();
-    humidGraph = new HumidityGraph(currentForecast, currentForecast.getFirst().startTime);
+    humidGraph = new HumidityGraph(currentForecast, zone);
     humidChart = humidGraph.component();
 
     // place data charts
@@ -149,6 +158,7 @@ public class TodayScene extends DayScene {
 
     // create the smaller data views
     createSmallGraphs();
+    event.commit();
   }
 
   /**
@@ -313,19 +323,18 @@ public class TodayScene extends DayScene {
     HourlyPeriod now = currentForecast.getFirst();
     SmallBox compass, pressure, dewpoint, visibility;
 
-    // add the wind speed box. handle if null.
-    if (currentObservations.windSpeed.value != null
-        && currentObservations.windDirection.value != null) {
-      compass = new CompassBox(currentObservations.windSpeed.mph(),
-          currentObservations.windDirection.value);
+    // add the wind speed box. handle if missing.
+    double windSpeed = currentObservations.windSpeedMph();
+    if (!Double.isNaN(windSpeed) && !Double.isNaN(currentObservations.windDirection)) {
+      compass = new CompassBox(windSpeed, currentObservations.windDirection);
     } else {
       compass = new EmptyBox("Wind Direction");
     }
     compassBox = compass.component();
 
-    // add the air pressure box. handle if null.
-    if (currentObservations.barometricPressure.value != null) {
-      pressure = new PressureBox(currentObservations.barometricPressure.value);
+    // add the air pressure box. handle if missing.
+    if (!Double.isNaN(currentObservations.barometricPressure)) {
+      pressure = new PressureBox(currentObservations.barometricPressure);
     } else {
       pressure = new EmptyBox("Air Pressure");
     }
@@ -335,9 +344,9 @@ public class TodayScene extends DayScene {
     dewpoint = new DewPointBox(now.dewpoint.value);
     dewpointBox = dewpoint.component();
 
-    // add the visibility box. handle if null.
-    if (currentObservations.visibility.value != null) {
-      visibility = new VisibilityBox(currentObservations.visibility.value);
+    // add the visibility box. handle if missing.
+    if (!Double.isNaN(currentObservations.visibility)) {
+      visibility = new VisibilityBox(currentObservations.visibility);
     } else {
       visibility = new EmptyBox("visibility");
     }
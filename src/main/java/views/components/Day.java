@@ -1,14 +1,10 @@
 package views.components;
 
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.Date;
-import java.util.Hashtable;
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+import endpoints.my_weather.data.DayTable;
 import endpoints.my_weather.data.HourlyPeriod;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -21,7 +17,6 @@ import javafx.scene.layout.HBox;
 import javafx.scene.layout.Region;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
-import javafx.util.Pair;
 import views.components.Day.DayView.DayViewType;
 import views.components.events.DaySelectionEvent;
 import views.util.IconResolver;
@@ -30,7 +25,7 @@ import views.util.UnitHandler;
 import views.util.UnitHandler.TemperatureUnit;
 
 /**
- * A simple object containing forecast information for a given {@code Date}.
+ * A simple object containing forecast information for a given {@code LocalDate}.
  * Typically created in a {@code DayCollection}.
  * Shows a given days temperature range, max precipitation, average windspeed,
  * and average humidity.
@@ -40,19 +35,16 @@ import views.util.UnitHandler.TemperatureUnit;
  * @see {@code DayCollection}.
  */
 public class Day {
-  // regex pattern for getting the wind number from a string in the format of `X
-  // mph`
-  static Pattern windPattern = Pattern.compile("(\\d+)");
-
-  // temperatures stored in {min, max} format
-  Integer[] fahrenheit, celsius;
+  // the statistics of every day of the forecast, and which day this is
+  DayTable table;
+  int day;
 
   // true if selected for graph display, false otherwise.
   // only one Day will be true at once
   boolean selected = false;
 
   // util for building the Day
-  Date date;
+  LocalDate date;
   DayView viewType;
   List<HourlyPeriod> currentForecast;
   Region component;
@@ -68,11 +60,12 @@ public class Day {
   }
 
   /**
-   * get the {@code Date} associated with this {@code Day}
+   * get the date associated with this {@code Day}, in the forecast location's
+   * time zone
    *
-   * @return the associated {@code Date}
+   * @return the associated {@code LocalDate}
    */
-  public Date getDate() {
+  public LocalDate getDate() {
     return this.date;
   }
 
@@ -125,50 +118,20 @@ public class Day {
   }
 
   /**
-   * create a new {@code Day} from a list of {@code HourlyPeriod}s and a given
-   * {@code Date}
+   * create a new {@code Day} from one of the days of a forecast
    *
-   * @param data a list of {@code HourlyPeriod} containing data for the given
-   *             {@code day}
-   * @param day  the {@code Date} for the data to display
+   * @param data  the forecast
+   * @param table the {@code DayTable} of {@code data}
+   * @param day   which day of {@code table} to show
    */
-  @SuppressWarnings("deprecation")
-  public Day(ArrayList<HourlyPeriod> data, Date day) {
-    this.date = day;
-    this.currentForecast = data.stream().filter(hperiod -> hperiod.startTime.getDate() == day.getDate()).toList();
-    this.fahrenheit = getMinMaxTemp(false);
-    this.celsius = getMinMaxTemp(true);
+  public Day(List<HourlyPeriod> data, DayTable table, int day) {
+    this.table = table;
+    this.day = day;
+    this.currentForecast = table.index().slice(data, day);
+    this.date = table.date(day);
     this.unit = UnitHandler.getUnit();
   }
 
-  /**
-   * calculate the minimum and maximum temperature throughout the day
-   * 
-   * @param celsius {@code true} to calculate celsius data, {@code false} to
-   *                calculate fahrenheit data.
-   * @return an {@code Integer} array of size two in the format of {min, max}
-   */
-  private Integer[] getMinMaxTemp(boolean celsius) {
-    Integer[] minMax = new Integer[] { null, null };
-    int temperature;
-    for (HourlyPeriod p : currentForecast) {
-      if (celsius) {
-        temperature = (int) ((p.temperature - 32.) * 5. / 9.);
-      } else {
-        temperature = p.temperature;
-      }
-
-      if (minMax[0] == null || temperature < minMax[0]) {
-        minMax[0] = temperature;
-      }
-      if (minMax[1] == null || temperature > minMax[1]) {
-        minMax[1] = temperature;
-      }
-    }
-
-    return minMax;
-  }
-
   /**
    * get the {@code Region} component for this {@code Day}
    *
@@ -195,7 +158,7 @@ public class Day {
         statBox.setPadding(new Insets(20, 40, 20, -20));
         statBox.setAlignment(Pos.CENTER_LEFT);
 
-        VBox graphBox = new VBox(new TempGraph(this.currentForecast, this.unit).smallComponent());
+        VBox graphBox = new VBox(new TempGraph(this.currentForecast, table.index().zone(), this.unit).smallComponent());
         graphBox.setAlignment(Pos.CENTER);
 
         this.component = new HBox(titleIconBox, statBox, graphBox);
@@ -257,10 +220,9 @@ public class Day {
    * @return a {@code VBox} for displaying the statistics
    */
   public VBox getStatistics() {
-    int[] stats = parseStats();
-    String precipitation_str = "Precipitation: " + stats[0] + "%";
-    String humidity_str = "Humidity: " + stats[1] + "%";
-    String wind_str = "Wind: " + stats[2] + " mph";
+    String precipitation_str = "Precipitation: " + table.maxPrecipitation(day) + "%";
+    String humidity_str = "Humidity: " + table.meanHumidity(day) + "%";
+    String wind_str = "Wind: " + table.meanWindSpeed(day) + " mph";
 
     Text precipitation = new Text(precipitation_str);
     Text humidity = new Text(humidity_str);
@@ -276,41 +238,6 @@ public class Day {
     return statbox;
   }
 
-  /**
-   * takes the {@code currentForecast} and parses the data for displaying.
-   * finds the maximum precipitation, the average humidity, and the average
-   * windspeed.
-   *
-   * @return an {@code int} array of size 3, formatted {precipitation, humidity,
-   *         windspeed}
-   */
-  private int[] parseStats() {
-    int maxPrep = 0;
-    int totalRelHumid = 0;
-    int totalWindspeed = 0;
-
-    for (HourlyPeriod p : currentForecast) {
-      // precipitation
-      if (p.probabilityOfPrecipitation.value > maxPrep) {
-        maxPrep = p.probabilityOfPrecipitation.value;
-      }
-
-      // relative humidity
-      totalRelHumid += p.relativeHumidity.value;
-
-      // wind speed
-      Matcher m = Day.windPattern.matcher(p.windSpeed);
-      if (m.find())
-        totalWindspeed += Integer.parseInt(m.group(1));
-      else
-        totalWindspeed += 0;
-    }
-
-    // divide for averages
-    int size = currentForecast.size();
-    return new int[] { maxPrep, totalRelHumid / size, totalWindspeed / size };
-  }
-
   /**
    * gets the current temperature range based on the stored unit
    *
@@ -320,10 +247,10 @@ public class Day {
     String text = null;
     switch (this.unit) {
       case Celsius:
-        text = String.format("%d-%d°C", this.celsius[0], this.celsius[1]);
+        text = String.format("%d-%d°C", table.minTemperature(day, unit), table.maxTemperature(day, unit));
         break;
       case Fahrenheit:
-        text = String.format("%d-%d°F", this.fahrenheit[0], this.fahrenheit[1]);
+        text = String.format("%d-%d°F", table.minTemperature(day, unit), table.maxTemperature(day, unit));
         break;
     }
 
@@ -345,11 +272,9 @@ public class Day {
     Image icon;
     ImageView weatherIcon = new ImageView();
 
-    // get the most common forecast string and whether or not it is night
-    Pair<String, Boolean> commonForecast = getCommonForecast();
-    // get the icon from above
+    // get the icon of the most common forecast
     try {
-      icon = new IconResolver().getIcon(commonForecast.getKey(), false);
+      icon = new IconResolver().getIcon(table.commonForecast(day), false);
     } catch (FileNotFoundException e) {
       icon = new Image("/icons/drizzle.png");
     }
@@ -363,75 +288,37 @@ public class Day {
   }
 
   /**
-   * gets the most common {@code shortForecast} string found throughout the day
-   *
-   * @return a {@code Pair} of {@code String} and {@code Boolean} of the most
-   *         common {@code shortForecast} and {@code true} if day, {@code false}
-   *         if night.
-   */
-  private Pair<String, Boolean> getCommonForecast() {
-    // table of shortForecast to occurrence count, day/night
-    Hashtable<String, Pair<Integer, Boolean>> table = new Hashtable<>();
-
-    // iterate through the days forecast
-    for (HourlyPeriod p : currentForecast) {
-      // if found before, add one, else set to one
-      if (table.keySet().contains(p.shortForecast)) {
-        Pair<Integer, Boolean> pair = table.get(p.shortForecast);
-        table.put(p.shortForecast, new Pair<>(pair.getKey() + 1, p.isDaytime));
-      } else {
-        table.put(p.shortForecast, new Pair<>(1, p.isDaytime));
-      }
-    }
-
-    // find the most common
-    Pair<String, Boolean> common = new Pair<>("Sunny", true);
-    int commonCount = -1;
-
-    // go through the map to find the max count
-    for (Entry<String, Pair<Integer, Boolean>> pair : table.entrySet()) {
-      if (pair.getValue().getKey() > commonCount) {
-        commonCount = pair.getValue().getKey();
-        common = new Pair<>(pair.getKey(), pair.getValue().getValue());
-      }
-    }
-
-    return common;
-  }
-
-  /**
-   * get the name of the day of the week based on stored {@code Date}
+   * get the name of the day of the week based on stored {@code LocalDate}
    *
    * @return an {@code HBox} with the text set as the day of the week
    */
-  @SuppressWarnings("deprecation")
   public HBox dayTitle() {
     String text = null;
-    // if the date is today, just return today.
+    // if the date is today where the forecast is, just return today.
     // otherwise return day of the week
-    if (this.date.getDate() == new Date().getDate()) {
+    if (this.date.equals(LocalDate.now(table.index().zone()))) {
       text = "Today";
     } else {
-      switch (this.date.getDay()) {
-        case 0:
+      switch (this.date.getDayOfWeek()) {
+        case SUNDAY:
           text = "Sunday";
           break;
-        case 1:
+        case MONDAY:
           text = "Monday";
           break;
-        case 2:
+        case TUESDAY:
           text = "Tuesday";
           break;
-        case 3:
+        case WEDNESDAY:
           text = "Wednesday";
           break;
-        case 4:
+        case THURSDAY:
           text = "Thursday";
           break;
-        case 5:
+        case FRIDAY:
           text = "Friday";
           break;
-        case 6:
+        case SATURDAY:
           text = "Saturday";
           break;
       }
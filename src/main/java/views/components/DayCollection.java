@@ -1,8 +1,9 @@
 package views.components;
 
 import java.util.ArrayList;
-import java.util.Date;
+import java.util.List;
 
+import endpoints.my_weather.data.DayTable;
 import endpoints.my_weather.data.HourlyPeriod;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
@@ -30,30 +31,15 @@ public class DayCollection {
    * @param number_days the count of days to put in the collection
    * @param data        a forecast containing at least enough data for the
    *                    {@code number_days} given
+   * @param table       the {@code DayTable} of {@code data}
    * @param viewType    a viewType for styling. @see DayViewType
    */
-  @SuppressWarnings("deprecation")
-  public DayCollection(int number_days, ArrayList<HourlyPeriod> data, DayViewType viewType) {
+  public DayCollection(int number_days, List<HourlyPeriod> data, DayTable table, DayViewType viewType) {
     this.days = new ArrayList<>();
     this.viewType = viewType;
 
-    Date previousDay = data.getFirst().startTime;
-    days.add(new Day(data, previousDay));
-
-    int collected_days = 1;
-    for (HourlyPeriod h : data) {
-
-      if (collected_days >= number_days) {
-        break;
-      }
-
-      if (h.startTime.getDate() == previousDay.getDate()) {
-        continue;
-      } else {
-        previousDay = h.startTime;
-        days.add(new Day(data, previousDay));
-        collected_days += 1;
-      }
+    for (int day = 0; day < Math.min(number_days, table.days()); day++) {
+      days.add(new Day(data, table, day));
     }
   }
 
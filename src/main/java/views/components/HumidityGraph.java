@@ -1,6 +1,6 @@
 package views.components;
 
-import java.util.Date;
+import java.time.ZoneId;
 import java.util.Vector;
 
 import endpoints.my_weather.data.HourlyPeriod;
@@ -16,6 +16,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.util.StringConverter;
+import views.util.HourLabels;
 
 /**
  * {@code HumidityGraph} holds state for a humidity
@@ -25,8 +26,11 @@ import javafx.util.StringConverter;
 public class HumidityGraph {
   Vector<DataPoint> data;
   HumidityLimits humid_limits;
-  Date min_time;
-  static long MILLISECONDS_IN_THREE_HOURS = 60 * 60 * 3 * 1000;
+  // epoch seconds of the first hour
+  long min_time;
+  // labels the time axis in the forecast location's zone
+  HourLabels labels;
+  static long SECONDS_IN_THREE_HOURS = 60 * 60 * 3;
 
   /**
    * Minimum and maximum {@code Temperature}s
@@ -129,16 +133,16 @@ public class HumidityGraph {
    */
   private class DataPoint implements Comparable<DataPoint> {
     private Humidity temp;
-    private Date date;
+    private long time;
 
     /**
      * create a new {@code datapoint} given a day and humidity value
      *
-     * @param day the {@code date} for the point
+     * @param time the start of the hour for the point, in epoch seconds
      * @param t   the humidity for the point
      */
-    public DataPoint(Date day, int t) {
-      this.date = day;
+    public DataPoint(long time, int t) {
+      this.time = time;
       this.temp = new Humidity(t);
     }
 
@@ -150,10 +154,10 @@ public class HumidityGraph {
     }
 
     /**
-     * @return {@code long} UNIX-time value of this date
+     * @return {@code long} UNIX-time value of this point, in seconds
      */
     public long time() {
-      return this.date.getTime();
+      return this.time;
     }
 
     // NOTE: This is the recommended way to do this,
@@ -189,21 +193,20 @@ public class HumidityGraph {
 
   /**
    * @param data {@code Iterable} container for {@code HourlyPeriod}
-   * @param day  {@code Date} object representing the target day to generate the
-   *             graph
+   * @param zone {@code ZoneId} of the forecast location, which the time axis is
+   *             labelled in
    */
-  public <T extends Iterable<HourlyPeriod>> HumidityGraph(T data, Date day) {
-    initializeFromData(data, day);
+  public <T extends Iterable<HourlyPeriod>> HumidityGraph(T data, ZoneId zone) {
+    this.labels = new HourLabels(zone);
+    initializeFromData(data);
   };
 
   /**
    * Build container around {@code HourlyPeriod} extracting {@code DataPoint}s
    *
    * @param data {@code Iterable} container for {@code HourlyPeriod}
-   * @param day  {@code Date} object representing the target day to generate the
-   *             graph
    */
-  private <T extends Iterable<HourlyPeriod>> void initializeFromData(T data, Date day) {
+  private <T extends Iterable<HourlyPeriod>> void initializeFromData(T data) {
     if (this.data != null) {
       this.data.clear();
     } else {
@@ -249,7 +252,7 @@ public class HumidityGraph {
     // see the tutorial for LineCharts here:
     // https://docs.oracle.com/javafx/2/charts/line-chart.htm
     NumberAxis hourAxis = new NumberAxis(data.firstElement().time(), data.lastElement().time(),
-        MILLISECONDS_IN_THREE_HOURS);
+        SECONDS_IN_THREE_HOURS);
     NumberAxis humidAxis = new NumberAxis(humid_limits.min() - humid_limits.pad(),
         Math.min(humid_limits.max() + humid_limits.pad(), 100),
         10);
@@ -292,12 +295,10 @@ public class HumidityGraph {
    * will represent this state.
    *
    * @param data {@code Iterable} container for {@code HourlyPeriod}
-   * @param day  {@code Date} object representing the target day to generate the
-   *             graph
    *
    */
-  public <T extends Iterable<HourlyPeriod>> void update(T data, Date day) {
-    initializeFromData(data, day);
+  public <T extends Iterable<HourlyPeriod>> void update(T data) {
+    initializeFromData(data);
   };
 
   /**
@@ -315,19 +316,9 @@ public class HumidityGraph {
        *
        * @return a {@code String} of the data label
        */
-      @SuppressWarnings("deprecation")
       @Override
       public String toString(Number object) {
-        Date time = new Date(object.longValue());
-        if (time.getHours() == 12) {
-          return String.format("%d pm", 12);
-        } else if (time.getHours() == 0) {
-          return String.format("%d am", 12);
-        } else if (time.getHours() > 12) {
-          return String.format("%d pm", time.getHours() % 12);
-        } else {
-          return String.format("%d am", time.getHours());
-        }
+        return labels.label(object.longValue());
       }
 
       /**
@@ -1,6 +1,6 @@
 package views.components;
 
-import java.util.Date;
+import java.time.ZoneId;
 import java.util.Vector;
 
 import endpoints.my_weather.data.HourlyPeriod;
@@ -16,6 +16,7 @@ import javafx.scene.layout.VBox;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.util.StringConverter;
+import views.util.HourLabels;
 import views.util.UnitHandler.TemperatureUnit;
 
 /**
@@ -25,8 +26,11 @@ import views.util.UnitHandler.TemperatureUnit;
 public class TempGraph {
   Vector<DataPoint> data;
   TemperatureLimits temp_limits;
-  Date min_time;
-  static long MILLISECONDS_IN_THREE_HOURS = 60 * 60 * 3 * 1000;
+  // epoch seconds of the first hour
+  long min_time;
+  // labels the time axis in the forecast location's zone
+  HourLabels labels;
+  static long SECONDS_IN_THREE_HOURS = 60 * 60 * 3;
 
   /**
    * Minimum and maximum {@code Temperature}s
@@ -142,16 +146,16 @@ public class TempGraph {
    */
   private class DataPoint implements Comparable<DataPoint> {
     private Temperature temp;
-    private Date date;
+    private long time;
 
     /**
      * create a new {@code datapoint} given a day and temperature value
      *
-     * @param day the {@code date} for the point
+     * @param time the start of the hour for the point, in epoch seconds
      * @param t   the temperature for the point
      */
-    public DataPoint(Date day, int t) {
-      this.date = day;
+    public DataPoint(long time, int t) {
+      this.time = time;
       this.temp = new Temperature(t);
     }
 
@@ -163,10 +167,10 @@ public class TempGraph {
     }
 
     /**
-     * @return {@code long} UNIX-time value of this date
+     * @return {@code long} UNIX-time value of this point, in seconds
      */
     public long time() {
-      return this.date.getTime();
+      return this.time;
     }
 
     // NOTE: This is the recommended way to do this,
@@ -202,11 +206,12 @@ public class TempGraph {
 
   /**
    * @param data {@code Iterable} container for {@code HourlyPeriod}
-   * @param day  {@code Date} object representing the target day to generate the
-   *             graph
+   * @param zone {@code ZoneId} of the forecast location, which the time axis is
+   *             labelled in
    * @param unit {@code TempUnit} which unit to use for the axis
    */
-  public <T extends Iterable<HourlyPeriod>> TempGraph(T data, TemperatureUnit unit) {
+  public <T extends Iterable<HourlyPeriod>> TempGraph(T data, ZoneId zone, TemperatureUnit unit) {
+    this.labels = new HourLabels(zone);
     initializeFromData(data, unit);
   };
 
@@ -214,8 +219,6 @@ public class TempGraph {
    * Build container around {@code HourlyPeriod} extracting {@code DataPoint}s
    *
    * @param data {@code Iterable} container for {@code HourlyPeriod}
-   * @param day  {@code Date} object representing the target day to generate the
-   *             graph
    * @param unit {@code TempUnit} which unit to use for the axis
    */
   private <T extends Iterable<HourlyPeriod>> void initializeFromData(T data, TemperatureUnit unit) {
@@ -269,7 +272,7 @@ public class TempGraph {
     // see the tutorial for LineCharts here:
     // https://docs.oracle.com/javafx/2/charts/line-chart.htm
     NumberAxis hourAxis = new NumberAxis(data.firstElement().time(), data.lastElement().time(),
-        MILLISECONDS_IN_THREE_HOURS);
+        SECONDS_IN_THREE_HOURS);
     NumberAxis tempAxis;
 
     // add padding to the limits
@@ -342,19 +345,9 @@ public class TempGraph {
        *
        * @return a {@code String} of the data label
        */
-      @SuppressWarnings("deprecation")
       @Override
       public String toString(Number object) {
-        Date time = new Date(object.longValue());
-        if (time.getHours() == 12) {
-          return String.format("%d pm", 12);
-        } else if (time.getHours() == 0) {
-          return String.format("%d am", 12);
-        } else if (time.getHours() > 12) {
-          return String.format("%d pm", time.getHours() % 12);
-        } else {
-          return String.format("%d am", time.getHours());
-        }
+        return labels.label(object.longValue());
       }
 
       /**
@@ -436,7 +429,7 @@ public class TempGraph {
     // see the tutorial for LineCharts here:
     // https://docs.oracle.com/javafx/2/charts/line-chart.htm
     NumberAxis hourAxis = new NumberAxis(data.firstElement().time(), data.lastElement().time(),
-        MILLISECONDS_IN_THREE_HOURS);
+        SECONDS_IN_THREE_HOURS);
     NumberAxis tempAxis;
 
     // add padding to the limits
@@ -1,6 +1,7 @@
 package views.components.sidebar;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -128,6 +129,17 @@ public class CitySearch {
     return content;
   }
 
+  /**
+   * the predicate search results are filtered with
+   *
+   * @param filter the text in the search box
+   * @return a {@code Predicate} matching every {@code City} whose display name
+   *         contains {@code filter}, ignoring case
+   */
+  public static Predicate<City> matching(String filter) {
+    return city -> city.display.toLowerCase().contains(filter.toLowerCase());
+  }
+
   private void styleComponents() {
 
     // style
@@ -155,8 +167,7 @@ public class CitySearch {
         filteredList.setPredicate(s -> false);
       } else {
         cityListView.setVisible(true);
-        filteredList
-            .setPredicate(city -> city.display.toLowerCase().contains(filter.toLowerCase()));
+        filteredList.setPredicate(matching(filter));
       }
       if (!filteredList.isEmpty()) {
         cityListView.getSelectionModel().select(0);
@@ -1,5 +1,6 @@
 package views.components.widgets;
 
+import endpoints.my_weather.data.Wind;
 import javafx.geometry.Insets;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.Region;
@@ -88,39 +89,6 @@ public class CompassBox extends SmallBox {
    * @return a {@code String} 16 point compass direction
    */
   private String getCompassDir() {
-    if (windDir <= 11.25)
-      return "N";
-    else if (windDir <= 33.75)
-      return "NNE";
-    else if (windDir <= 56.25)
-      return "NE";
-    else if (windDir <= 78.75)
-      return "ENE";
-    else if (windDir <= 101.25)
-      return "E";
-    else if (windDir <= 123.75)
-      return "ESE";
-    else if (windDir <= 146.25)
-      return "SE";
-    else if (windDir <= 168.75)
-      return "SSE";
-    else if (windDir <= 191.25)
-      return "S";
-    else if (windDir <= 213.75)
-      return "SSW";
-    else if (windDir <= 236.25)
-      return "SW";
-    else if (windDir <= 258.75)
-      return "WSW";
-    else if (windDir <= 281.25)
-      return "W";
-    else if (windDir <= 303.75)
-      return "WNW";
-    else if (windDir <= 326.25)
-      return "NW";
-    else if (windDir <= 348.75)
-      return "NNW";
-    else
-      return "N";
+    return Wind.compassPoint(windDir);
   }
 }
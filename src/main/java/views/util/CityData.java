@@ -8,6 +8,9 @@ import java.util.concurrent.CompletableFuture;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.ResultSet;
+import java.io.IOException;
+
+import tracing.CityListEvent;
 
 /**
  * A collection of data corresponding to real-life cities.
@@ -53,6 +56,8 @@ public class CityData {
 
   public ObservableList<City> getCityList() {
 
+    CityListEvent event = new CityListEvent();
+    event.begin();
     ObservableList<City> cityList = FXCollections.observableArrayList();
 
     // get path to our db
@@ -79,6 +84,24 @@ public class CityData {
       System.err.println(e.getMessage());
       throw new RuntimeException("Exception occurred while reading database", e);
     }
+
+    event.end();
+    if (event.shouldCommit()) {
+      event.cities = cityList.size();
+      event.bytes = databaseSize();
+      event.commit();
+    }
     return cityList;
   }
+
+  /**
+   * @return the size of the city database, or -1 if it is unknown
+   */
+  private long databaseSize() {
+    try {
+      return getClass().getResource(resourceString).openConnection().getContentLengthLong();
+    } catch (IOException e) {
+      return -1;
+    }
+  }
 }
@@ -0,0 +1,70 @@
+package views.util;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * Labels the hours of a graph's time axis, like {@code 3 pm}, in the time zone
+ * of the forecast location rather than this machine's.
+ *
+ * The zone's offset is looked up once and reused until its next transition,
+ * so labelling a tick does no date math and allocates nothing.
+ */
+public class HourLabels {
+  private static final int SECONDS_IN_DAY = 24 * 60 * 60;
+  private static final int SECONDS_IN_HOUR = 60 * 60;
+
+  // label of each hour of the day, starting at midnight
+  private static final String[] LABELS = new String[24];
+
+  static {
+    for (int hour = 0; hour < 24; hour++) {
+      int twelve = hour % 12 == 0 ? 12 : hour % 12;
+      LABELS[hour] = twelve + (hour < 12 ? " am" : " pm");
+    }
+  }
+
+  private final ZoneRules rules;
+
+  // the offset in seconds, good from {@code validFrom} until {@code validTo}
+  private int offset;
+  private long validFrom = Long.MAX_VALUE, validTo = Long.MIN_VALUE;
+
+  /**
+   * create labels for a zone
+   *
+   * @param zone the zone of the forecast location
+   */
+  public HourLabels(ZoneId zone) {
+    this.rules = zone.getRules();
+  }
+
+  /**
+   * get the hour of the day an instant falls on
+   *
+   * @param epochSecond the instant, in epoch seconds
+   * @return the hour, 0 to 23
+   */
+  public int hourOf(long epochSecond) {
+    if (epochSecond < validFrom || epochSecond >= validTo) {
+      Instant instant = Instant.ofEpochSecond(epochSecond);
+      ZoneOffsetTransition next = rules.nextTransition(instant);
+      offset = rules.getOffset(instant).getTotalSeconds();
+      validFrom = epochSecond;
+      validTo = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+    }
+    return Math.floorMod(epochSecond + offset, SECONDS_IN_DAY) / SECONDS_IN_HOUR;
+  }
+
+  /**
+   * get the label of the hour an instant falls on
+   *
+   * @param epochSecond the instant, in epoch seconds
+   * @return a label like {@code 12 am} or {@code 3 pm}
+   */
+  public String label(long epochSecond) {
+    return LABELS[hourOf(epochSecond)];
+  }
+}
@@ -66,10 +66,16 @@ public class IconResolver {
   }
 
   /**
+   * find the icon that best matches a forecast, without loading it. unlike
+   * {@code getIcon} this does not need the JavaFX toolkit
+   *
    * @param short_forecast {@code String} representing the pattern to match
    *                       against
+   * @param isNight        {@code true} to skip day icons, {@code false} to skip
+   *                       night icons
+   * @return the {@code Path} of the closest matching icon
    */
-  private Path getFilePath(String short_forecast, Boolean isNight) throws FileNotFoundException {
+  public Path getFilePath(String short_forecast, Boolean isNight) throws FileNotFoundException {
 
     try {
 
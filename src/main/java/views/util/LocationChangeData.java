@@ -2,6 +2,7 @@ package views.util;
 
 import java.util.ArrayList;
 
+import endpoints.my_weather.api.DetailedForecastConverter;
 import endpoints.my_weather.data.GridPoint;
 import endpoints.my_weather.data.HourlyPeriod;
 import endpoints.my_weather.data.Period;
@@ -26,6 +27,8 @@ public class LocationChangeData {
    */
   public static class DetailedForecasts {
     public String USdetailedForecast;
+    // built from the US forecast the first time it is asked for, see
+    // {@code fromUS}
     public String SIdetailedForecast;
 
     public DetailedForecasts(String us, String si) {
@@ -33,6 +36,17 @@ public class LocationChangeData {
       this.SIdetailedForecast = si;
     }
 
+    /**
+     * create detailed forecasts from a single US unit forecast. the SI forecast
+     * is converted locally on first use instead of being fetched.
+     *
+     * @param us the detailed forecast in US units
+     * @return the {@code DetailedForecasts}
+     */
+    public static DetailedForecasts fromUS(String us) {
+      return new DetailedForecasts(us, null);
+    }
+
     /**
      * Get the appropriate forecast based on the given {@code TemperatureUnit}
      *
@@ -42,6 +56,9 @@ public class LocationChangeData {
     public String getDetailedForecast(TemperatureUnit unit) {
       switch (unit) {
         case Celsius:
+          if (this.SIdetailedForecast == null) {
+            this.SIdetailedForecast = DetailedForecastConverter.toSI(this.USdetailedForecast);
+          }
           return this.SIdetailedForecast;
         case Fahrenheit:
           return this.USdetailedForecast;
@@ -1,7 +1,6 @@
 package weather;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
@@ -9,17 +8,19 @@ import java.util.ArrayList;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper; // version 2.11.1
 
+import endpoints.transport.NwsTransport;
+
 
 public class WeatherAPI {
   public static ArrayList<Period> getForecast(String region, int gridx, int gridy) {
     HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create("https://api.weather.gov/gridpoints/" + region + "/" + String.valueOf(gridx)
+        .uri(URI.create(NwsTransport.baseUrl() + "/gridpoints/" + region + "/" + String.valueOf(gridx)
             + "," + String.valueOf(gridy) + "/forecast"))
         // .method("GET", HttpRequest.BodyPublishers.noBody())
         .build();
     HttpResponse<String> response = null;
     try {
-      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+      response = NwsTransport.send(request, HttpResponse.BodyHandlers.ofString());
     } catch (Exception e) {
       e.printStackTrace();
     }
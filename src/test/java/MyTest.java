@@ -1,13 +0,0 @@
-import static org.junit.jupiter.api.Assertions.*;
-
-import org.junit.jupiter.api.Test;
-
-
-class MyTest {
-
-  @Test
-  void test() {
-    fail("Not yet implemented");
-  }
-
-}
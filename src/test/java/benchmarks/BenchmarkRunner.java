@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+/**
+ * Runs the benchmarks and writes the results as JMH JSON, so runs can be
+ * compared with each other or loaded into a JMH visualizer.
+ *
+ * usage: {@code BenchmarkRunner [--output FILE] [--quick] [-e PATTERN]...
+ * [PATTERN]...}
+ *
+ * patterns are regular expressions over the benchmark names, like
+ * {@code DayBenchmark} or {@code CitySearch.*filter}. no patterns runs every
+ * benchmark. {@code --quick} cuts warmup and measurement to a single short
+ * iteration, for checking that the benchmarks run rather than for numbers.
+ * results go to {@code target/jmh-result.json} unless {@code --output} says
+ * otherwise.
+ *
+ * with maven: {@code mvn -Pbenchmarks test-compile exec:exec}
+ */
+public class BenchmarkRunner {
+  private static final String USAGE = "usage: BenchmarkRunner [--output FILE] [--quick] [-e PATTERN]... [PATTERN]...";
+
+  public static void main(String[] args) throws Exception {
+    List<String> includes = new ArrayList<>();
+    List<String> excludes = new ArrayList<>();
+    String output = "target/jmh-result.json";
+    boolean quick = false;
+
+    try {
+      for (int i = 0; i < args.length; i++) {
+        switch (args[i]) {
+          case "--output":
+            output = args[++i];
+            break;
+          case "--quick":
+            quick = true;
+            break;
+          case "-e":
+            excludes.add(args[++i]);
+            break;
+          default:
+            if (args[i].startsWith("-")) {
+              System.err.println("Unknown option " + args[i]);
+              System.err.println(USAGE);
+              System.exit(2);
+            }
+            includes.add(args[i]);
+        }
+      }
+    } catch (ArrayIndexOutOfBoundsException e) {
+      System.err.println(USAGE);
+      System.exit(2);
+    }
+
+    ChainedOptionsBuilder options = new OptionsBuilder()
+        .resultFormat(ResultFormatType.JSON)
+        .result(output);
+
+    includes.forEach(options::include);
+    excludes.forEach(options::exclude);
+
+    if (quick) {
+      options.warmupIterations(1)
+          .warmupTime(TimeValue.milliseconds(200))
+          .measurementIterations(1)
+          .measurementTime(TimeValue.milliseconds(200));
+    }
+
+    new Runner(options.build()).run();
+    System.err.println("Results written to " + output);
+  }
+}
@@ -0,0 +1,63 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import views.components.sidebar.CitySearch;
+import views.util.CityData;
+import views.util.CityData.City;
+
+/**
+ * Measures one keystroke of the city search: filtering every city in
+ * {@code us_cities.db} with the predicate {@code CitySearch} sets on its
+ * {@code FilteredList}. short filters match many cities, long ones almost none.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CitySearchBenchmark {
+  ObservableList<City> cities;
+  FilteredList<City> filtered;
+
+  @Setup
+  public void loadCities() {
+    cities = new CityData().getCityList();
+    filtered = new FilteredList<>(cities);
+  }
+
+  @Benchmark
+  public int filter(Query query) {
+    filtered.setPredicate(CitySearch.matching(query.filter));
+    return filtered.size();
+  }
+
+  @Benchmark
+  public int databaseLoad() {
+    return new CityData().getCityList().size();
+  }
+
+  /**
+   * the text in the search box
+   */
+  @State(Scope.Benchmark)
+  public static class Query {
+    @Param({ "c", "chi", "chicago, il" })
+    String filter;
+  }
+}
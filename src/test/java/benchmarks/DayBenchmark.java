@@ -0,0 +1,106 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.data.DayIndex;
+import endpoints.my_weather.data.DayTable;
+import endpoints.my_weather.data.HourlyPeriod;
+import views.components.Day;
+import views.components.Day.DayView.DayViewType;
+import views.components.DayCollection;
+
+/**
+ * Measures turning a 156 hour forecast into days, without building any of the
+ * JavaFX components: the {@code DayIndex}, the {@code DayTable} of per-day
+ * statistics, keeping the table up to date, a single {@code Day}, and the
+ * {@code DayCollection}s of the three and ten day scenes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DayBenchmark {
+  // the zone of the fixture's grid point
+  static final ZoneId ZONE = ZoneId.of("America/Chicago");
+
+  ArrayList<HourlyPeriod> periods;
+  // the same forecast an hour later
+  List<HourlyPeriod> nextHour;
+  DayTable table;
+
+  // the table updated back and forth between the two forecasts
+  DayTable shifting;
+  boolean shifted;
+
+  @Setup
+  public void loadFixture() throws IOException {
+    String body = new String(Fixtures.read("fixtures/hourly_forecast.json"), StandardCharsets.UTF_8);
+    periods = MyWeatherAPI.getHourlyObject(body).properties.periods;
+    nextHour = periods.subList(1, periods.size());
+
+    table = DayTable.of(periods, ZONE);
+    shifting = DayTable.of(periods, ZONE);
+  }
+
+  @Benchmark
+  public DayIndex index() {
+    return DayIndex.of(periods, ZONE);
+  }
+
+  @Benchmark
+  public DayTable table() {
+    return DayTable.of(periods, ZONE);
+  }
+
+  /**
+   * the same forecast arriving again, nothing to recompute
+   */
+  @Benchmark
+  public int updateUnchanged() {
+    return table.update(periods);
+  }
+
+  /**
+   * a forecast that moved forward an hour, which only recomputes the first
+   * day, then back again, which recomputes every day
+   */
+  @Benchmark
+  public int updateShifted() {
+    shifted = !shifted;
+    return shifting.update(shifted ? nextHour : periods);
+  }
+
+  @Benchmark
+  public Day construct() {
+    return new Day(periods, table, 1);
+  }
+
+  @Benchmark
+  public DayCollection threeDayCollection() {
+    return new DayCollection(3, periods, table, DayViewType.ThreeDay);
+  }
+
+  @Benchmark
+  public DayCollection tenDayCollection() {
+    return new DayCollection(10, periods, table, DayViewType.TenDay);
+  }
+}
@@ -0,0 +1,24 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads recorded responses from {@code src/test/resources}
+ */
+public class Fixtures {
+  /**
+   * read a fixture into memory
+   *
+   * @param name the resource path of the fixture
+   * @return the bytes of the fixture
+   */
+  public static byte[] read(String name) throws IOException {
+    try (InputStream in = Fixtures.class.getClassLoader().getResourceAsStream(name)) {
+      if (in == null) {
+        throw new IOException("Missing fixture " + name);
+      }
+      return in.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,52 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.api.json.HourlyPeriodJson;
+import endpoints.my_weather.api.json.PeriodJson;
+
+/**
+ * Measures the {@code ObjectMapper} binding of both forecast responses, from
+ * the body {@code String} the transport hands over: the 156 hour
+ * {@code /forecast/hourly} and the 14 period {@code /forecast}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ForecastDecodeBenchmark {
+  String hourly;
+  String forecast;
+
+  @Setup
+  public void loadFixtures() throws IOException {
+    hourly = new String(Fixtures.read("fixtures/hourly_forecast.json"), StandardCharsets.UTF_8);
+    forecast = new String(Fixtures.read("fixtures/forecast.json"), StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public HourlyPeriodJson getHourlyObject() {
+    return MyWeatherAPI.getHourlyObject(hourly);
+  }
+
+  @Benchmark
+  public PeriodJson getObject() {
+    return MyWeatherAPI.getObject(forecast);
+  }
+}
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import endpoints.my_weather.api.HourlyForecastDecoder;
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.my_weather.api.json.HourlyPeriodJson;
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.HourlyPeriod;
+
+/**
+ * Compares the two ways of reading a 156 hour {@code /forecast/hourly}
+ * response: binding the body {@code String} to {@code HourlyPeriodJson} and
+ * copying out the periods, against streaming it into a {@code ForecastSeries}.
+ *
+ * run with {@code -prof gc} to compare allocation per decode as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HourlyDecodeBenchmark {
+  byte[] body;
+
+  @Setup
+  public void loadFixture() throws IOException {
+    body = Fixtures.read("fixtures/hourly_forecast.json");
+  }
+
+  /**
+   * the path {@code MyWeatherAPI.getHourlyForecast} takes
+   */
+  @Benchmark
+  public ArrayList<HourlyPeriod> objectMapper() {
+    HourlyPeriodJson r = MyWeatherAPI.getHourlyObject(new String(body, StandardCharsets.UTF_8));
+
+    ArrayList<HourlyPeriod> periods = new ArrayList<>();
+    r.properties.periods.iterator().forEachRemaining(period -> {
+      periods.add((HourlyPeriod) period);
+    });
+    return periods;
+  }
+
+  /**
+   * the path {@code MyWeatherAPI.getHourlySeries} takes
+   */
+  @Benchmark
+  public ForecastSeries streamingDecoder() throws IOException {
+    try (InputStream in = new ByteArrayInputStream(body)) {
+      return HourlyForecastDecoder.decode(in);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import java.io.FileNotFoundException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import views.util.IconResolver;
+
+/**
+ * Measures picking the icon for a forecast. {@code getFilePath} is the match
+ * against every icon on disk, {@code getIcon} adds loading the image and needs
+ * the JavaFX toolkit, so it fails on machines without a display. exclude it
+ * there with {@code -e getIcon}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IconResolverBenchmark {
+  @Param({ "Sunny", "Chance Light Rain", "Patchy Fog then Mostly Cloudy" })
+  String forecast;
+
+  IconResolver resolver;
+
+  @Setup
+  public void setup() {
+    resolver = new IconResolver();
+  }
+
+  @Benchmark
+  public Path getFilePath() throws FileNotFoundException {
+    return resolver.getFilePath(forecast, false);
+  }
+
+  @Benchmark
+  public Image getIcon(Toolkit toolkit) throws FileNotFoundException {
+    return resolver.getIcon(forecast, false);
+  }
+
+  /**
+   * starts the JavaFX toolkit, only for the benchmarks that load images
+   */
+  @State(Scope.Benchmark)
+  public static class Toolkit {
+    @Setup
+    public void startup() {
+      Platform.startup(() -> {
+      });
+    }
+
+    @TearDown
+    public void exit() {
+      Platform.exit();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import endpoints.weather_observations.api.ObservationDecoder;
+import endpoints.weather_observations.data.Observations;
+
+/**
+ * Measures streaming a {@code /stations/KMDW/observations/latest} response
+ * body into a flat {@code Observations}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservationDecodeBenchmark {
+  byte[] body;
+
+  @Setup
+  public void loadFixture() throws IOException {
+    body = Fixtures.read("fixtures/observations_latest.json");
+  }
+
+  @Benchmark
+  public Observations decode() throws IOException {
+    return ObservationDecoder.decode(new ByteArrayInputStream(body));
+  }
+}
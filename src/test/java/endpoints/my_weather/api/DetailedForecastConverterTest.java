@@ -0,0 +1,51 @@
+package endpoints.my_weather.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class DetailedForecastConverterTest {
+  @Test
+  void temperatures() {
+    assertEquals("Cloudy, with a high near 14.", DetailedForecastConverter.toSI("Cloudy, with a high near 58."));
+    assertEquals("Clear, with a low around 5.", DetailedForecastConverter.toSI("Clear, with a low around 41."));
+    assertEquals("Bitter cold, with temperatures as low as -19.",
+        DetailedForecastConverter.toSI("Bitter cold, with temperatures as low as -3."));
+    assertEquals("Mostly cloudy, with temperatures rising to 7 by 5pm.",
+        DetailedForecastConverter.toSI("Mostly cloudy, with temperatures rising to 45 by 5pm."));
+  }
+
+  @Test
+  void winds() {
+    assertEquals("E wind 16 to 24 km/h, with gusts as high as 40 km/h.",
+        DetailedForecastConverter.toSI("E wind 10 to 15 mph, with gusts as high as 25 mph."));
+    assertEquals("W wind 24 km/h.", DetailedForecastConverter.toSI("W wind 15 mph."));
+  }
+
+  @Test
+  void amounts() {
+    assertEquals("New snow accumulation of 3 to 8 cm possible.",
+        DetailedForecastConverter.toSI("New snow accumulation of 1 to 3 inches possible."));
+    assertEquals("Around 1 cm of rain.", DetailedForecastConverter.toSI("Around 0.25 inch of rain."));
+  }
+
+  @Test
+  void everythingElseIsLeftAsIs() {
+    for (String text : new String[] { "Chance of precipitation is 40%.", "Chance of precipitation is 40 percent.",
+        "Chance of rain around 40 percent.",
+        "New rainfall amounts less than a tenth of an inch possible.", "Showers And Thunderstorms Likely." }) {
+      assertEquals(text, DetailedForecastConverter.toSI(text));
+    }
+    assertNull(DetailedForecastConverter.toSI(null));
+  }
+
+  @Test
+  void wholeForecast() {
+    assertEquals("Chance Showers And Thunderstorms. Cloudy, with a high near 14. E wind 16 to 24 km/h, with"
+        + " gusts as high as 40 km/h. Chance of precipitation is 40%. New rainfall amounts less than a tenth"
+        + " of an inch possible.",
+        DetailedForecastConverter.toSI("Chance Showers And Thunderstorms. Cloudy, with a high near 58. E wind"
+            + " 10 to 15 mph, with gusts as high as 25 mph. Chance of precipitation is 40%. New rainfall amounts"
+            + " less than a tenth of an inch possible."));
+  }
+}
@@ -0,0 +1,83 @@
+package endpoints.my_weather.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import endpoints.my_weather.data.ForecastSeries;
+import endpoints.my_weather.data.GridPoint;
+import endpoints.my_weather.data.HourlyPeriod;
+import endpoints.my_weather.data.Period;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import fake.FakeNwsServer;
+import views.util.UnitHandler.TemperatureUnit;
+
+class MyWeatherAPITest {
+  static FakeNwsServer server;
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    server = FakeNwsServer.start();
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+  }
+
+  @AfterAll
+  static void stopServer() {
+    NwsTransport.configure(new TransportConfig());
+    server.close();
+  }
+
+  @Test
+  void gridPoint() throws Exception {
+    GridPoint point = MyWeatherAPI.getGridPoint(41.8781, -87.6298);
+    assertNotNull(point);
+    assertEquals("LOT", point.region);
+    assertEquals(76, point.gridX);
+    assertEquals(73, point.gridY);
+    assertEquals("Chicago, IL", point.location);
+    assertEquals(ZoneId.of("America/Chicago"), point.zone);
+  }
+
+  @Test
+  void hourlyForecast() throws Exception {
+    ArrayList<HourlyPeriod> periods = MyWeatherAPI.getHourlyForecast("LOT", 76, 73);
+    assertNotNull(periods);
+    assertEquals(156, periods.size());
+    assertEquals(1, periods.getFirst().number);
+  }
+
+  @Test
+  void hourlySeriesMatchesHourlyForecast() throws Exception {
+    ArrayList<HourlyPeriod> periods = MyWeatherAPI.getHourlyForecast("LOT", 76, 73);
+    ForecastSeries series = MyWeatherAPI.getHourlySeries("LOT", 76, 73);
+    assertNotNull(series);
+    assertEquals(periods.size(), series.size());
+    for (int i = 0; i < series.size(); i++) {
+      assertEquals(periods.get(i).temperature, series.temperature(i));
+      assertEquals(periods.get(i).startTime, series.startTime(i));
+      assertEquals(periods.get(i).endTime, series.endTime(i));
+      assertEquals(periods.get(i).shortForecast, series.shortForecast(i));
+    }
+    // each phrase is kept once, however many hours use it
+    assertTrue(series.forecastCount() < series.size() / 4);
+  }
+
+  @Test
+  void forecast() throws Exception {
+    Period today = MyWeatherAPI.getForecast("LOT", 76, 73, TemperatureUnit.Fahrenheit);
+    assertNotNull(today);
+    assertEquals("This Afternoon", today.name);
+    assertTrue(today.detailedForecast.contains("high near 58"));
+  }
+}
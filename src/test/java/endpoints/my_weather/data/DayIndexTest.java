@@ -0,0 +1,95 @@
+package endpoints.my_weather.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class DayIndexTest {
+  static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+
+  /**
+   * hourly periods from {@code start}, one per hour
+   */
+  static List<HourlyPeriod> hours(ZonedDateTime start, int count) {
+    List<HourlyPeriod> periods = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      HourlyPeriod period = new HourlyPeriod();
+      period.startTime = start.plusHours(i).toEpochSecond();
+      periods.add(period);
+    }
+    return periods;
+  }
+
+  @Test
+  void splitsAcrossMonthBoundary() {
+    // 3 hours of the 30th, all of the 31st, then 5 hours into the next month
+    ZonedDateTime start = ZonedDateTime.of(2025, 3, 30, 21, 0, 0, 0, CHICAGO);
+    DayIndex index = DayIndex.of(hours(start, 3 + 24 + 5), CHICAGO);
+
+    assertEquals(3, index.days());
+    assertEquals(LocalDate.of(2025, 3, 30), index.date(0));
+    assertEquals(LocalDate.of(2025, 3, 31), index.date(1));
+    assertEquals(LocalDate.of(2025, 4, 1), index.date(2));
+    assertEquals(3, index.hours(0));
+    assertEquals(24, index.hours(1));
+    assertEquals(27, index.from(2));
+    assertEquals(32, index.to(2));
+  }
+
+  @Test
+  void followsDaylightSaving() {
+    // the 9th of march 2025 is 23 hours long in chicago
+    ZonedDateTime start = ZonedDateTime.of(2025, 3, 9, 0, 0, 0, 0, CHICAGO);
+    DayIndex index = DayIndex.of(hours(start, 30), CHICAGO);
+
+    assertEquals(2, index.days());
+    assertEquals(23, index.hours(0));
+    assertEquals(7, index.hours(1));
+  }
+
+  @Test
+  void groupsByTheGivenZone() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 4, 2, 20, 0, 0, 0, CHICAGO);
+    List<HourlyPeriod> periods = hours(start, 6);
+
+    // 8pm to 1am in chicago is 6pm to 11pm in los angeles
+    assertEquals(2, DayIndex.of(periods, CHICAGO).days());
+    assertEquals(1, DayIndex.of(periods, ZoneId.of("America/Los_Angeles")).days());
+  }
+
+  @Test
+  void updatesIncrementally() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 4, 2, 12, 0, 0, 0, CHICAGO);
+    List<HourlyPeriod> periods = hours(start, 48);
+    DayIndex index = DayIndex.of(periods.subList(0, 10), CHICAGO);
+    assertEquals(1, index.days());
+
+    // more hours on the end are appended
+    index.update(periods);
+    assertEquals(48, index.size());
+    assertEquals(3, index.days());
+    assertEquals(12, index.hours(0));
+
+    // a forecast starting later is indexed from scratch
+    index.update(periods.subList(20, 48));
+    assertEquals(28, index.size());
+    assertEquals(2, index.days());
+    assertEquals(LocalDate.of(2025, 4, 3), index.date(0));
+    assertEquals(16, index.hours(0));
+  }
+
+  @Test
+  void slicesTheIndexedList() {
+    ZonedDateTime start = ZonedDateTime.of(2025, 4, 2, 22, 0, 0, 0, CHICAGO);
+    List<HourlyPeriod> periods = hours(start, 4);
+    DayIndex index = DayIndex.of(periods, CHICAGO);
+
+    assertEquals(periods.subList(2, 4), index.slice(periods, 1));
+  }
+}
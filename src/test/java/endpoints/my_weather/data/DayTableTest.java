@@ -0,0 +1,103 @@
+package endpoints.my_weather.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import benchmarks.Fixtures;
+import endpoints.my_weather.api.HourlyForecastDecoder;
+import endpoints.my_weather.api.MyWeatherAPI;
+import views.util.UnitHandler.TemperatureUnit;
+
+class DayTableTest {
+  static final ZoneId CHICAGO = ZoneId.of("America/Chicago");
+  static byte[] body;
+
+  @BeforeAll
+  static void loadFixture() throws Exception {
+    body = Fixtures.read("fixtures/hourly_forecast.json");
+  }
+
+  static ArrayList<HourlyPeriod> periods() {
+    return MyWeatherAPI.getHourlyObject(new String(body, StandardCharsets.UTF_8)).properties.periods;
+  }
+
+  @Test
+  void matchesTheHours() {
+    List<HourlyPeriod> periods = periods();
+    DayTable table = DayTable.of(periods, CHICAGO);
+    assertEquals(8, table.days());
+
+    for (int day = 0; day < table.days(); day++) {
+      List<HourlyPeriod> hours = table.index().slice(periods, day);
+      assertEquals(hours.size(), table.hours(day));
+      assertEquals(hours.stream().mapToInt(p -> p.temperature).min().getAsInt(),
+          table.minTemperature(day, TemperatureUnit.Fahrenheit));
+      assertEquals(hours.stream().mapToInt(p -> p.temperature).max().getAsInt(),
+          table.maxTemperature(day, TemperatureUnit.Fahrenheit));
+      assertEquals(hours.stream().mapToInt(p -> p.probabilityOfPrecipitation.value).max().getAsInt(),
+          table.maxPrecipitation(day));
+      assertEquals(hours.stream().mapToInt(p -> p.relativeHumidity.value).sum() / hours.size(),
+          table.meanHumidity(day));
+      assertEquals(hours.stream().mapToInt(p -> p.windSpeedMin).sum() / hours.size(),
+          table.meanWindSpeed(day));
+    }
+  }
+
+  @Test
+  void seriesAndPeriodsAgree() throws Exception {
+    DayTable fromPeriods = DayTable.of(periods(), CHICAGO);
+    DayTable fromSeries = DayTable.of(HourlyForecastDecoder.decode(new ByteArrayInputStream(body)), CHICAGO);
+
+    assertEquals(fromPeriods.days(), fromSeries.days());
+    for (int day = 0; day < fromPeriods.days(); day++) {
+      assertEquals(fromPeriods.date(day), fromSeries.date(day));
+      assertEquals(fromPeriods.minTemperature(day, TemperatureUnit.Celsius),
+          fromSeries.minTemperature(day, TemperatureUnit.Celsius));
+      assertEquals(fromPeriods.meanWindSpeed(day), fromSeries.meanWindSpeed(day));
+      assertEquals(fromPeriods.commonForecast(day), fromSeries.commonForecast(day));
+      assertEquals(fromPeriods.commonIsDaytime(day), fromSeries.commonIsDaytime(day));
+    }
+  }
+
+  @Test
+  void onlyChangedDaysAreComputed() {
+    ArrayList<HourlyPeriod> periods = periods();
+    DayTable table = DayTable.of(periods, CHICAGO);
+
+    // the same forecast again
+    assertEquals(0, table.update(periods));
+
+    // one hour of the third day gets hotter
+    int hour = table.index().from(2) + 3;
+    periods.get(hour).temperature = 120;
+    assertEquals(1, table.update(periods));
+    assertEquals(120, table.maxTemperature(2, TemperatureUnit.Fahrenheit));
+  }
+
+  @Test
+  void movingForwardKeepsLaterDays() {
+    ArrayList<HourlyPeriod> periods = periods();
+    DayTable table = DayTable.of(periods, CHICAGO);
+    int secondDayMax = table.maxTemperature(1, TemperatureUnit.Fahrenheit);
+    int firstDayHours = table.hours(0);
+
+    // an hour later, the first hour is gone
+    assertEquals(1, table.update(periods.subList(1, periods.size())));
+    assertEquals(firstDayHours - 1, table.hours(0));
+    assertEquals(secondDayMax, table.maxTemperature(1, TemperatureUnit.Fahrenheit));
+
+    // a day later, the first day is gone
+    List<HourlyPeriod> nextDay = periods.subList(table.index().to(0) + 1, periods.size());
+    assertEquals(0, table.update(nextDay));
+    assertEquals(7, table.days());
+    assertEquals(secondDayMax, table.maxTemperature(0, TemperatureUnit.Fahrenheit));
+  }
+}
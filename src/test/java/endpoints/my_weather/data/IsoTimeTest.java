@@ -0,0 +1,34 @@
+package endpoints.my_weather.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class IsoTimeTest {
+  @Test
+  void matchesOffsetDateTime() {
+    for (String time : new String[] { "2025-04-02T14:00:00-05:00", "2024-02-29T23:30:15+09:30",
+        "1969-12-31T23:59:59-00:00", "2000-03-01T00:00:00+14:00" }) {
+      assertEquals(OffsetDateTime.parse(time).toEpochSecond(), IsoTime.epochSecond(time), time);
+    }
+
+    // other layouts are still understood
+    assertEquals(OffsetDateTime.parse("2025-04-02T19:00Z").toEpochSecond(),
+        IsoTime.epochSecond("2025-04-02T19:00Z"));
+    assertEquals(0, IsoTime.epochSecond(null));
+
+    // only the characters asked about are read
+    char[] text = "\"2025-04-02T14:00:00-05:00\"".toCharArray();
+    assertEquals(1743620400L, IsoTime.epochSecond(text, 1, 25));
+  }
+
+  @Test
+  void epochDays() {
+    for (LocalDate date = LocalDate.of(1899, 12, 1); date.getYear() < 2101; date = date.plusDays(17)) {
+      assertEquals(date.toEpochDay(), IsoTime.epochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package endpoints.my_weather.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import benchmarks.Fixtures;
+import endpoints.my_weather.api.HourlyForecastDecoder;
+import endpoints.my_weather.api.MyWeatherAPI;
+
+class WindTest {
+  @Test
+  void speeds() {
+    assertEquals(5, Wind.minSpeed("5 mph"));
+    assertEquals(5, Wind.maxSpeed("5 mph"));
+    assertEquals(10, Wind.minSpeed("10 to 15 mph"));
+    assertEquals(15, Wind.maxSpeed("10 to 15 mph"));
+    assertEquals(0, Wind.minSpeed("calm"));
+    assertEquals(0, Wind.maxSpeed(""));
+    assertEquals(0, Wind.maxSpeed(null));
+
+    // only the characters asked about are read
+    char[] text = "x 20 to 25 mph 99".toCharArray();
+    assertEquals(20, Wind.minSpeed(text, 2, 12));
+    assertEquals(25, Wind.maxSpeed(text, 2, 12));
+  }
+
+  @Test
+  void directions() {
+    assertEquals(0, Wind.degrees("N"));
+    assertEquals(22.5, Wind.degrees("NNE"));
+    assertEquals(180, Wind.degrees("S"));
+    assertEquals(337.5, Wind.degrees("NNW"));
+    assertTrue(Float.isNaN(Wind.degrees("")));
+    assertTrue(Float.isNaN(Wind.degrees("North")));
+    assertTrue(Float.isNaN(Wind.degrees(null)));
+
+    for (String point : new String[] { "N", "ENE", "SW", "WNW", "NNW" }) {
+      assertEquals(point, Wind.compassPoint(Wind.degrees(point)));
+    }
+    assertEquals("N", Wind.compassPoint(355));
+    assertEquals("N", Wind.compassPoint(Double.NaN));
+  }
+
+  @Test
+  void decodersAgree() throws Exception {
+    byte[] body = Fixtures.read("fixtures/hourly_forecast.json");
+    ForecastSeries series = HourlyForecastDecoder.decode(new ByteArrayInputStream(body));
+    List<HourlyPeriod> periods = MyWeatherAPI.getHourlyObject(new String(body, StandardCharsets.UTF_8))
+        .properties.periods;
+
+    assertEquals(periods.size(), series.size());
+    for (int i = 0; i < series.size(); i++) {
+      HourlyPeriod p = periods.get(i);
+      assertEquals(p.windSpeedMin, series.windSpeed(i));
+      assertEquals(p.windSpeedMax, series.windSpeedMax(i));
+      assertEquals(p.windDegrees, series.windDirection(i));
+      assertFalse(Float.isNaN(p.windDegrees), p.windDirection);
+    }
+  }
+}
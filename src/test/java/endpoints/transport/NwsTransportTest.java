@@ -0,0 +1,194 @@
+package endpoints.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fake.FakeNwsServer;
+
+class NwsTransportTest {
+  static FakeNwsServer server;
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    server = FakeNwsServer.start();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    NwsTransport.setCache(null);
+    NwsTransport.configure(new TransportConfig());
+    server.close();
+  }
+
+  @AfterEach
+  void resetServer() {
+    server.reset();
+    NwsTransport.setCache(null);
+  }
+
+  /**
+   * a transport talking to the fake server, retrying quickly
+   */
+  static void configure(ResilienceConfig resilience) {
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(resilience.withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+  }
+
+  @Test
+  void baseUrlIsConfigurable() throws Exception {
+    configure(new ResilienceConfig());
+    assertEquals(server.baseUrl(), NwsTransport.baseUrl());
+
+    NwsResponse response = NwsTransport.get(NwsTransport.baseUrl() + "/gridpoints/LOT/76,73/forecast");
+    assertEquals(200, response.statusCode);
+    assertEquals(1, server.requests("forecast"));
+  }
+
+  @Test
+  void pointsWithTooMuchPrecisionAreRedirected() throws Exception {
+    configure(new ResilienceConfig());
+
+    NwsResponse response = NwsTransport.get(server.baseUrl() + "/points/41.87811,-87.62980");
+    assertEquals(301, response.statusCode);
+    assertEquals("/points/41.8781,-87.6298", response.headers.firstValue("location").orElse(null));
+  }
+
+  @Test
+  void cachedResponsesAreRevalidatedWithTheirETag() throws Exception {
+    configure(new ResilienceConfig());
+    Path dir = Files.createTempDirectory("weatherfx-test");
+    NwsTransport.setCache(new ResponseCache(dir.resolve("cache.db"), ResponseCache.DEFAULT_MAX_BYTES,
+        Duration.ZERO));
+
+    String url = server.baseUrl() + "/gridpoints/LOT/76,73/stations";
+    NwsResponse first = NwsTransport.get(url);
+    NwsResponse second = NwsTransport.get(url);
+
+    assertEquals(200, first.statusCode);
+    assertEquals(200, second.statusCode);
+    assertTrue(second.fromCache);
+    assertArrayEquals(first.body, second.body);
+    assertEquals(1, server.notModified());
+  }
+
+  @Test
+  void noCacheResponsesAreRevalidatedBeforeEveryUse() throws Exception {
+    configure(new ResilienceConfig());
+    Path dir = Files.createTempDirectory("weatherfx-test");
+    NwsTransport.setCache(new ResponseCache(dir.resolve("cache.db"), ResponseCache.DEFAULT_MAX_BYTES,
+        ResponseCache.DEFAULT_STALE_WINDOW));
+
+    // neither may be served stale, even with a stale window configured
+    for (String cacheControl : new String[] { "no-cache", "public" }) {
+      server.reset();
+      server.withCacheControl(cacheControl);
+      String url = server.baseUrl() + "/gridpoints/LOT/76,73/forecast?" + cacheControl;
+
+      NwsTransport.get(url);
+      NwsResponse second = NwsTransport.get(url);
+      assertTrue(second.fromCache);
+      assertEquals(2, server.requests(), cacheControl);
+      assertEquals(1, server.notModified(), cacheControl);
+    }
+  }
+
+  @Test
+  void transientFailuresAreRetried() throws Exception {
+    configure(new ResilienceConfig().withMaxRetries(2).withHedging(false));
+    server.failNext(2, 503);
+
+    NwsResponse response = NwsTransport.get(server.baseUrl() + "/gridpoints/LOT/76,73/forecast");
+    assertEquals(200, response.statusCode);
+    assertEquals(3, server.requests());
+    assertEquals(2, NwsTransport.getResilienceStats().retries);
+  }
+
+  @Test
+  void openCircuitServesTheCachedResponse() throws Exception {
+    configure(new ResilienceConfig().withMaxRetries(0).withHedging(false).withFailureThreshold(2)
+        .withOpenDuration(Duration.ofMinutes(1)));
+    Path dir = Files.createTempDirectory("weatherfx-test");
+    ResponseCache cache = new ResponseCache(dir.resolve("cache.db"), ResponseCache.DEFAULT_MAX_BYTES,
+        Duration.ZERO);
+    NwsTransport.setCache(cache);
+    String url = server.baseUrl() + "/stations/KMDW/observations/latest";
+
+    NwsResponse good = NwsTransport.get(url);
+    server.failNext(2, 500);
+    assertEquals(500, NwsTransport.get(url).statusCode);
+    assertEquals(500, NwsTransport.get(url).statusCode);
+
+    // the circuit is open, the server is not asked again
+    int asked = server.requests();
+    long misses = cache.getStats().misses;
+    NwsResponse fallback = NwsTransport.get(url);
+    assertEquals(asked, server.requests());
+    assertEquals(200, fallback.statusCode);
+    assertTrue(fallback.fromCache);
+    assertArrayEquals(good.body, fallback.body);
+    assertEquals(1, NwsTransport.getResilienceStats().opens);
+
+    // nothing was learned, so the entry is still due for revalidation
+    assertEquals(misses, cache.getStats().misses);
+    assertFalse(cache.lookup(url).get().isFresh(System.currentTimeMillis()));
+
+    // with nothing cached there is nothing to fall back on
+    NwsTransport.setCache(null);
+    ExecutionException e = assertThrows(ExecutionException.class, () -> NwsTransport.getAsync(url).get());
+    assertInstanceOf(CircuitOpenException.class, e.getCause());
+  }
+
+  @Test
+  void droppedBulkRequestsLeaveTheCircuitClosed() throws Exception {
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(5, 5)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+    NwsTransport.setCache(null);
+    String url = server.baseUrl() + "/gridpoints/LOT/76,73/forecast";
+
+    // more bulk work than the bulk lane holds, so the rest is dropped
+    List<CompletableFuture<NwsResponse>> bulk = new ArrayList<>();
+    for (int i = 0; i < RateLimiter.DEFAULT_BULK_QUEUE_CAPACITY + 50; i++) {
+      bulk.add(Priority.with(Priority.Bulk, () -> NwsTransport.getAsync(url)));
+    }
+    int dropped = 0;
+    for (CompletableFuture<NwsResponse> future : bulk) {
+      if (future.isCompletedExceptionally()) {
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertInstanceOf(RateLimitedException.class, e.getCause());
+        dropped++;
+      }
+    }
+    assertTrue(dropped > 0);
+
+    try {
+      // dropped requests were never sent, so nothing was retried or counted
+      // against the endpoint
+      ResilienceStats stats = NwsTransport.getResilienceStats();
+      assertEquals(0, stats.opens);
+      assertEquals(0, stats.retries);
+
+      // and an interactive request goes ahead of the waiting bulk work
+      NwsResponse response = Priority.with(Priority.Interactive, () -> NwsTransport.getAsync(url)).get();
+      assertEquals(200, response.statusCode);
+      assertFalse(response.fromCache);
+    } finally {
+      bulk.forEach(future -> future.cancel(true));
+    }
+  }
+}
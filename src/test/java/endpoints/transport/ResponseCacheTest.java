@@ -0,0 +1,75 @@
+package endpoints.transport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.http.HttpHeaders;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ResponseCacheTest {
+  ResponseCache cache;
+
+  @BeforeEach
+  void openCache() throws Exception {
+    cache = new ResponseCache(Files.createTempDirectory("weatherfx-test").resolve("cache.db"),
+        ResponseCache.DEFAULT_MAX_BYTES, Duration.ZERO);
+  }
+
+  @AfterEach
+  void closeCache() {
+    cache.close();
+  }
+
+  private static HttpHeaders headers(String... namesAndValues) {
+    Map<String, List<String>> map = new HashMap<>();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      map.put(namesAndValues[i], List.of(namesAndValues[i + 1]));
+    }
+    return HttpHeaders.of(map, (name, value) -> true);
+  }
+
+  private static String httpDate(long epochMilli) {
+    return DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(epochMilli).atOffset(ZoneOffset.UTC));
+  }
+
+  /**
+   * store a response and get how long it is fresh for, in seconds
+   */
+  private long freshFor(HttpHeaders headers) {
+    long now = System.currentTimeMillis();
+    cache.store("https://api.weather.gov/test", 200, headers, new byte[] { 1 });
+    return (cache.lookup("https://api.weather.gov/test").get().expiresAt - now) / 1000;
+  }
+
+  @Test
+  void maxAgeCountsFromWhenTheResponseWasMade() {
+    assertEquals(600, freshFor(headers("Cache-Control", "max-age=600")), 2);
+
+    // already aged in a shared cache on the way
+    assertEquals(10, freshFor(headers("Cache-Control", "max-age=600", "Age", "590")), 2);
+
+    // made 20 minutes ago, by its Date
+    long now = System.currentTimeMillis();
+    assertTrue(freshFor(headers("Cache-Control", "max-age=600", "Date", httpDate(now - 1_200_000))) <= 0);
+    assertEquals(300, freshFor(headers("Cache-Control", "max-age=600", "Date", httpDate(now - 300_000))), 2);
+  }
+
+  @Test
+  void expiresIsMeasuredAgainstTheServersClock() {
+    long now = System.currentTimeMillis();
+    assertEquals(300, freshFor(headers("Expires", httpDate(now + 300_000), "Date", httpDate(now - 200_000))),
+        2);
+    assertTrue(freshFor(headers("Expires", "not a date")) <= 0);
+    assertTrue(freshFor(headers()) <= 0);
+  }
+}
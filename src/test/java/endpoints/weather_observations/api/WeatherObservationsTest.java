@@ -0,0 +1,82 @@
+package endpoints.weather_observations.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import endpoints.weather_observations.data.Observations;
+import endpoints.weather_observations.data.Observations.Unit;
+import fake.FakeNwsServer;
+
+class WeatherObservationsTest {
+  static FakeNwsServer server;
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    server = FakeNwsServer.start();
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+    StationCatalog.getDefault().clear();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    NwsTransport.configure(new TransportConfig());
+    StationCatalog.getDefault().clear();
+    server.close();
+  }
+
+  @Test
+  void nearestStation() throws Exception {
+    // midway airport
+    assertEquals("KMDW", WeatherStations.getNearestStation("LOT", 76, 73, 41.786, -87.752));
+    // o'hare
+    assertEquals("KORD", WeatherStations.getNearestStation("LOT", 76, 73, 41.97, -87.9));
+  }
+
+  @Test
+  void stationsAreDownloadedOncePerGridPoint() throws Exception {
+    StationCatalog.getDefault().clear();
+    int before = server.requests("stations");
+    WeatherStations.getNearestStation("LOT", 76, 73, 41.786, -87.752);
+    WeatherStations.getNearestStation("LOT", 76, 73, 41.97, -87.9);
+    assertEquals(before + 1, server.requests("stations"));
+  }
+
+  @Test
+  void observations() throws Exception {
+    Observations observations = WeatherObservations.getWeatherObservations("LOT", 76, 73, 41.8781,
+        -87.6298);
+    assertNotNull(observations);
+    assertEquals(24.084, observations.windSpeed, 1e-9);
+    assertEquals(Unit.KilometersPerHour, observations.windSpeedUnit);
+    assertEquals(24.084 * 0.621371, observations.windSpeedMph(), 1e-9);
+    assertEquals(101080, observations.barometricPressure);
+    assertEquals(Unit.Pascals, observations.barometricPressureUnit);
+    assertEquals(90, observations.windDirection);
+    assertEquals(Unit.Degrees, observations.windDirectionUnit);
+    assertEquals(1743619980L, observations.timestamp);
+
+    // reported as null, but the unit is still given
+    assertTrue(Double.isNaN(observations.windChill));
+    assertEquals(Unit.Celsius, observations.windChillUnit);
+  }
+
+  @Test
+  void unitCodes() {
+    for (Unit unit : Unit.values()) {
+      assertEquals(unit, Unit.of(unit.code));
+    }
+    assertEquals(Unit.Unknown, Unit.of("wmoUnit:mm"));
+    assertEquals(Unit.Unknown, Unit.of(""));
+  }
+}
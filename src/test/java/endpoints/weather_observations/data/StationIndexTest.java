@@ -0,0 +1,142 @@
+package endpoints.weather_observations.data;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class StationIndexTest {
+  private static Stations station(String id, double lat, double lon) {
+    Stations station = new Stations();
+    station.geometry = station.new Geometry();
+    station.geometry.coordinates = new ArrayList<>(List.of(lon, lat));
+    station.properties = station.new Properties();
+    station.properties.stationIdentifier = id;
+    return station;
+  }
+
+  /**
+   * stations laid out roughly like the NWS network: mostly the lower 48, then
+   * Alaska, the Aleutians and Pacific islands on both sides of the
+   * antimeridian, and a few anywhere including near the poles
+   */
+  private static List<Stations> randomStations(Random random, int n) {
+    ArrayList<Stations> stations = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      double lat, lon;
+      switch (i % 10) {
+        case 0:
+        case 1:
+          lat = 55 + random.nextDouble() * 16;
+          lon = -170 + random.nextDouble() * 40;
+          break;
+        case 2:
+          lat = 13 + random.nextDouble() * 40;
+          lon = random.nextBoolean() ? 144 + random.nextDouble() * 36 : -180 + random.nextDouble() * 15;
+          break;
+        case 3:
+          lat = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+          lon = -180 + random.nextDouble() * 360;
+          break;
+        default:
+          lat = 25 + random.nextDouble() * 24;
+          lon = -125 + random.nextDouble() * 58;
+          break;
+      }
+      stations.add(station("S" + i, lat, lon));
+    }
+    return stations;
+  }
+
+  /**
+   * the distances to the {@code k} closest stations, by checking every one
+   */
+  private static double[] bruteForce(List<Stations> stations, double lat, double lon, int k) {
+    double[] distances = new double[stations.size()];
+    for (int i = 0; i < distances.length; i++) {
+      List<Double> position = stations.get(i).geometry.coordinates;
+      distances[i] = StationIndex.haversineKm(lat, lon, position.get(1), position.get(0));
+    }
+    Arrays.sort(distances);
+    return Arrays.copyOf(distances, k);
+  }
+
+  @Test
+  void matchesBruteForce() {
+    Random random = new Random(7);
+    List<Stations> stations = randomStations(random, 500);
+    StationIndex index = new StationIndex(stations);
+    assertEquals(500, index.size());
+
+    HashMap<String, List<Double>> positions = new HashMap<>();
+    for (Stations station : stations) {
+      positions.put(station.properties.stationIdentifier, station.geometry.coordinates);
+    }
+
+    for (int i = 0; i < 2000; i++) {
+      double lat, lon;
+      switch (i % 3) {
+        case 0:
+          // on either side of the antimeridian
+          lat = -70 + random.nextDouble() * 140;
+          lon = random.nextBoolean() ? 179 + random.nextDouble() : -180 + random.nextDouble();
+          break;
+        case 1:
+          lat = (random.nextBoolean() ? 1 : -1) * (75 + random.nextDouble() * 15);
+          lon = -180 + random.nextDouble() * 360;
+          break;
+        default:
+          lat = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+          lon = -180 + random.nextDouble() * 360;
+          break;
+      }
+
+      double[] expected = bruteForce(stations, lat, lon, 5);
+      List<String> found = index.nearest(lat, lon, 5);
+      assertEquals(5, found.size());
+      for (int j = 0; j < 5; j++) {
+        List<Double> position = positions.get(found.get(j));
+        assertEquals(expected[j], StationIndex.haversineKm(lat, lon, position.get(1), position.get(0)), 1e-9,
+            "station " + j + " near " + lat + "," + lon);
+      }
+      assertEquals(found.getFirst(), index.nearest(lat, lon));
+    }
+  }
+
+  @Test
+  void searchesAcrossTheAntimeridian() {
+    // the mainland only, so the islands below are the closest by far
+    List<Stations> stations = new ArrayList<>(randomStations(new Random(11), 200));
+    stations.removeIf(station -> {
+      double lon = station.geometry.coordinates.get(0);
+      return lon < -170 || lon > 0;
+    });
+    stations.add(station("PADK", 51.88, -176.65));
+    stations.add(station("PAAK", 51.38, 179.26));
+    stations.add(station("PASY", 52.71, 174.11));
+    stations.add(station("PACD", 55.2, -162.72));
+    StationIndex index = new StationIndex(stations);
+
+    // Adak is on the same side but more than twice as far
+    assertEquals("PAAK", index.nearest(51.85, -179.9));
+    assertEquals("PAAK", index.nearest(51.85, -179.9, 3).getFirst());
+    assertEquals("PADK", index.nearest(51.85, -177));
+  }
+
+  @Test
+  void skipsStationsWithoutAPosition() {
+    Stations missing = new Stations();
+    missing.properties = missing.new Properties();
+    missing.properties.stationIdentifier = "NONE";
+    StationIndex index = new StationIndex(List.of(missing, station("KORD", 41.96, -87.93)));
+
+    assertEquals(1, index.size());
+    assertEquals("KORD", index.nearest(0, 0));
+    assertNull(new StationIndex(List.of()).nearest(0, 0));
+  }
+}
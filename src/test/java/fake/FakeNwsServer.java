@@ -0,0 +1,335 @@
+package fake;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import benchmarks.Fixtures;
+
+/**
+ * A local stand-in for api.weather.gov, serving the recorded responses in
+ * {@code src/test/resources/fixtures} for every grid point and station.
+ *
+ * Point the client at it with
+ * {@code NwsTransport.configure(new TransportConfig().withBaseUrl(server.baseUrl()))}.
+ *
+ * Like the real service it:
+ * - answers {@code /points} with more than four decimals with a 301 to the
+ *   rounded point
+ * - sends an {@code ETag} with every response and answers a matching
+ *   {@code If-None-Match} with a 304
+ * - sends {@code Cache-Control: max-age}, see {@code withMaxAge} and
+ *   {@code withCacheControl}
+ *
+ * Latency and failures can be added with {@code withLatency},
+ * {@code failNext} and {@code withErrorRate}.
+ */
+public class FakeNwsServer implements AutoCloseable {
+  private static final Pattern POINTS = Pattern.compile("/points/(-?[\\d.]+),(-?[\\d.]+)");
+  private static final Pattern GRIDPOINT = Pattern
+      .compile("/gridpoints/\\w+/\\d+,\\d+/(forecast/hourly|forecast|stations)");
+  private static final Pattern OBSERVATION = Pattern.compile("/stations/\\w+/observations/latest");
+
+  static {
+    // answer without waiting on delayed ACKs, see ForecastServer
+    if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+      System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+  }
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool(task -> {
+    Thread thread = new Thread(task, "fake-nws");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  // fixture name to body, and body to ETag
+  private final Map<String, byte[]> bodies = new HashMap<>();
+  private final Map<String, String> etags = new HashMap<>();
+
+  private volatile Duration latency = Duration.ZERO;
+  private volatile int maxAge = 0;
+  // sent instead of the max-age header if set
+  private volatile String cacheControl;
+  private volatile double errorRate = 0;
+  private volatile int errorStatus = 503;
+  private final ArrayDeque<Integer> failures = new ArrayDeque<>();
+
+  // counters
+  private final AtomicInteger requests = new AtomicInteger();
+  private final AtomicInteger notModified = new AtomicInteger();
+  private final ConcurrentHashMap<String, AtomicInteger> byKind = new ConcurrentHashMap<>();
+
+  private FakeNwsServer() throws IOException {
+    for (String name : new String[] { "points", "forecast", "hourly_forecast", "stations",
+        "observations_latest" }) {
+      byte[] body = Fixtures.read("fixtures/" + name + ".json");
+      bodies.put(name, body);
+      etags.put(name, "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"");
+    }
+
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+  }
+
+  /**
+   * start a server on a free local port
+   *
+   * @return the running {@code FakeNwsServer}
+   */
+  public static FakeNwsServer start() throws IOException {
+    FakeNwsServer fake = new FakeNwsServer();
+    fake.server.start();
+    return fake;
+  }
+
+  /**
+   * get the url to configure the client with
+   *
+   * @return the base url, such as {@code http://127.0.0.1:41234}
+   */
+  public String baseUrl() {
+    return "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  /**
+   * delay every response by {@code latency}
+   */
+  public FakeNwsServer withLatency(Duration latency) {
+    this.latency = latency;
+    return this;
+  }
+
+  /**
+   * send {@code Cache-Control: max-age=seconds} with every response. the
+   * default of 0 makes the client revalidate every time
+   */
+  public FakeNwsServer withMaxAge(int seconds) {
+    this.maxAge = seconds;
+    return this;
+  }
+
+  /**
+   * send {@code Cache-Control: value} with every response instead of a
+   * {@code max-age}, such as {@code no-cache}
+   */
+  public FakeNwsServer withCacheControl(String value) {
+    this.cacheControl = value;
+    return this;
+  }
+
+  /**
+   * answer a random share of requests with {@code status}
+   *
+   * @param rate   between 0 and 1
+   * @param status the status to fail with
+   */
+  public FakeNwsServer withErrorRate(double rate, int status) {
+    this.errorRate = rate;
+    this.errorStatus = status;
+    return this;
+  }
+
+  /**
+   * answer the next {@code count} requests with {@code status}
+   */
+  public FakeNwsServer failNext(int count, int status) {
+    synchronized (failures) {
+      for (int i = 0; i < count; i++) {
+        failures.add(status);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * get how many requests have been received
+   *
+   * @return the count of every request, whatever its answer
+   */
+  public int requests() {
+    return requests.get();
+  }
+
+  /**
+   * get how many requests of one kind have been received
+   *
+   * @param kind one of {@code points}, {@code forecast},
+   *             {@code hourly_forecast}, {@code stations},
+   *             {@code observations_latest} or {@code redirect}
+   * @return the count
+   */
+  public int requests(String kind) {
+    AtomicInteger count = byKind.get(kind);
+    return count == null ? 0 : count.get();
+  }
+
+  /**
+   * get how many requests were answered with a 304
+   */
+  public int notModified() {
+    return notModified.get();
+  }
+
+  /**
+   * forget the counters, failures and latency
+   */
+  public void reset() {
+    requests.set(0);
+    notModified.set(0);
+    byKind.clear();
+    latency = Duration.ZERO;
+    maxAge = 0;
+    cacheControl = null;
+    errorRate = 0;
+    synchronized (failures) {
+      failures.clear();
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try (exchange) {
+      requests.incrementAndGet();
+      String path = exchange.getRequestURI().getPath();
+
+      if (!latency.isZero()) {
+        try {
+          Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+
+      Integer failure;
+      synchronized (failures) {
+        failure = failures.poll();
+      }
+      if (failure == null && errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+        failure = errorStatus;
+      }
+      if (failure != null) {
+        problem(exchange, failure, "Injected failure");
+        return;
+      }
+
+      // the warm up request
+      if (path.equals("/")) {
+        exchange.sendResponseHeaders(200, -1);
+        return;
+      }
+
+      Matcher points = POINTS.matcher(path);
+      if (points.matches()) {
+        String lat = rounded(points.group(1));
+        String lon = rounded(points.group(2));
+        if (!lat.equals(points.group(1)) || !lon.equals(points.group(2))) {
+          count("redirect");
+          exchange.getResponseHeaders().set("Location", "/points/" + lat + "," + lon);
+          exchange.sendResponseHeaders(301, -1);
+          return;
+        }
+        fixture(exchange, "points");
+        return;
+      }
+
+      Matcher gridpoint = GRIDPOINT.matcher(path);
+      if (gridpoint.matches()) {
+        switch (gridpoint.group(1)) {
+          case "forecast/hourly":
+            fixture(exchange, "hourly_forecast");
+            break;
+          case "forecast":
+            fixture(exchange, "forecast");
+            break;
+          default:
+            fixture(exchange, "stations");
+            break;
+        }
+        return;
+      }
+
+      if (OBSERVATION.matcher(path).matches()) {
+        fixture(exchange, "observations_latest");
+        return;
+      }
+
+      problem(exchange, 404, "Not Found");
+    }
+  }
+
+  /**
+   * send a fixture, or a 304 if the client already has it
+   */
+  private void fixture(HttpExchange exchange, String name) throws IOException {
+    count(name);
+    String etag = etags.get(name);
+    exchange.getResponseHeaders().set("ETag", etag);
+    exchange.getResponseHeaders().set("Cache-Control",
+        cacheControl != null ? cacheControl : "public, max-age=" + maxAge);
+
+    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+      notModified.incrementAndGet();
+      exchange.sendResponseHeaders(304, -1);
+      return;
+    }
+
+    byte[] body = bodies.get(name);
+    exchange.getResponseHeaders().set("Content-Type", "application/geo+json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * send an error in the shape api.weather.gov uses
+   */
+  private static void problem(HttpExchange exchange, int status, String title) throws IOException {
+    byte[] body = ("{\"type\":\"https://api.weather.gov/problems/Fake\",\"title\":\"" + title
+        + "\",\"status\":" + status + "}").getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", "application/problem+json");
+    exchange.sendResponseHeaders(status, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private void count(String kind) {
+    byKind.computeIfAbsent(kind, k -> new AtomicInteger()).incrementAndGet();
+  }
+
+  /**
+   * round a coordinate to four decimals, the way the service wants them
+   */
+  private static String rounded(String coordinate) {
+    return new BigDecimal(coordinate).setScale(4, RoundingMode.HALF_UP)
+        .stripTrailingZeros().toPlainString();
+  }
+}
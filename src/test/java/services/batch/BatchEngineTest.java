@@ -0,0 +1,100 @@
+package services.batch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import endpoints.weather_observations.api.StationCatalog;
+import fake.FakeNwsServer;
+
+class BatchEngineTest {
+  static FakeNwsServer server;
+
+  // every point of the fake server is in the same cell
+  static final List<BatchSite> SITES = List.of(
+      new BatchSite(41.8781, -87.6298, "Loop"),
+      new BatchSite(41.786, -87.752, "Midway"),
+      new BatchSite(41.97, -87.9, "O'Hare"),
+      new BatchSite(41.8781, -87.6298, "Loop again"));
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    server = FakeNwsServer.start();
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+    StationCatalog.getDefault().clear();
+  }
+
+  @AfterAll
+  static void stopServer() {
+    NwsTransport.configure(new TransportConfig());
+    StationCatalog.getDefault().clear();
+    server.close();
+  }
+
+  @Test
+  void sitesShareCellsAndStations() throws Exception {
+    List<BatchResult> results = new ArrayList<>();
+    BatchReport report = new BatchEngine().withConcurrency(4).run(SITES, results::add);
+
+    assertEquals(4, report.sites);
+    assertEquals(4, report.succeeded);
+    assertEquals(1, report.cells);
+    // the loop and midway are nearest to midway, o'hare to o'hare
+    assertEquals(2, report.stations);
+    assertEquals(4, report.stages.get(BatchEngine.TOTAL).count());
+
+    for (BatchResult result : results) {
+      assertTrue(result.isSuccess(), result.error);
+      assertTrue(result.hourly.size() > 0);
+      assertNotNull(result.observations);
+    }
+  }
+
+  @Test
+  void parseSites() {
+    List<BatchSite> sites = BatchCli.parseSites(List.of("# comment", "", "41.8781, -87.6298, Chicago", "1,2"));
+    assertEquals(2, sites.size());
+    assertEquals("Chicago", sites.get(0).name);
+    assertEquals(-87.6298, sites.get(0).lon, 1e-9);
+    assertNull(sites.get(1).name);
+  }
+
+  @Test
+  void csvHasOneRowPerSiteHour() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = ResultWriter.forFormat("csv", out, 6)) {
+      new BatchEngine().run(SITES.subList(0, 2), writer);
+    }
+    String[] rows = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(1 + 2 * 6, rows.length);
+    assertTrue(rows[0].startsWith("index,name,lat,lon"));
+  }
+
+  @Test
+  void ndjsonHasOneLinePerSite() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = ResultWriter.forFormat("ndjson", out, 3)) {
+      new BatchEngine().run(SITES, writer);
+    }
+    String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(4, lines.length);
+    for (String line : lines) {
+      assertTrue(line.startsWith("{") && line.endsWith("}"), line);
+      assertTrue(line.contains("\"hourly\":["), line);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package services.polling;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import endpoints.my_weather.data.ForecastSeries;
+
+class ForecastPollerTest {
+  // an upstream whose forecast is regenerated whenever the test says so
+  final AtomicLong updateTime = new AtomicLong(1_700_000_000);
+  final AtomicInteger fetches = new AtomicInteger();
+
+  CompletableFuture<ForecastSeries> fetch(String region, int gridX, int gridY) {
+    fetches.incrementAndGet();
+    ForecastSeries series = new ForecastSeries();
+    series.updateTime = updateTime.get();
+    return CompletableFuture.completedFuture(series);
+  }
+
+  ForecastPoller poller() {
+    // a cycle far longer than the test, so only back off drives the polls
+    return new ForecastPoller(this::fetch)
+        .withCycle(Duration.ofHours(1), Duration.ZERO)
+        .withIntervals(Duration.ofMillis(20), Duration.ofMillis(80));
+  }
+
+  @Test
+  void onlyNewerForecastsArePushed() throws Exception {
+    CopyOnWriteArrayList<Long> pushed = new CopyOnWriteArrayList<>();
+    try (ForecastPoller poller = poller()) {
+      // the first forecast is old, so the next poll is due right away
+      updateTime.set(System.currentTimeMillis() / 1000 - 7200);
+      poller.watch("LOT", 76, 73, series -> pushed.add(series.updateTime));
+      Thread.sleep(200);
+      assertTrue(pushed.isEmpty(), "the baseline is not pushed");
+
+      updateTime.addAndGet(3600);
+      Thread.sleep(200);
+      assertEquals(1, pushed.size());
+      assertEquals(updateTime.get(), pushed.get(0));
+
+      PollerStats stats = poller.getStats();
+      assertEquals(1, stats.useful);
+      assertEquals(1, stats.pushed);
+      assertTrue(stats.polls > 2);
+      assertTrue(stats.usefulRatio() < 1);
+    }
+  }
+
+  @Test
+  void unchangedForecastsBackOff() throws Exception {
+    try (ForecastPoller poller = poller()) {
+      updateTime.set(System.currentTimeMillis() / 1000 - 7200);
+      poller.watch("LOT", 76, 73, series -> {
+      });
+      // waits of 20, 40, 80, 80... ms, so about 7 polls in 500ms rather than 25
+      Thread.sleep(500);
+      assertTrue(fetches.get() <= 10, "polled " + fetches.get() + " times");
+      assertTrue(fetches.get() >= 3, "polled " + fetches.get() + " times");
+    }
+  }
+
+  @Test
+  void nextPollWaitsForTheUpdateCycle() throws Exception {
+    try (ForecastPoller poller = poller()) {
+      // just updated, so the next update is an hour away
+      updateTime.set(System.currentTimeMillis() / 1000);
+      poller.watch("LOT", 76, 73, series -> {
+      });
+      Thread.sleep(300);
+      assertEquals(1, fetches.get());
+    }
+  }
+
+  @Test
+  void gridIsPolledOnceForManyWatchers() throws Exception {
+    try (ForecastPoller poller = poller()) {
+      updateTime.set(System.currentTimeMillis() / 1000);
+      ForecastPoller.Watch a = poller.watch("LOT", 76, 73, series -> {
+      });
+      ForecastPoller.Watch b = poller.watch("LOT", 76, 73, series -> {
+      });
+      Thread.sleep(100);
+      assertEquals(1, poller.watched());
+      assertEquals(1, fetches.get());
+
+      a.cancel();
+      assertEquals(1, poller.watched());
+      b.cancel();
+      assertEquals(0, poller.watched());
+    }
+  }
+}
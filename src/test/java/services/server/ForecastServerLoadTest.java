@@ -0,0 +1,128 @@
+package services.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import endpoints.weather_observations.api.StationCatalog;
+import fake.FakeNwsServer;
+import services.metrics.LatencyHistogram;
+
+/**
+ * Drives a {@code ForecastServer} backed by a {@code FakeNwsServer} with many
+ * concurrent clients and reports requests per second and latency.
+ *
+ * the test runs a short load so the build stays quick, {@code main} runs a
+ * longer one: {@code ForecastServerLoadTest [seconds] [clients] [locations]}
+ */
+class ForecastServerLoadTest {
+  static final String[] ROUTES = { "/forecast", "/daily", "/observations" };
+
+  /**
+   * How a load run went
+   */
+  static class Result {
+    final long requests, errors;
+    final double seconds;
+    final LatencyHistogram latency;
+
+    Result(long requests, long errors, double seconds, LatencyHistogram latency) {
+      this.requests = requests;
+      this.errors = errors;
+      this.seconds = seconds;
+      this.latency = latency;
+    }
+
+    double throughput() {
+      return requests / seconds;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("requests=%d errors=%d throughput=%.0f req/s p99=%.2fms latency: %s",
+          requests, errors, throughput(), latency.percentileMicros(99) / 1000.0, latency);
+    }
+  }
+
+  /**
+   * run {@code clients} clients against the server for {@code duration}, each
+   * asking for a random route at one of {@code locations} positions
+   */
+  static Result load(Duration duration, int clients, int locations, Duration upstreamLatency) throws Exception {
+    try (FakeNwsServer nws = FakeNwsServer.start().withLatency(upstreamLatency)) {
+      NwsTransport.configure(new TransportConfig()
+          .withBaseUrl(nws.baseUrl())
+          .withRateLimit(10_000, 10_000)
+          .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+      StationCatalog.getDefault().clear();
+
+      try (ForecastServer server = new ForecastServer().withPort(0).start()) {
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        String base = "http://localhost:" + server.port();
+        LatencyHistogram latency = new LatencyHistogram();
+        AtomicLong errors = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+          for (int c = 0; c < clients; c++) {
+            executor.execute(() -> {
+              ThreadLocalRandom random = ThreadLocalRandom.current();
+              while (System.nanoTime() < end) {
+                // spread the locations around chicago
+                int location = random.nextInt(locations);
+                String path = ROUTES[random.nextInt(ROUTES.length)]
+                    + "?lat=" + (41.7 + location * 0.001) + "&lon=" + (-87.8 + location * 0.001);
+                long sent = System.nanoTime();
+                try {
+                  HttpResponse<Void> response = client.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+                      HttpResponse.BodyHandlers.discarding());
+                  if (response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                  }
+                } catch (Exception e) {
+                  errors.incrementAndGet();
+                }
+                latency.recordSince(sent);
+              }
+            });
+          }
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(latency.count(), errors.get(), seconds, latency);
+      } finally {
+        NwsTransport.configure(new TransportConfig());
+        StationCatalog.getDefault().clear();
+      }
+    }
+  }
+
+  @Test
+  void sustainsConcurrentClients() throws Exception {
+    Result result = load(Duration.ofSeconds(2), 32, 50, Duration.ofMillis(20));
+    System.out.println("Forecast server load: " + result);
+    assertEquals(0, result.errors);
+    assertTrue(result.requests > 0);
+  }
+
+  public static void main(String[] args) throws Exception {
+    int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+    int locations = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+    System.out.println(load(Duration.ofSeconds(seconds), clients, locations, Duration.ofMillis(50)));
+  }
+}
@@ -0,0 +1,98 @@
+package services.server;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import endpoints.weather_observations.api.StationCatalog;
+import fake.FakeNwsServer;
+
+class ForecastServerTest {
+  static FakeNwsServer nws;
+  static ForecastServer server;
+  static HttpClient client = HttpClient.newHttpClient();
+
+  @BeforeAll
+  static void startServers() throws Exception {
+    nws = FakeNwsServer.start();
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(nws.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+    StationCatalog.getDefault().clear();
+    server = new ForecastServer().withPort(0).withZone(ZoneId.of("America/Chicago")).start();
+  }
+
+  @AfterAll
+  static void stopServers() {
+    server.close();
+    NwsTransport.configure(new TransportConfig());
+    StationCatalog.getDefault().clear();
+    nws.close();
+  }
+
+  static HttpResponse<String> get(String path) throws Exception {
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path)).build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  @Test
+  void forecast() throws Exception {
+    HttpResponse<String> response = get("/forecast?lat=41.8781&lon=-87.6298");
+    assertEquals(200, response.statusCode());
+    assertEquals("application/json", response.headers().firstValue("Content-Type").orElse(null));
+    assertTrue(response.body().contains("\"region\":\"LOT\""));
+    assertTrue(response.body().contains("\"hourly\":[{"));
+  }
+
+  @Test
+  void repeatedRequestsAreServedFromTheCache() throws Exception {
+    get("/daily?lat=41.97&lon=-87.9");
+    int before = nws.requests();
+    HttpResponse<String> response = get("/daily?lat=41.97&lon=-87.9");
+    assertEquals(200, response.statusCode());
+    assertEquals("hit", response.headers().firstValue("X-Cache").orElse(null));
+    assertEquals(before, nws.requests());
+  }
+
+  @Test
+  void daily() throws Exception {
+    HttpResponse<String> response = get("/daily?lat=41.8781&lon=-87.6298");
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().contains("\"days\":[{\"date\":"));
+    assertTrue(response.body().contains("\"fahrenheit\":["));
+  }
+
+  @Test
+  void observations() throws Exception {
+    HttpResponse<String> response = get("/observations?lat=41.786&lon=-87.752");
+    assertEquals(200, response.statusCode());
+    assertTrue(response.body().contains("\"station\":\"KMDW\""));
+    assertTrue(response.body().contains("\"windSpeed\":24.084"));
+  }
+
+  @Test
+  void badQuery() throws Exception {
+    assertEquals(400, get("/forecast?lat=north").statusCode());
+
+    // parseable, but not a position NWS could have data for
+    int before = nws.requests();
+    for (String query : new String[] { "lat=NaN&lon=-87.6", "lat=41.8&lon=Infinity", "lat=-Infinity&lon=0",
+        "lat=1e9&lon=-87.6", "lat=90.5&lon=0", "lat=0&lon=-180.1" }) {
+      assertEquals(400, get("/forecast?" + query).statusCode(), query);
+    }
+    assertEquals(before, nws.requests());
+  }
+}
@@ -0,0 +1,71 @@
+package tracing;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import endpoints.my_weather.api.MyWeatherAPI;
+import endpoints.transport.NwsTransport;
+import endpoints.transport.ResilienceConfig;
+import endpoints.transport.TransportConfig;
+import fake.FakeNwsServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class TracingTest {
+  static FakeNwsServer server;
+
+  @BeforeAll
+  static void startServer() throws Exception {
+    server = FakeNwsServer.start();
+    NwsTransport.configure(new TransportConfig()
+        .withBaseUrl(server.baseUrl())
+        .withRateLimit(1000, 1000)
+        .withResilience(new ResilienceConfig().withBackoff(Duration.ofMillis(1), Duration.ofMillis(10))));
+  }
+
+  @AfterAll
+  static void stopServer() {
+    NwsTransport.configure(new TransportConfig());
+    server.close();
+  }
+
+  @Test
+  void endpointCallsAreRecorded() throws Exception {
+    Path file = Files.createTempFile("weatherfx", ".jfr");
+    try {
+      try (Recording recording = Tracing.startRecording(file)) {
+        // record every decode, however quick
+        recording.enable(DecodeEvent.class).withThreshold(Duration.ZERO);
+        MyWeatherAPI.getHourlySeries("LOT", 76, 73);
+        // stopping writes the recording to its destination
+        recording.stop();
+      }
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+      RecordedEvent endpoint = events.stream()
+          .filter(e -> e.getEventType().getName().equals("weatherfx.Endpoint"))
+          .filter(e -> "hourly".equals(e.getString("endpoint")))
+          .findFirst().orElseThrow();
+      assertEquals("LOT/76,73", endpoint.getString("location"));
+      assertEquals(200, endpoint.getInt("status"));
+      assertTrue(endpoint.getLong("bytes") > 0);
+      assertTrue(endpoint.getBoolean("succeeded"));
+
+      assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("weatherfx.Exchange")
+          && e.getString("url").endsWith("/forecast/hourly")));
+      assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("weatherfx.JsonDecode")
+          && "ForecastSeries".equals(e.getString("type"))));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
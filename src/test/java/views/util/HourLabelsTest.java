@@ -0,0 +1,41 @@
+package views.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+class HourLabelsTest {
+  @Test
+  void labelsInTheLocationsZone() {
+    ZonedDateTime noon = ZonedDateTime.of(2025, 4, 2, 12, 0, 0, 0, ZoneId.of("America/Denver"));
+
+    HourLabels denver = new HourLabels(ZoneId.of("America/Denver"));
+    assertEquals("12 pm", denver.label(noon.toEpochSecond()));
+    assertEquals("3 pm", denver.label(noon.plusHours(3).toEpochSecond()));
+    assertEquals("12 am", denver.label(noon.plusHours(12).toEpochSecond()));
+    assertEquals("1 am", denver.label(noon.plusHours(13).toEpochSecond()));
+
+    // the same instant is two hours later in new york
+    HourLabels newYork = new HourLabels(ZoneId.of("America/New_York"));
+    assertEquals("2 pm", newYork.label(noon.toEpochSecond()));
+  }
+
+  @Test
+  void followsDaylightSavingTime() {
+    ZoneId chicago = ZoneId.of("America/Chicago");
+    HourLabels labels = new HourLabels(chicago);
+
+    // clocks go from 2 am to 3 am on march 9th 2025
+    ZonedDateTime midnight = ZonedDateTime.of(2025, 3, 9, 0, 0, 0, 0, chicago);
+    for (int hour = 0; hour < 6; hour++) {
+      ZonedDateTime time = midnight.plusHours(hour);
+      assertEquals(time.getHour(), labels.hourOf(time.toEpochSecond()), time.toString());
+    }
+
+    // and back again, going backwards
+    assertEquals(23, labels.hourOf(midnight.minusHours(1).toEpochSecond()));
+  }
+}